@@ -0,0 +1,76 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.deidentifier.arx;
+
+import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
+import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
+import org.deidentifier.arx.framework.check.history.History;
+import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+
+/**
+ * Provides the benchmarks with access to package-private functionality, so that internal
+ * operators can be initialized in the same way as by ARXAnonymizer.
+ *
+ * @author Fabian Prasser
+ */
+public class BenchmarkSupport {
+
+    /**
+     * Creates a history with the default settings of ARXAnonymizer
+     *
+     * @param rows
+     * @param config
+     * @param dictionarySensValue
+     * @param dictionarySensFreq
+     * @param solutionSpace
+     * @return
+     */
+    public static History createHistory(int rows,
+                                        ARXConfigurationInternal config,
+                                        IntArrayDictionary dictionarySensValue,
+                                        IntArrayDictionary dictionarySensFreq,
+                                        SolutionSpace<?> solutionSpace) {
+        ARXAnonymizer anonymizer = new ARXAnonymizer();
+        return new History(rows,
+                           anonymizer.getHistorySize(),
+                           anonymizer.getMaximumSnapshotSizeDataset(),
+                           anonymizer.getMaximumSnapshotSizeSnapshot(),
+                           anonymizer.getHistoryMemoryLimit(),
+                           anonymizer.toEvictionPolicy(anonymizer.getHistoryPolicy()),
+                           anonymizer.isHistoryCompressionEnabled(),
+                           config,
+                           dictionarySensValue,
+                           dictionarySensFreq,
+                           solutionSpace);
+    }
+
+    /**
+     * Initializes the configuration for the given data manager and returns
+     * the internal configuration
+     *
+     * @param config
+     * @param manager
+     * @return
+     */
+    public static ARXConfigurationInternal initialize(ARXConfiguration config, DataManager manager) {
+        config.initialize(manager);
+        return config.getInternalConfiguration();
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.metric.Metric;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures ARXAnonymizer.anonymize end-to-end on the adult dataset and on versions of it
+ * which have been scaled up by replicating records, for different privacy models.
+ *
+ * @author Fabian Prasser
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4G" })
+public class AnonymizerBenchmark {
+
+    /** Privacy model */
+    @Param({ BenchmarkEnvironment.K_ANONYMITY,
+             BenchmarkEnvironment.L_DIVERSITY,
+             BenchmarkEnvironment.T_CLOSENESS,
+             BenchmarkEnvironment.DIFFERENTIAL_PRIVACY })
+    public String model;
+
+    /** Number of times the records are replicated */
+    @Param({ "1", "10" })
+    public int    scale;
+
+    /** Data */
+    private Data  data;
+
+    /**
+     * Loads the data
+     *
+     * @throws IOException
+     */
+    @Setup
+    public void setup() throws IOException {
+        this.data = BenchmarkEnvironment.getAdult(scale, model);
+    }
+
+    /**
+     * Anonymizes the data
+     *
+     * @return
+     * @throws IOException
+     */
+    @Benchmark
+    public ARXResult anonymize() throws IOException {
+        try {
+            return new ARXAnonymizer().anonymize(data, BenchmarkEnvironment.getConfiguration(model, Metric.createLossMetric(), data));
+        } finally {
+            data.getHandle().release();
+        }
+    }
+}
@@ -0,0 +1,392 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
+import org.deidentifier.arx.AttributeType;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.AttributeType.Hierarchy.DefaultHierarchy;
+import org.deidentifier.arx.BenchmarkSupport;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataGeneralizationScheme;
+import org.deidentifier.arx.DataGeneralizationScheme.GeneralizationDegree;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.criteria.DistinctLDiversity;
+import org.deidentifier.arx.criteria.EDDifferentialPrivacy;
+import org.deidentifier.arx.criteria.HierarchicalDistanceTCloseness;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.framework.check.Transformer;
+import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.groupify.HashGroupifyArray;
+import org.deidentifier.arx.framework.check.history.History;
+import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.data.DataMatrix;
+import org.deidentifier.arx.framework.data.Dictionary;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.Metric;
+
+/**
+ * Datasets, configurations and initialized internal operators shared by the benchmarks.
+ * The internal operators are set up in the same way as by ARXAnonymizer. The adult dataset
+ * can be scaled up by replicating its records, synthetic datasets consist of uniformly
+ * distributed integers with generalization hierarchies of height three.
+ *
+ * @author Fabian Prasser
+ */
+public class BenchmarkEnvironment {
+
+    /** Privacy model */
+    public static final String    K_ANONYMITY          = "k-anonymity";
+
+    /** Privacy model */
+    public static final String    L_DIVERSITY          = "l-diversity";
+
+    /** Privacy model */
+    public static final String    T_CLOSENESS          = "t-closeness";
+
+    /** Privacy model */
+    public static final String    DIFFERENTIAL_PRIVACY = "differential-privacy";
+
+    /** The adult dataset */
+    private static final String   ADULT                = "data/adult.csv";
+
+    /** Attributes of the adult dataset */
+    private static final String[] ADULT_ATTRIBUTES     = { "age", "education", "marital-status", "native-country", "occupation",
+                                                           "race", "salary-class", "sex", "workclass" };
+
+    /** Sensitive attribute of the adult dataset */
+    private static final String   ADULT_SENSITIVE      = "occupation";
+
+    /**
+     * Returns the adult dataset, with its records replicated the given number of times
+     *
+     * @param scale
+     * @param model The privacy model, which determines whether there is a sensitive attribute
+     * @return
+     * @throws IOException
+     */
+    public static Data getAdult(int scale, String model) throws IOException {
+
+        // Read and replicate
+        Iterator<String[]> iterator = Data.create(ADULT, StandardCharsets.UTF_8, ';').getHandle().iterator();
+        String[] header = iterator.next();
+        List<String[]> records = new ArrayList<>();
+        while (iterator.hasNext()) {
+            records.add(iterator.next());
+        }
+        List<String[]> rows = new ArrayList<>(records.size() * scale + 1);
+        rows.add(header);
+        for (int i = 0; i < scale; i++) {
+            rows.addAll(records);
+        }
+        Data data = Data.create(rows);
+
+        // Define attributes
+        for (String attribute : ADULT_ATTRIBUTES) {
+            Hierarchy hierarchy = getAdultHierarchy(attribute);
+            if (attribute.equals(ADULT_SENSITIVE) && (model.equals(L_DIVERSITY) || model.equals(T_CLOSENESS))) {
+                data.getDefinition().setAttributeType(attribute, AttributeType.SENSITIVE_ATTRIBUTE);
+            } else {
+                data.getDefinition().setAttributeType(attribute, hierarchy);
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Returns a privacy model configuration for the given dataset
+     *
+     * @param model
+     * @param metric
+     * @param data
+     * @return
+     * @throws IOException
+     */
+    public static ARXConfiguration getConfiguration(String model, Metric<?> metric, Data data) throws IOException {
+        ARXConfiguration config = ARXConfiguration.create(metric);
+        switch (model) {
+        case K_ANONYMITY:
+            config.setSuppressionLimit(0.04d);
+            config.addPrivacyModel(new KAnonymity(5));
+            break;
+        case L_DIVERSITY:
+            config.setSuppressionLimit(0.04d);
+            config.addPrivacyModel(new DistinctLDiversity(ADULT_SENSITIVE, 3));
+            break;
+        case T_CLOSENESS:
+            config.setSuppressionLimit(0.04d);
+            config.addPrivacyModel(new HierarchicalDistanceTCloseness(ADULT_SENSITIVE, 0.2d, getAdultHierarchy(ADULT_SENSITIVE)));
+            break;
+        case DIFFERENTIAL_PRIVACY:
+            config.setSuppressionLimit(1d);
+            config.addPrivacyModel(new EDDifferentialPrivacy(2d, 1e-5d, DataGeneralizationScheme.create(data, GeneralizationDegree.MEDIUM)));
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown privacy model: " + model);
+        }
+        return config;
+    }
+
+    /**
+     * Returns a synthetic dataset of uniformly distributed integers. Each attribute is a
+     * quasi-identifier, values are generalized into intervals of size ten and then suppressed.
+     *
+     * @param rows
+     * @param columns
+     * @param domain
+     * @return
+     */
+    public static Data getSynthetic(int rows, int columns, int domain) {
+
+        // Create data
+        Random random = new Random(0xDEADBEEF);
+        List<String[]> list = new ArrayList<>(rows + 1);
+        String[] header = new String[columns];
+        for (int column = 0; column < columns; column++) {
+            header[column] = "attribute-" + column;
+        }
+        list.add(header);
+        for (int row = 0; row < rows; row++) {
+            String[] record = new String[columns];
+            for (int column = 0; column < columns; column++) {
+                record[column] = String.valueOf(random.nextInt(domain));
+            }
+            list.add(record);
+        }
+        Data data = Data.create(list);
+
+        // Create hierarchies
+        DefaultHierarchy hierarchy = Hierarchy.create();
+        for (int value = 0; value < domain; value++) {
+            int lower = value / 10 * 10;
+            hierarchy.add(String.valueOf(value), "[" + lower + ", " + (lower + 10) + "[", "*");
+        }
+        for (String attribute : header) {
+            data.getDefinition().setAttributeType(attribute, hierarchy);
+        }
+        return data;
+    }
+
+    /**
+     * Loads a hierarchy of the adult dataset
+     *
+     * @param attribute
+     * @return
+     * @throws IOException
+     */
+    private static Hierarchy getAdultHierarchy(String attribute) throws IOException {
+        return Hierarchy.create("data/adult_hierarchy_" + attribute + ".csv", StandardCharsets.UTF_8, ';');
+    }
+
+    /** Manager */
+    private final DataManager               manager;
+
+    /** Configuration */
+    private final ARXConfiguration          config;
+
+    /** Internal configuration */
+    private final ARXConfigurationInternal  internal;
+
+    /** Solution space */
+    private final SolutionSpace<?>          solutionSpace;
+
+    /** Transformer */
+    private final Transformer               transformer;
+
+    /** History */
+    private final History                   history;
+
+    /**
+     * Encodes the given dataset and initializes all operators for the given configuration
+     *
+     * @param data
+     * @param config
+     * @throws IOException
+     */
+    public BenchmarkEnvironment(Data data, ARXConfiguration config) throws IOException {
+
+        // Encode, as DataHandleInput does
+        DataHandle handle = data.getHandle();
+        String[] header = new String[handle.getNumColumns()];
+        for (int column = 0; column < header.length; column++) {
+            header[column] = handle.getAttributeName(column);
+        }
+        Dictionary dictionary = new Dictionary(header.length);
+        DataMatrix matrix = new DataMatrix(handle.getNumRows(), header.length);
+        Iterator<String[]> iterator = handle.iterator();
+        iterator.next();
+        for (int row = 0; iterator.hasNext(); row++) {
+            String[] strings = iterator.next();
+            int[] tuple = new int[header.length];
+            for (int column = 0; column < header.length; column++) {
+                tuple[column] = dictionary.register(column, strings[column]);
+            }
+            matrix.setRow(row, tuple);
+        }
+        dictionary.finalizeAll();
+
+        // Initialize, as ARXAnonymizer does
+        this.config = config;
+        this.manager = new DataManager(header, matrix, dictionary, data.getDefinition(), new HashMap<>(), config);
+        this.internal = BenchmarkSupport.initialize(config, manager);
+        this.solutionSpace = SolutionSpace.create(manager.getHierarchiesMinLevels(), manager.getHierarchiesMaxLevels());
+        config.getQualityModel().initialize(manager, data.getDefinition(), manager.getDataGeneralized(), manager.getHierarchies(), config);
+
+        // Create operators, as TransformationChecker does
+        int initialSize = (int) (manager.getDataGeneralized().getDataLength() * 0.01d);
+        boolean distribution = (internal.getRequirements() & ARXConfiguration.REQUIREMENT_DISTRIBUTION) != 0;
+        IntArrayDictionary dictionarySensValue = new IntArrayDictionary(distribution ? initialSize : 0);
+        IntArrayDictionary dictionarySensFreq = new IntArrayDictionary(distribution ? initialSize : 0);
+        this.history = BenchmarkSupport.createHistory(manager.getDataGeneralized().getArray().getNumRows(),
+                                                      internal,
+                                                      dictionarySensValue,
+                                                      dictionarySensFreq,
+                                                      solutionSpace);
+        this.transformer = new Transformer(manager.getDataGeneralized().getArray(),
+                                           manager.getDataAnalyzed().getArray(),
+                                           manager.getAggregationInformation().getHotThreshold(),
+                                           manager.getHierarchies(),
+                                           internal,
+                                           dictionarySensValue,
+                                           dictionarySensFreq,
+                                           manager.getDataGeneralized().getDictionary());
+    }
+
+    /**
+     * Transforms the whole dataset into the given groupify operator
+     *
+     * @param transformation
+     * @param groupify
+     * @return
+     */
+    public HashGroupify apply(Transformation<?> transformation, HashGroupify groupify) {
+        groupify = transformer.apply(0L, transformation.getGeneralization(), groupify);
+        groupify.stateAnalyze(transformation, true);
+        return groupify;
+    }
+
+    /**
+     * Creates a groupify operator which reads from the buffer of the transformer
+     *
+     * @return
+     */
+    public HashGroupify createGroupify() {
+        return new HashGroupify((int) (manager.getDataGeneralized().getDataLength() * 0.01d),
+                                internal,
+                                manager.getAggregationInformation().getHotThreshold(),
+                                manager.getDataGeneralized().getArray(),
+                                transformer.getBuffer(),
+                                manager.getDataAnalyzed().getArray(),
+                                manager.getDataGeneralized().getDictionary().getSuppressedCodes());
+    }
+
+    /**
+     * Creates an array-based groupify operator which reads from the buffer of the transformer
+     *
+     * @return
+     */
+    public HashGroupifyArray createGroupifyArray() {
+        return new HashGroupifyArray((int) (manager.getDataGeneralized().getDataLength() * 0.01d),
+                                     internal,
+                                     manager.getAggregationInformation().getHotThreshold(),
+                                     transformer.getBuffer(),
+                                     manager.getDataAnalyzed().getArray());
+    }
+
+    /**
+     * Returns the configuration
+     *
+     * @return
+     */
+    public ARXConfiguration getConfiguration() {
+        return config;
+    }
+
+    /**
+     * Returns the history
+     *
+     * @return
+     */
+    public History getHistory() {
+        return history;
+    }
+
+    /**
+     * Returns the internal configuration
+     *
+     * @return
+     */
+    public ARXConfigurationInternal getInternalConfiguration() {
+        return internal;
+    }
+
+    /**
+     * Returns the data manager
+     *
+     * @return
+     */
+    public DataManager getManager() {
+        return manager;
+    }
+
+    /**
+     * Returns the solution space
+     *
+     * @return
+     */
+    public SolutionSpace<?> getSolutionSpace() {
+        return solutionSpace;
+    }
+
+    /**
+     * Returns the transformation which generalizes each attribute to the given fraction of the
+     * height of its hierarchy
+     *
+     * @param fraction
+     * @return
+     */
+    public Transformation<?> getTransformation(double fraction) {
+        int[] min = manager.getHierarchiesMinLevels();
+        int[] max = manager.getHierarchiesMaxLevels();
+        int[] generalization = new int[min.length];
+        for (int i = 0; i < generalization.length; i++) {
+            generalization[i] = min[i] + (int) Math.round((max[i] - min[i]) * fraction);
+        }
+        return solutionSpace.getTransformation(generalization);
+    }
+
+    /**
+     * Returns the transformer
+     *
+     * @return
+     */
+    public Transformer getTransformer() {
+        return transformer;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.Data.StorageType;
+import org.deidentifier.arx.framework.data.DataMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures DataMatrix.equalsIgnore by comparing all pairs of consecutive rows of a
+ * matrix with a small domain, such that many comparisons succeed. Also measures reading
+ * and writing all cells with DataMatrix.get and DataMatrix.set for each type of storage,
+ * compared to accessing a plain array with the same layout.
+ *
+ * @author Fabian Prasser
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataMatrixBenchmark {
+
+    /** Number of columns */
+    @Param({ "4", "8", "16" })
+    public int         columns;
+
+    /** Number of rows */
+    @Param({ "1000000" })
+    public int         rows;
+
+    /** Type of storage */
+    @Param({ "HEAP", "OFF_HEAP", "MEMORY_MAPPED" })
+    public StorageType storage;
+
+    /** Matrix */
+    private DataMatrix matrix;
+
+    /** Array with the same content and layout as the matrix */
+    private int[]      array;
+
+    /**
+     * Creates the matrix
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(0xDEADBEEF);
+        this.matrix = new DataMatrix(rows, columns, storage);
+        this.array = new int[rows * columns];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                int value = random.nextInt(10) == 0 ? 1 : 0;
+                matrix.set(row, column, value);
+                array[row * columns + column] = value;
+            }
+        }
+    }
+
+    /**
+     * Compares all pairs of consecutive rows, ignoring the first column
+     *
+     * @return
+     */
+    @Benchmark
+    public int equalsIgnore() {
+        int equal = 0;
+        for (int row = 1; row < rows; row++) {
+            if (matrix.equalsIgnore(row - 1, row, 0)) {
+                equal++;
+            }
+        }
+        return equal;
+    }
+
+    /**
+     * Reads all cells of the matrix
+     *
+     * @return
+     */
+    @Benchmark
+    public int get() {
+        int sum = 0;
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                sum += matrix.get(row, column);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Reads all cells of the array, as a reference
+     *
+     * @return
+     */
+    @Benchmark
+    public int getArray() {
+        int sum = 0;
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                sum += array[row * columns + column];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Writes all cells of the matrix
+     *
+     * @return
+     */
+    @Benchmark
+    public DataMatrix set() {
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                matrix.set(row, column, row + column);
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Writes all cells of the array, as a reference
+     *
+     * @return
+     */
+    @Benchmark
+    public int[] setArray() {
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                array[row * columns + column] = row + column;
+            }
+        }
+        return array;
+    }
+}
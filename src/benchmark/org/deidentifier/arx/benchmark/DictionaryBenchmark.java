@@ -0,0 +1,85 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.framework.data.Dictionary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures Dictionary.register by encoding values from domains of different sizes.
+ *
+ * @author Fabian Prasser
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DictionaryBenchmark {
+
+    /** Number of distinct values */
+    @Param({ "10", "1000", "100000" })
+    public int       domain;
+
+    /** Number of values */
+    @Param({ "1000000" })
+    public int       size;
+
+    /** Values */
+    private String[] values;
+
+    /**
+     * Creates the values
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(0xDEADBEEF);
+        this.values = new String[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = "value-" + random.nextInt(domain);
+        }
+    }
+
+    /**
+     * Encodes all values
+     *
+     * @return
+     */
+    @Benchmark
+    public Dictionary register() {
+        Dictionary dictionary = new Dictionary(1);
+        for (String value : values) {
+            dictionary.register(0, value);
+        }
+        return dictionary;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.groupify.HashGroupifyArray;
+import org.deidentifier.arx.metric.Metric;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures HashGroupify.addFromBuffer and HashGroupifyArray.addFromBuffer by grouping all
+ * records of the adult dataset after they have been transformed. The transformation
+ * determines the number of classes.
+ *
+ * @author Fabian Prasser
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GroupifyBenchmark {
+
+    /** Generalization relative to the height of the hierarchies */
+    @Param({ "0.0", "0.5", "1.0" })
+    public double        generalization;
+
+    /** Groupify operator */
+    private HashGroupify groupify;
+
+    /** Array-based groupify operator */
+    private HashGroupifyArray array;
+
+    /** Number of rows */
+    private int          rows;
+
+    /**
+     * Transforms the data into the buffer read by the groupify operator
+     *
+     * @throws IOException
+     */
+    @Setup
+    public void setup() throws IOException {
+        Data data = BenchmarkEnvironment.getAdult(1, BenchmarkEnvironment.K_ANONYMITY);
+        BenchmarkEnvironment environment = new BenchmarkEnvironment(data, BenchmarkEnvironment.getConfiguration(BenchmarkEnvironment.K_ANONYMITY,
+                                                                                                                Metric.createLossMetric(),
+                                                                                                                data));
+        environment.apply(environment.getTransformation(generalization), environment.createGroupify());
+        this.groupify = environment.createGroupify();
+        this.array = environment.createGroupifyArray();
+        this.rows = environment.getManager().getDataGeneralized().getArray().getNumRows();
+    }
+
+    /**
+     * Groups all rows
+     *
+     * @return
+     */
+    @Benchmark
+    public int addFromBuffer() {
+        groupify.stateClear();
+        for (int row = 0; row < rows; row++) {
+            groupify.addFromBuffer(row, -1, row, 1, -1);
+        }
+        return groupify.getNumberOfEquivalenceClasses();
+    }
+
+    /**
+     * Groups all rows with the array-based operator
+     *
+     * @return
+     */
+    @Benchmark
+    public int addFromBufferArray() {
+        array.stateClear();
+        for (int row = 0; row < rows; row++) {
+            array.addFromBuffer(row, -1, row, 1, -1);
+        }
+        return array.getNumberOfEquivalenceClasses();
+    }
+}
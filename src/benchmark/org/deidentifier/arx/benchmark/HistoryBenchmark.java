@@ -0,0 +1,108 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.history.History;
+import org.deidentifier.arx.framework.check.history.Snapshot;
+import org.deidentifier.arx.framework.check.history.History.StorageStrategy;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.Metric;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures storing snapshots in and retrieving snapshots from the history, for a
+ * transformation of the adult dataset.
+ *
+ * @author Fabian Prasser
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HistoryBenchmark {
+
+    /** History */
+    private History           history;
+
+    /** Transformation of the snapshot */
+    private Transformation<?> transformation;
+
+    /** Groupify operator of the snapshot */
+    private HashGroupify      groupify;
+
+    /** Transformation for which a snapshot is retrieved */
+    private int[]             successor;
+
+    /**
+     * Prepares a snapshot
+     *
+     * @throws IOException
+     */
+    @Setup
+    public void setup() throws IOException {
+        Data data = BenchmarkEnvironment.getAdult(1, BenchmarkEnvironment.K_ANONYMITY);
+        BenchmarkEnvironment environment = new BenchmarkEnvironment(data, BenchmarkEnvironment.getConfiguration(BenchmarkEnvironment.K_ANONYMITY,
+                                                                                                                Metric.createLossMetric(),
+                                                                                                                data));
+        this.history = environment.getHistory();
+        this.history.setStorageStrategy(StorageStrategy.ALL);
+        this.transformation = environment.getTransformation(0.5d);
+        this.groupify = environment.apply(transformation, environment.createGroupify());
+        this.successor = environment.getTransformation(1d).getGeneralization();
+        if (!history.store(transformation, groupify, null)) {
+            throw new IllegalStateException("Snapshot is too large");
+        }
+    }
+
+    /**
+     * Retrieves the snapshot
+     *
+     * @return
+     */
+    @Benchmark
+    public Snapshot get() {
+        return history.get(successor);
+    }
+
+    /**
+     * Creates and stores the snapshot
+     *
+     * @return
+     */
+    @Benchmark
+    public boolean store() {
+        history.reset();
+        return history.store(transformation, groupify, null);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.deidentifier.arx.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXConfiguration.AnonymizationAlgorithm;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.metric.InformationLoss;
+import org.deidentifier.arx.metric.Metric;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the LIGHTNING algorithm on the adult dataset with different degrees of
+ * parallelism. The search is limited to a fixed number of transformations instead
+ * of a time limit, so that all degrees of parallelism perform the same amount of work.
+ * As transformations are expanded in a different order when checked in parallel, the
+ * quality of the solutions found differs as well. It is reported after each trial, so
+ * that execution times can be compared with the quality reached.
+ *
+ * @author Fabian Prasser
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4G" })
+public class LightningBenchmark {
+
+    /** Number of transformations checked in parallel */
+    @Param({ "1", "2", "4", "8" })
+    public int   parallelism;
+
+    /** Number of transformations to check */
+    @Param({ "1000" })
+    public int   steps;
+
+    /** Data */
+    private Data                     data;
+
+    /** Quality of the solutions found */
+    private List<InformationLoss<?>> quality;
+
+    /**
+     * Loads the data
+     *
+     * @throws IOException
+     */
+    @Setup
+    public void setup() throws IOException {
+        this.data = BenchmarkEnvironment.getAdult(1, BenchmarkEnvironment.K_ANONYMITY);
+        this.quality = new ArrayList<>();
+    }
+
+    /**
+     * Reports the quality of the solutions found
+     */
+    @TearDown
+    public void report() {
+        InformationLoss<?> min = null;
+        InformationLoss<?> max = null;
+        for (InformationLoss<?> loss : quality) {
+            min = min == null || loss.compareTo(min) < 0 ? loss : min;
+            max = max == null || loss.compareTo(max) > 0 ? loss : max;
+        }
+        System.out.println("Parallelism: " + parallelism + ", steps: " + steps + ", runs: " + quality.size() +
+                           ", best solution: " + min + ", worst solution: " + max);
+    }
+
+    /**
+     * Searches the given number of transformations
+     *
+     * @return
+     * @throws IOException
+     */
+    @Benchmark
+    public ARXResult anonymize() throws IOException {
+        ARXConfiguration config = BenchmarkEnvironment.getConfiguration(BenchmarkEnvironment.K_ANONYMITY, Metric.createLossMetric(), data);
+        config.setAlgorithm(AnonymizationAlgorithm.BEST_EFFORT_BOTTOM_UP);
+        config.setHeuristicSearchTimeLimit(Integer.MAX_VALUE);
+        config.setHeuristicSearchStepLimit(steps);
+        config.setParallelism(parallelism);
+        try {
+            ARXResult result = new ARXAnonymizer().anonymize(data, config);
+            if (result.getGlobalOptimum() != null) {
+                quality.add(result.getGlobalOptimum().getHighestScore());
+            }
+            return result;
+        } finally {
+            data.getHandle().release();
+        }
+    }
+}
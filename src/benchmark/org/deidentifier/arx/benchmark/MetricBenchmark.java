@@ -0,0 +1,127 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.InformationLossWithBound;
+import org.deidentifier.arx.metric.Metric;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the evaluation of the v2 quality models for a transformation of the adult
+ * dataset which has already been grouped.
+ *
+ * @author Fabian Prasser
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricBenchmark {
+
+    /** Quality model */
+    @Param({ "aecs", "ambiguity", "discernability", "entropy", "height", "kl-divergence", "loss", "normalized-entropy", "precision" })
+    public String             metric;
+
+    /** Generalization relative to the height of the hierarchies */
+    @Param({ "0.5" })
+    public double             generalization;
+
+    /** Quality model */
+    private Metric<?>         model;
+
+    /** Transformation */
+    private Transformation<?> transformation;
+
+    /** Groupify operator */
+    private HashGroupify      groupify;
+
+    /**
+     * Transforms the data and initializes the quality model
+     *
+     * @throws IOException
+     */
+    @Setup
+    public void setup() throws IOException {
+        Data data = BenchmarkEnvironment.getAdult(1, BenchmarkEnvironment.K_ANONYMITY);
+        BenchmarkEnvironment environment = new BenchmarkEnvironment(data, BenchmarkEnvironment.getConfiguration(BenchmarkEnvironment.K_ANONYMITY,
+                                                                                                                getMetric(metric),
+                                                                                                                data));
+        this.model = environment.getConfiguration().getQualityModel();
+        this.transformation = environment.getTransformation(generalization);
+        this.groupify = environment.apply(transformation, environment.createGroupify());
+    }
+
+    /**
+     * Evaluates the quality model
+     *
+     * @return
+     */
+    @Benchmark
+    public InformationLossWithBound<?> getInformationLoss() {
+        return model.getInformationLoss(transformation, groupify);
+    }
+
+    /**
+     * Returns the quality model with the given name
+     *
+     * @param name
+     * @return
+     */
+    private Metric<?> getMetric(String name) {
+        switch (name) {
+        case "aecs":
+            return Metric.createAECSMetric();
+        case "ambiguity":
+            return Metric.createAmbiguityMetric();
+        case "discernability":
+            return Metric.createDiscernabilityMetric();
+        case "entropy":
+            return Metric.createEntropyMetric();
+        case "height":
+            return Metric.createHeightMetric();
+        case "kl-divergence":
+            return Metric.createKLDivergenceMetric();
+        case "loss":
+            return Metric.createLossMetric();
+        case "normalized-entropy":
+            return Metric.createNormalizedEntropyMetric();
+        case "precision":
+            return Metric.createPrecisionMetric();
+        default:
+            throw new IllegalArgumentException("Unknown quality model: " + name);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.framework.check.Transformer;
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.metric.Metric;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the transformers Transformer01 to Transformer15 by transforming a synthetic
+ * dataset with fifteen attributes, of which all but the given number are projected away.
+ *
+ * @author Fabian Prasser
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformerBenchmark {
+
+    /** Number of attributes of the dataset */
+    private static final int COLUMNS = 15;
+
+    /** Number of attributes that are transformed */
+    @Param({ "1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11", "12", "13", "14", "15" })
+    public int               columns;
+
+    /** Number of rows */
+    @Param({ "100000" })
+    public int               rows;
+
+    /** Transformer */
+    private Transformer      transformer;
+
+    /** Target */
+    private HashGroupify     groupify;
+
+    /** Transformation */
+    private int[]            generalization;
+
+    /** Projection */
+    private long             projection;
+
+    /**
+     * Prepares the transformer
+     *
+     * @throws Exception
+     */
+    @Setup
+    public void setup() throws Exception {
+        Data data = BenchmarkEnvironment.getSynthetic(rows, COLUMNS, 100);
+        BenchmarkEnvironment environment = new BenchmarkEnvironment(data, BenchmarkEnvironment.getConfiguration(BenchmarkEnvironment.K_ANONYMITY,
+                                                                                                                Metric.createLossMetric(),
+                                                                                                                data));
+        this.transformer = environment.getTransformer();
+        this.groupify = environment.createGroupify();
+        this.generalization = environment.getTransformation(0.5d).getGeneralization();
+        this.projection = ((1L << COLUMNS) - 1) & ~((1L << columns) - 1);
+    }
+
+    /**
+     * Transforms and groups all rows
+     *
+     * @return
+     */
+    @Benchmark
+    public int apply() {
+        return transformer.apply(projection, generalization, groupify).getNumberOfEquivalenceClasses();
+    }
+}
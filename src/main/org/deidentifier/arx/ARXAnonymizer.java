@@ -22,6 +22,7 @@ import java.math.BigInteger;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import org.deidentifier.arx.ARXConfiguration.SearchStepSemantics;
@@ -40,8 +41,10 @@ import org.deidentifier.arx.criteria.EnhancedBLikeness;
 import org.deidentifier.arx.criteria.KAnonymity;
 import org.deidentifier.arx.criteria.LDiversity;
 import org.deidentifier.arx.criteria.TCloseness;
+import org.deidentifier.arx.framework.check.CheckStatistics;
 import org.deidentifier.arx.framework.check.TransformationChecker;
 import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction;
+import org.deidentifier.arx.framework.check.history.EvictionPolicy;
 import org.deidentifier.arx.framework.data.DataManager;
 import org.deidentifier.arx.framework.data.DataMatrix;
 import org.deidentifier.arx.framework.data.Dictionary;
@@ -66,6 +69,20 @@ public class ARXAnonymizer { // NO_UCD
 	/** The global version string of this release*/
 	public static final String VERSION = "3.9.2";
 
+    /**
+     * Policies for evicting snapshots from the history
+     * 
+     * @author Fabian Prasser
+     */
+    public static enum HistoryPolicy {
+        /** Evicts the least recently used snapshot */
+        LRU,
+        /** Evicts the snapshot with the largest size relative to the costs of rebuilding it */
+        COST_AWARE,
+        /** Evicts snapshots of specific transformations, keeping snapshots of general ancestors */
+        GENERAL_ANCESTORS
+    }
+
     /**
      * Temporary result of the ARX algorithm.
      * 
@@ -153,6 +170,15 @@ public class ARXAnonymizer { // NO_UCD
     /** History size. */
     private int         historySize          = 200;
 
+    /** Maximal memory consumed by the history in bytes. */
+    private long        historyMemoryLimit   = Long.MAX_VALUE;
+
+    /** Eviction policy of the history. */
+    private HistoryPolicy historyPolicy      = HistoryPolicy.LRU;
+
+    /** Whether snapshots in the history are compressed. */
+    private boolean     historyCompression   = false;
+
     /** The listener, if any. */
     private ARXListener listener             = null;
 
@@ -165,6 +191,9 @@ public class ARXAnonymizer { // NO_UCD
     /** The maximal number of QIs that can be processed. */
     private int         maxQuasiIdentifiers  = Integer.MAX_VALUE;
 
+    /** The registry to which instrumentation data is reported. */
+    private ARXMeterRegistry meterRegistry   = ARXMeterRegistry.NONE;
+
 
     /**
      * Creates a new anonymizer with the default configuration.
@@ -201,6 +230,20 @@ public class ARXAnonymizer { // NO_UCD
      * @throws IOException
      */
     public ARXResult anonymize(final Data data, ARXConfiguration config) throws IOException {
+        return anonymize(data, config, null);
+    }
+
+    /**
+     * Performs data anonymization, which can be cancelled with the given token. If the process
+     * is cancelled, the best solution found so far is returned, which may be none.
+     *
+     * @param data The data
+     * @param config The privacy config
+     * @param token The cancellation token, if any
+     * @return ARXResult
+     * @throws IOException
+     */
+    public ARXResult anonymize(final Data data, ARXConfiguration config, ARXCancellationToken token) throws IOException {
         
         if (((DataHandleInput)data.getHandle()).isLocked()){
             throw new RuntimeException("This data handle is locked. Please release it first");
@@ -223,9 +266,27 @@ public class ARXAnonymizer { // NO_UCD
                                          manager.getDataAnalyzed().getArray());
 
         // Execute
-        return anonymize(manager, handle.getDefinition(), config).asResult(config, handle);
+        return anonymize(manager, handle.getDefinition(), config, token).asResult(config, handle);
     }
     
+    /**
+     * Returns the maximal memory consumed by snapshots stored in the history in bytes.
+     * 
+     * @return The limit
+     */
+    public long getHistoryMemoryLimit() {
+        return historyMemoryLimit;
+    }
+
+    /**
+     * Returns the policy for evicting snapshots from the history.
+     * 
+     * @return The policy
+     */
+    public HistoryPolicy getHistoryPolicy() {
+        return historyPolicy;
+    }
+
     /**
      * Returns the maximum number of snapshots allowed to store in the history.
      * 
@@ -254,6 +315,15 @@ public class ARXAnonymizer { // NO_UCD
         return snapshotSizeSnapshot;
     }
 
+    /**
+     * Returns the registry to which instrumentation data is reported.
+     * 
+     * @return The registry
+     */
+    public ARXMeterRegistry getMeterRegistry() {
+        return meterRegistry;
+    }
+
     /**
      * Returns the maximal number of quasi-identifiers.
      * @return
@@ -262,6 +332,39 @@ public class ARXAnonymizer { // NO_UCD
         return maxQuasiIdentifiers;
     }
 
+    /**
+     * Sets whether snapshots stored in the history should be compressed. This allows to store
+     * more snapshots within the memory limit, at the cost of decompressing them when they are used.
+     * 
+     * @param historyCompression
+     */
+    public void setHistoryCompressionEnabled(final boolean historyCompression) {
+        this.historyCompression = historyCompression;
+    }
+
+    /**
+     * Sets the maximal memory consumed by snapshots stored in the history in bytes.
+     * Snapshots are evicted according to the policy, if the limit would be exceeded.
+     * 
+     * @param historyMemoryLimit
+     *            The limit
+     */
+    public void setHistoryMemoryLimit(final long historyMemoryLimit) {
+        if (historyMemoryLimit < 0) { throw new IllegalArgumentException("Memory limit must be positive or 0"); }
+        this.historyMemoryLimit = historyMemoryLimit;
+    }
+
+    /**
+     * Sets the policy for evicting snapshots from the history.
+     * 
+     * @param historyPolicy
+     *            The policy
+     */
+    public void setHistoryPolicy(final HistoryPolicy historyPolicy) {
+        if (historyPolicy == null) { throw new NullPointerException("Policy must not be null"); }
+        this.historyPolicy = historyPolicy;
+    }
+
     /**
      * Sets the maximum number of snapshots allowed to store in the history.
      * 
@@ -305,6 +408,16 @@ public class ARXAnonymizer { // NO_UCD
         this.snapshotSizeSnapshot = snapshotSizeSnapshot;
     }
 
+    /**
+     * Sets the registry to which instrumentation data is reported after each anonymization.
+     * Data is only collected if instrumentation has been enabled in the configuration.
+     * 
+     * @param meterRegistry The registry, null to disable reporting
+     */
+    public void setMeterRegistry(final ARXMeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry != null ? meterRegistry : ARXMeterRegistry.NONE;
+    }
+
     /**
      * Sets the maximal number of quasi-identifiers. Set to Integer.MAX_VALUE to disable the 
      * restriction. By default, the restriction is disabled.
@@ -314,6 +427,15 @@ public class ARXAnonymizer { // NO_UCD
         this.maxQuasiIdentifiers = maxQuasiIdentifiers;
     }
 
+    /**
+     * Returns whether snapshots stored in the history are compressed.
+     * 
+     * @return
+     */
+    public boolean isHistoryCompressionEnabled() {
+        return historyCompression;
+    }
+
     /**
      * Performs some sanity checks.
      *
@@ -736,6 +858,24 @@ public class ARXAnonymizer { // NO_UCD
         return manager;
     }
 
+    /**
+     * Returns the implementation of the given policy
+     * @param policy
+     * @return
+     */
+    EvictionPolicy toEvictionPolicy(HistoryPolicy policy) {
+        switch (policy) {
+        case COST_AWARE:
+            return EvictionPolicy.createCostAwarePolicy();
+        case GENERAL_ANCESTORS:
+            return EvictionPolicy.createGeneralAncestorsPolicy();
+        case LRU:
+            return EvictionPolicy.createLRUPolicy();
+        default:
+            throw new IllegalArgumentException("Unknown policy: " + policy);
+        }
+    }
+
     /**
      * Reset a previous lattice and run the algorithm.
      *
@@ -748,6 +888,23 @@ public class ARXAnonymizer { // NO_UCD
     protected Result anonymize(final DataManager manager,
                                final DataDefinition definition,
                                final ARXConfiguration config) throws IOException {
+        return anonymize(manager, definition, config, null);
+    }
+
+    /**
+     * Reset a previous lattice and run the algorithm, which can be cancelled with the given token.
+     *
+     * @param manager
+     * @param definition
+     * @param config
+     * @param token
+     * @return
+     * @throws IOException
+     */
+    protected Result anonymize(final DataManager manager,
+                               final DataDefinition definition,
+                               final ARXConfiguration config,
+                               final ARXCancellationToken token) throws IOException {
 
         // Initialize
         config.initialize(manager);
@@ -768,6 +925,9 @@ public class ARXAnonymizer { // NO_UCD
                                                                         historySize,
                                                                         snapshotSizeDataset,
                                                                         snapshotSizeSnapshot,
+                                                                        historyMemoryLimit,
+                                                                        toEvictionPolicy(historyPolicy),
+                                                                        historyCompression,
                                                                         solutionSpace);
 
         // Create an algorithm instance
@@ -776,15 +936,27 @@ public class ARXAnonymizer { // NO_UCD
                                                    solutionSpace,
                                                    checker);
         algorithm.setListener(listener);
+        algorithm.setCancellationToken(token);
 
         
         // Execute
 
         long time = System.currentTimeMillis();
-        boolean optimumFound = algorithm.traverse();
+        boolean optimumFound;
+        try {
+            optimumFound = algorithm.traverse();
+        } finally {
+            
+            // Free resources
+            checker.reset();
+        }
         
-        // Free resources
-        checker.reset();
+        // Report instrumentation data
+        if (checker.getStatistics() != null) {
+            for (Entry<String, CheckStatistics> entry : checker.getStatistics().entrySet()) {
+                new ARXProcessStatistics.Phase(entry.getKey(), entry.getValue()).publish(meterRegistry);
+            }
+        }
         
         // Return the result
         return new Result(checker, solutionSpace, manager, algorithm, time, optimumFound);
@@ -796,8 +968,12 @@ public class ARXAnonymizer { // NO_UCD
      */
     protected void parse(ARXAnonymizer anonymizer) {
         this.historySize = anonymizer.historySize;
+        this.historyMemoryLimit = anonymizer.historyMemoryLimit;
+        this.historyPolicy = anonymizer.historyPolicy;
+        this.historyCompression = anonymizer.historyCompression;
         this.snapshotSizeDataset = anonymizer.snapshotSizeDataset;
         this.snapshotSizeSnapshot = anonymizer.snapshotSizeSnapshot;
         this.maxQuasiIdentifiers = anonymizer.maxQuasiIdentifiers;
+        this.meterRegistry = anonymizer.meterRegistry;
     }
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+/**
+ * A token which can be used to cancel an anonymization process from another thread, or to
+ * limit its execution time by a deadline. Cancellation is cooperative: the search algorithm
+ * stops after the transformation which is currently being checked and the best solution
+ * found so far is returned. Any search algorithm can be cancelled, including the optimal
+ * algorithm, in which case the result is no longer guaranteed to be optimal.
+ * 
+ * @author Fabian Prasser
+ */
+public class ARXCancellationToken {
+
+    /**
+     * Creates a new token without a deadline
+     * @return
+     */
+    public static ARXCancellationToken create() {
+        return new ARXCancellationToken(Long.MAX_VALUE);
+    }
+
+    /**
+     * Creates a new token with the given deadline
+     * @param deadline Point in time, in milliseconds since the epoch, after which the process will be cancelled
+     * @return
+     */
+    public static ARXCancellationToken createWithDeadline(long deadline) {
+        return new ARXCancellationToken(deadline);
+    }
+
+    /**
+     * Creates a new token with a deadline which is the given number of milliseconds in the future
+     * @param timeout Time in milliseconds after which the process will be cancelled
+     * @return
+     */
+    public static ARXCancellationToken createWithTimeout(long timeout) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("Timeout must be positive or 0");
+        }
+        long now = System.currentTimeMillis();
+        return new ARXCancellationToken(timeout > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + timeout);
+    }
+
+    /** Deadline in milliseconds since the epoch */
+    private final long       deadline;
+
+    /** Whether cancellation has been requested */
+    private volatile boolean cancelled = false;
+
+    /**
+     * Creates a new instance
+     * @param deadline
+     */
+    private ARXCancellationToken(long deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Requests cancellation of the associated process
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * Returns the deadline in milliseconds since the epoch. Long.MAX_VALUE if there is no deadline.
+     * @return
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Returns whether the process has been cancelled explicitly or the deadline has passed
+     * @return
+     */
+    public boolean isCancelled() {
+        return cancelled || (deadline != Long.MAX_VALUE && System.currentTimeMillis() > deadline);
+    }
+}
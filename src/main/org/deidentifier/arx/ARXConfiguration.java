@@ -104,6 +104,14 @@ public class ARXConfiguration implements Serializable, Cloneable {
             return config.getPrivacyModelsAsArray();
         }
 
+        /**
+         * Returns the number of threads used for transforming and grouping partitions of the dataset
+         * @return
+         */
+        public int getGroupifyParallelism() {
+            return config.getGroupifyParallelism();
+        }
+
         /**
          * Returns the max relative number of outliers.
          *
@@ -129,6 +137,14 @@ public class ARXConfiguration implements Serializable, Cloneable {
         public Monotonicity getMonotonicityOfPrivacy() {
             return config.getMonotonicityOfPrivacy();
         }
+        
+        /**
+         * Returns the number of transformations that may be checked in parallel
+         * @return
+         */
+        public int getParallelism() {
+            return config.getParallelism();
+        }
 
         /**
          * Returns a monotonicity property
@@ -210,6 +226,22 @@ public class ARXConfiguration implements Serializable, Cloneable {
             return config.getSuppressedAttributeTypes();
         }
 
+        /**
+         * Returns whether the rows of the output buffer are bit-packed
+         * @return
+         */
+        public boolean isBitPackingEnabled() {
+            return config.isBitPackingEnabled();
+        }
+
+        /**
+         * Returns whether statistics about checks are collected
+         * @return
+         */
+        public boolean isInstrumentationEnabled() {
+            return config.isInstrumentationEnabled();
+        }
+
         /**
          * Is practical monotonicity assumed.
          *
@@ -434,6 +466,18 @@ public class ARXConfiguration implements Serializable, Cloneable {
     /** The algorithm to use */
     private AnonymizationAlgorithm             algorithm                             = AnonymizationAlgorithm.OPTIMAL;
 
+    /** Number of transformations that may be checked in parallel */
+    private Integer                            parallelism                           = 1;
+
+    /** Number of threads used for transforming and grouping partitions of the dataset */
+    private Integer                            groupifyParallelism                   = 1;
+
+    /** Whether the rows of the output buffer are bit-packed */
+    private Boolean                            bitPackingEnabled                     = false;
+
+    /** Whether statistics about checks are collected */
+    private Boolean                            instrumentationEnabled                = false;
+
 	
     /**
      * Creates a new configuration without tuple suppression.
@@ -575,6 +619,10 @@ public class ARXConfiguration implements Serializable, Cloneable {
 		result.geneticAlgorithmProductionFraction = this.geneticAlgorithmProductionFraction;
         result.geneticAlgorithmIterations = this.geneticAlgorithmIterations;
         result.algorithm = this.algorithm;
+        result.parallelism = this.parallelism;
+        result.groupifyParallelism = this.groupifyParallelism;
+        result.bitPackingEnabled = this.bitPackingEnabled;
+        result.instrumentationEnabled = this.instrumentationEnabled;
         if (this.attributeWeights != null) {
             result.attributeWeights = new HashMap<String, Double>(this.attributeWeights);
         } else {
@@ -748,6 +796,18 @@ public class ARXConfiguration implements Serializable, Cloneable {
 		}
 		return geneticAlgorithmSubpopulationSize;
 	}
+
+    /**
+     * Returns the number of threads used for transforming and grouping partitions of the
+     * dataset when a transformation is checked from scratch. The default is 1.
+     * @return
+     */
+    public int getGroupifyParallelism() {
+        if (this.groupifyParallelism == null) {
+            this.groupifyParallelism = 1;
+        }
+        return this.groupifyParallelism;
+    }
 	
     /**
      * The heuristic search algorithm will terminate after the returned number of steps.
@@ -825,6 +885,18 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return this.heuristicSearchTimeLimit;
     }
     
+    /**
+     * Returns the number of transformations that may be checked in parallel.
+     * The default is 1, i.e. transformations are checked sequentially.
+     * @return
+     */
+    public int getParallelism() {
+        if (this.parallelism == null) {
+            this.parallelism = 1;
+        }
+        return this.parallelism;
+    }
+    
     /**
      * Returns the maximum number of allowed outliers.
      * Deprecated. Use <code>getSuppressionLimit()</code> instead.
@@ -1008,6 +1080,29 @@ public class ARXConfiguration implements Serializable, Cloneable {
         }
         return (suppressedAttributeTypes & (1 << type.getType())) != 0;
     }
+
+    /**
+     * Returns whether the rows of the buffer holding transformed data are bit-packed.
+     * The default is false.
+     * @return
+     */
+    public boolean isBitPackingEnabled() {
+        if (this.bitPackingEnabled == null) {
+            this.bitPackingEnabled = false;
+        }
+        return this.bitPackingEnabled;
+    }
+
+    /**
+     * Returns whether statistics about checks are collected. The default is false.
+     * @return
+     */
+    public boolean isInstrumentationEnabled() {
+        if (this.instrumentationEnabled == null) {
+            this.instrumentationEnabled = false;
+        }
+        return this.instrumentationEnabled;
+    }
     
     /**
      * Is practical monotonicity assumed.
@@ -1131,6 +1226,29 @@ public class ARXConfiguration implements Serializable, Cloneable {
         }
         this.attributeWeights.put(attribute, weight);
     }
+
+    /**
+     * Sets whether the rows of the buffer holding transformed data are bit-packed. Each
+     * quasi-identifier is then stored with the minimal number of bits required to represent
+     * its domain, which reduces memory requirements and speeds up comparing records, as
+     * multiple values are compared at once. The default is false.
+     * @param enabled
+     */
+    public void setBitPackingEnabled(boolean enabled) {
+        this.bitPackingEnabled = enabled;
+    }
+
+    /**
+     * Sets whether statistics about checks are collected for each phase of the search
+     * algorithm. They include the time spent on the individual steps of a check, the sizes
+     * of the groupify operator and the usage of the history. Statistics are reported by
+     * ARXProcessStatistics and the meter registry of the anonymizer. The default is false,
+     * in which case no measurements are performed.
+     * @param enabled
+     */
+    public void setInstrumentationEnabled(boolean enabled) {
+        this.instrumentationEnabled = enabled;
+    }
     
     /**
      * Sets the cost/benefit configuration
@@ -1226,6 +1344,18 @@ public class ARXConfiguration implements Serializable, Cloneable {
 		this.geneticAlgorithmSubpopulationSize = geneticAlgorithmSubpopulationSize;
 	}
 
+    /**
+     * Sets the number of threads used for transforming and grouping partitions of the dataset
+     * when a transformation is checked from scratch. Partitions are grouped into separate
+     * tables, which are merged afterwards. This also speeds up workloads which check only
+     * few transformations, such as local recoding. The default is 1.
+     * @param parallelism
+     */
+    public void setGroupifyParallelism(int parallelism) {
+        if (parallelism <= 0) { throw new IllegalArgumentException("Parameter must be > 0"); }
+        this.groupifyParallelism = parallelism;
+    }
+
 	/**
      * The heuristic search algorithm will terminate after the given number of transformations
      * have been checked. The default is <code>Integer.MAX_VALUE</code>, i.e. no limit. ARX supports different
@@ -1284,6 +1414,18 @@ public class ARXConfiguration implements Serializable, Cloneable {
         this.relMaxOutliers = max;
     }
 
+    /**
+     * Sets the number of transformations that may be checked in parallel. Each additional
+     * worker holds its own output buffer, groupify operators and history, which increases
+     * memory requirements accordingly. The default is 1, i.e. transformations are checked
+     * sequentially.
+     * @param parallelism
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0) { throw new IllegalArgumentException("Parameter must be > 0"); }
+        this.parallelism = parallelism;
+    }
+
 	/**
      * Set, if practical monotonicity assumed.
      *
@@ -0,0 +1,110 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+/**
+ * A registry receiving measurements about the anonymization process, e.g. to forward them to
+ * a monitoring system. Measurements are reported for each phase of the search algorithm once
+ * the search has been completed. Measurements are only performed if instrumentation has been
+ * enabled in the configuration.
+ *
+ * @author Fabian Prasser
+ */
+public interface ARXMeterRegistry {
+
+    /** Registry which discards all measurements */
+    public static final ARXMeterRegistry NONE = new ARXMeterRegistry() {
+        @Override
+        public void count(String phase, String name, long value) {
+            // Empty by design
+        }
+
+        @Override
+        public void gauge(String phase, String name, double value) {
+            // Empty by design
+        }
+
+        @Override
+        public void time(String phase, String name, long nanos) {
+            // Empty by design
+        }
+    };
+
+    /** Counter: number of checks */
+    public static final String CHECKS              = "checks";
+
+    /** Counter: number of equivalence classes summed up over all checks */
+    public static final String CLASSES             = "classes";
+
+    /** Gauge: maximal number of equivalence classes */
+    public static final String CLASSES_MAX         = "classes.max";
+
+    /** Counter: number of times the groupify operator has been rehashed */
+    public static final String REHASHES            = "rehashes";
+
+    /** Counter: number of suppressed records summed up over all checks */
+    public static final String SUPPRESSED          = "suppressed";
+
+    /** Counter: number of requests for which a snapshot was found in the history */
+    public static final String HISTORY_HITS        = "history.hits";
+
+    /** Counter: number of requests for which no snapshot was found in the history */
+    public static final String HISTORY_MISSES      = "history.misses";
+
+    /** Timer: storing snapshots */
+    public static final String TIME_SNAPSHOT       = "time.snapshot";
+
+    /** Timer: looking up snapshots */
+    public static final String TIME_HISTORY        = "time.history";
+
+    /** Timer: transforming and grouping data */
+    public static final String TIME_TRANSFORMATION = "time.transformation";
+
+    /** Timer: evaluating the privacy model */
+    public static final String TIME_CRITERIA       = "time.criteria";
+
+    /** Timer: evaluating the quality model */
+    public static final String TIME_METRIC         = "time.metric";
+
+    /**
+     * Reports a counter
+     *
+     * @param phase The phase of the search algorithm
+     * @param name The name of the counter
+     * @param value The value
+     */
+    public void count(String phase, String name, long value);
+
+    /**
+     * Reports a gauge
+     *
+     * @param phase The phase of the search algorithm
+     * @param name The name of the gauge
+     * @param value The value
+     */
+    public void gauge(String phase, String name, double value);
+
+    /**
+     * Reports a timer
+     *
+     * @param phase The phase of the search algorithm
+     * @param name The name of the timer
+     * @param nanos The time in nanoseconds
+     */
+    public void time(String phase, String name, long nanos);
+}
@@ -22,9 +22,12 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 
 import org.deidentifier.arx.ARXAnonymizer.Result;
 import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.framework.check.CheckStatistics;
+import org.deidentifier.arx.framework.check.history.HistoryStatistics;
 import org.deidentifier.arx.framework.lattice.ObjectIterator;
 import org.deidentifier.arx.framework.lattice.Transformation;
 import org.deidentifier.arx.metric.InformationLoss;
@@ -36,6 +39,219 @@ import org.deidentifier.arx.metric.v2.QualityMetadata;
  * @author Fabian Prasser
  */
 public class ARXProcessStatistics implements Serializable {
+
+    /**
+     * Statistics about the checks performed within one phase of the search algorithm. Only
+     * available if instrumentation has been enabled in the configuration. Times are measured
+     * in nanoseconds.
+     * 
+     * @author Fabian Prasser
+     */
+    public static class Phase implements Serializable {
+
+        /** SVUID */
+        private static final long serialVersionUID = 4178325526493624181L;
+
+        /** Name */
+        private final String      name;
+
+        /** Number of checks */
+        private final long        checks;
+
+        /** Time spent on storing snapshots */
+        private final long        timeSnapshot;
+
+        /** Time spent on looking up snapshots */
+        private final long        timeHistory;
+
+        /** Time spent on transforming and grouping data */
+        private final long        timeTransformation;
+
+        /** Time spent on evaluating the privacy model */
+        private final long        timeCriteria;
+
+        /** Time spent on evaluating the quality model */
+        private final long        timeMetric;
+
+        /** Total number of equivalence classes */
+        private final long        classes;
+
+        /** Maximal number of equivalence classes */
+        private final long        classesMax;
+
+        /** Number of times the groupify operator has been rehashed */
+        private final long        rehashes;
+
+        /** Total number of suppressed records */
+        private final long        suppressed;
+
+        /** Number of requests for which a snapshot was found in the history */
+        private final long        historyHits;
+
+        /** Number of requests for which no snapshot was found in the history */
+        private final long        historyMisses;
+
+        /**
+         * Creates a new instance
+         * @param name
+         * @param statistics
+         */
+        Phase(String name, CheckStatistics statistics) {
+            this.name = name;
+            this.checks = statistics.getChecks();
+            this.timeSnapshot = statistics.getTimeSnapshot();
+            this.timeHistory = statistics.getTimeHistory();
+            this.timeTransformation = statistics.getTimeTransformation();
+            this.timeCriteria = statistics.getTimeCriteria();
+            this.timeMetric = statistics.getTimeMetric();
+            this.classes = statistics.getClasses();
+            this.classesMax = statistics.getClassesMax();
+            this.rehashes = statistics.getRehashes();
+            this.suppressed = statistics.getSuppressed();
+            this.historyHits = statistics.getHistoryHits();
+            this.historyMisses = statistics.getHistoryMisses();
+        }
+
+        /**
+         * Returns the average number of equivalence classes per check
+         * @return
+         */
+        public double getAverageNumberOfEquivalenceClasses() {
+            return checks == 0 ? 0d : (double) classes / (double) checks;
+        }
+
+        /**
+         * Returns the fraction of requests for which a snapshot was found in the history
+         * @return
+         */
+        public double getHistoryHitRate() {
+            long requests = historyHits + historyMisses;
+            return requests == 0 ? 0d : (double) historyHits / (double) requests;
+        }
+
+        /**
+         * Returns the number of requests for which a snapshot was found in the history
+         * @return
+         */
+        public long getHistoryHits() {
+            return historyHits;
+        }
+
+        /**
+         * Returns the number of requests for which no snapshot was found in the history
+         * @return
+         */
+        public long getHistoryMisses() {
+            return historyMisses;
+        }
+
+        /**
+         * Returns the maximal number of equivalence classes
+         * @return
+         */
+        public long getMaximalNumberOfEquivalenceClasses() {
+            return classesMax;
+        }
+
+        /**
+         * Returns the name of the phase
+         * @return
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the number of checks
+         * @return
+         */
+        public long getNumberOfChecks() {
+            return checks;
+        }
+
+        /**
+         * Returns the number of equivalence classes, summed up over all checks
+         * @return
+         */
+        public long getNumberOfEquivalenceClasses() {
+            return classes;
+        }
+
+        /**
+         * Returns the number of times the groupify operator has been rehashed
+         * @return
+         */
+        public long getNumberOfRehashes() {
+            return rehashes;
+        }
+
+        /**
+         * Returns the number of suppressed records, summed up over all checks
+         * @return
+         */
+        public long getNumberOfSuppressedRecords() {
+            return suppressed;
+        }
+
+        /**
+         * Returns the time spent on evaluating the privacy model
+         * @return
+         */
+        public long getTimeCriteria() {
+            return timeCriteria;
+        }
+
+        /**
+         * Returns the time spent on looking up snapshots in the history
+         * @return
+         */
+        public long getTimeHistory() {
+            return timeHistory;
+        }
+
+        /**
+         * Returns the time spent on evaluating the quality model
+         * @return
+         */
+        public long getTimeMetric() {
+            return timeMetric;
+        }
+
+        /**
+         * Returns the time spent on storing snapshots in the history
+         * @return
+         */
+        public long getTimeSnapshot() {
+            return timeSnapshot;
+        }
+
+        /**
+         * Returns the time spent on transforming and grouping data
+         * @return
+         */
+        public long getTimeTransformation() {
+            return timeTransformation;
+        }
+
+        /**
+         * Reports this phase to the given registry
+         * @param registry
+         */
+        void publish(ARXMeterRegistry registry) {
+            registry.count(name, ARXMeterRegistry.CHECKS, checks);
+            registry.count(name, ARXMeterRegistry.CLASSES, classes);
+            registry.gauge(name, ARXMeterRegistry.CLASSES_MAX, classesMax);
+            registry.count(name, ARXMeterRegistry.REHASHES, rehashes);
+            registry.count(name, ARXMeterRegistry.SUPPRESSED, suppressed);
+            registry.count(name, ARXMeterRegistry.HISTORY_HITS, historyHits);
+            registry.count(name, ARXMeterRegistry.HISTORY_MISSES, historyMisses);
+            registry.time(name, ARXMeterRegistry.TIME_SNAPSHOT, timeSnapshot);
+            registry.time(name, ARXMeterRegistry.TIME_HISTORY, timeHistory);
+            registry.time(name, ARXMeterRegistry.TIME_TRANSFORMATION, timeTransformation);
+            registry.time(name, ARXMeterRegistry.TIME_CRITERIA, timeCriteria);
+            registry.time(name, ARXMeterRegistry.TIME_METRIC, timeMetric);
+        }
+    }
     
     /**
      * One individual anonymization step
@@ -273,6 +489,21 @@ public class ARXProcessStatistics implements Serializable {
     /** Duration */
     private long              duration;
 
+    /** Number of requests for which a snapshot was found in the history */
+    private long              historyHits;
+
+    /** Number of requests for which no snapshot was found in the history */
+    private long              historyMisses;
+
+    /** Number of snapshots evicted from the history */
+    private long              historyEvictions;
+
+    /** Maximal memory consumed by snapshots in bytes */
+    private long              historyPeakMemory;
+
+    /** Statistics about the phases of the search algorithm, if instrumentation is enabled */
+    private List<Phase>       phases                 = new ArrayList<Phase>();
+
     /**
      * Clone constructor
      * @param other
@@ -283,10 +514,15 @@ public class ARXProcessStatistics implements Serializable {
         this.transformationsTotalLargeLattice = other.transformationsTotalLargeLattice;
         this.duration = other.duration;
         this.initialNumberOfRecords = other.initialNumberOfRecords;
+        this.historyHits = other.historyHits;
+        this.historyMisses = other.historyMisses;
+        this.historyEvictions = other.historyEvictions;
+        this.historyPeakMemory = other.historyPeakMemory;
         this.steps = new ArrayList<>();
         for (Step step : other.steps) {
             this.steps.add(step.clone());
         }
+        this.phases = new ArrayList<>(other.getPhases());
     }
     
     /**
@@ -302,8 +538,10 @@ public class ARXProcessStatistics implements Serializable {
      * @param optimum
      * @param isOptimal
      * @param duration
+     * @param history Statistics about the history, if any
+     * @param phases Statistics about the phases of the search algorithm, if any
      */
-    protected ARXProcessStatistics(ARXLattice lattice, ARXNode optimum, boolean isOptimal, long duration) {
+    protected ARXProcessStatistics(ARXLattice lattice, ARXNode optimum, boolean isOptimal, long duration, HistoryStatistics history, Map<String, CheckStatistics> phases) {
         
         // Add step
         if (optimum != null) {
@@ -322,6 +560,16 @@ public class ARXProcessStatistics implements Serializable {
                 }
             }
         }
+        
+        // Collect statistics about the history
+        if (history != null) {
+            this.setHistoryStatistics(history);
+        }
+        
+        // Collect statistics about the phases
+        if (phases != null) {
+            this.setPhaseStatistics(phases);
+        }
     }
 
     /**
@@ -363,6 +611,14 @@ public class ARXProcessStatistics implements Serializable {
                 this.transformationsChecked++;
             }
         }
+        
+        // Collect statistics about the history
+        this.setHistoryStatistics(result.checker.getHistoryStatistics());
+        
+        // Collect statistics about the phases
+        if (result.checker.getStatistics() != null) {
+            this.setPhaseStatistics(result.checker.getStatistics());
+        }
     }
 
     @Override
@@ -378,6 +634,39 @@ public class ARXProcessStatistics implements Serializable {
         return this.duration;
     }
     
+    /**
+     * Returns the number of snapshots evicted from the history
+     * @return
+     */
+    public long getHistoryEvictions() {
+        return this.historyEvictions;
+    }
+
+    /**
+     * Returns the number of requests for which a snapshot was found in the history
+     * @return
+     */
+    public long getHistoryHits() {
+        return this.historyHits;
+    }
+
+    /**
+     * Returns the number of requests for which no snapshot was found in the history
+     * @return
+     */
+    public long getHistoryMisses() {
+        return this.historyMisses;
+    }
+
+    /**
+     * Returns the maximal memory consumed by snapshots stored in the history in bytes.
+     * If checks have been performed in parallel, the memory consumed by all histories is summed up.
+     * @return
+     */
+    public long getHistoryPeakMemory() {
+        return this.historyPeakMemory;
+    }
+
     /**
      * Converts the statistics into a lattice
      * @return
@@ -394,6 +683,18 @@ public class ARXProcessStatistics implements Serializable {
         return steps.size();
     }
 
+    /**
+     * Returns statistics about the phases of the search algorithms executed in all steps, in
+     * the order in which they have been entered. Empty, unless instrumentation has been enabled.
+     * @return
+     */
+    public List<Phase> getPhases() {
+        if (this.phases == null) {
+            this.phases = new ArrayList<Phase>();
+        }
+        return this.phases;
+    }
+
     /**
      * Returns a step performed during the anonymization process
      * @param index
@@ -486,5 +787,31 @@ public class ARXProcessStatistics implements Serializable {
         this.transformationsTotal += stats.transformationsTotal;
         this.transformationsChecked += stats.transformationsChecked;
         this.duration += stats.duration;
+        this.historyHits += stats.historyHits;
+        this.historyMisses += stats.historyMisses;
+        this.historyEvictions += stats.historyEvictions;
+        this.historyPeakMemory = Math.max(this.historyPeakMemory, stats.historyPeakMemory);
+        this.getPhases().addAll(stats.getPhases());
+    }
+
+    /**
+     * Sets the statistics about the history
+     * @param history
+     */
+    private void setHistoryStatistics(HistoryStatistics history) {
+        this.historyHits = history.getHits();
+        this.historyMisses = history.getMisses();
+        this.historyEvictions = history.getEvictions();
+        this.historyPeakMemory = history.getPeakMemory();
+    }
+
+    /**
+     * Sets the statistics about the phases
+     * @param phases
+     */
+    private void setPhaseStatistics(Map<String, CheckStatistics> phases) {
+        for (Entry<String, CheckStatistics> entry : phases.entrySet()) {
+            this.phases.add(new Phase(entry.getKey(), entry.getValue()));
+        }
     }
 }
\ No newline at end of file
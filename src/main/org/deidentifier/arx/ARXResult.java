@@ -150,7 +150,8 @@ public class ARXResult {
         metric.initialize(manager, definition, manager.getDataGeneralized(), manager.getHierarchies(), config);
 
         this.buffer = new DataMatrix(manager.getDataGeneralized().getArray().getNumRows(), 
-                                     manager.getDataGeneralized().getArray().getNumColumns());
+                                     manager.getDataGeneralized().getArray().getNumColumns(),
+                                     manager.getDataGeneralized().getArray().getStorageType());
         
         // Initialize the result
         this.registry = handle.getRegistry();
@@ -160,7 +161,7 @@ public class ARXResult {
         this.lattice = lattice;
         this.optimalTransformation = lattice.getOptimum();
         this.solutionSpace = solutionSpace;
-        this.statistics = statistics != null ? statistics : new ARXProcessStatistics(lattice, optimalTransformation, lattice._legacySearchedWithFlash(), time);
+        this.statistics = statistics != null ? statistics : new ARXProcessStatistics(lattice, optimalTransformation, lattice._legacySearchedWithFlash(), time, null, null);
         this.optimumFound = this.statistics.isSolutationAvailable() ? this.statistics.getStep(0).isOptimal() : false;
         this.duration = this.statistics.getDuration();
     }
@@ -201,7 +202,7 @@ public class ARXResult {
         this.duration = duration;
         this.solutionSpace = solutionSpace;
         this.optimumFound = optimumFound;
-        this.statistics = new ARXProcessStatistics(lattice, optimalTransformation, optimumFound, duration);
+        this.statistics = new ARXProcessStatistics(lattice, optimalTransformation, optimumFound, duration, checker.getHistoryStatistics(), checker.getStatistics());
     }
 
     /**
@@ -17,7 +17,9 @@
 
 package org.deidentifier.arx;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
@@ -26,6 +28,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 
+import org.deidentifier.arx.io.CSVDataChunks;
 import org.deidentifier.arx.io.CSVDataInput;
 import org.deidentifier.arx.io.CSVOptions;
 import org.deidentifier.arx.io.CSVSyntax;
@@ -49,21 +52,36 @@ public abstract class Data { // NO_UCD
      */
     public static class DefaultData extends Data {
 
-        /** List of tuples. */
-        private final List<String[]> data = new ArrayList<String[]>();
+        /** Encoder of tuples, created when the header is added. */
+        private DataEncoder encoder = null;
 
         /**
-         * Adds a row to this data object.
+         * Adds a row to this data object. The first row is the header. Rows are encoded
+         * immediately, so that the strings are not retained. Rows can not be added anymore
+         * after the data handle has been obtained.
          *
          * @param row the row
+         * @throws IllegalStateException if the data handle has already been obtained
          */
         public void add(final String... row) {
-            data.add(row);
+            if (encoder == null) {
+                encoder = new DataEncoder(row, null, null);
+            } else {
+                encoder.encode(row);
+            }
+        }
+
+        @Override
+        protected DataEncoder getEncoder() {
+            return encoder;
         }
 
         @Override
         protected Iterator<String[]> iterator() {
-            return data.iterator();
+            if (encoder == null) {
+                return new ArrayList<String[]>().iterator();
+            }
+            return encoder.iterator();
         }
 
     }
@@ -117,6 +135,78 @@ public abstract class Data { // NO_UCD
 
     }
 
+    /**
+     * A data object for files in binary format.
+     *
+     * @author Fabian Prasser
+     */
+    static class BinaryData extends Data {
+
+        /** The decoded data. */
+        private final DataEncoder encoder;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param encoder the decoded data
+         */
+        private BinaryData(final DataEncoder encoder) {
+            this.encoder = encoder;
+        }
+
+        @Override
+        protected DataEncoder getEncoder() {
+            return encoder;
+        }
+
+        @Override
+        protected Iterator<String[]> iterator() {
+            return encoder.iterator();
+        }
+    }
+
+    /**
+     * A data object for CSV files which are parsed and encoded in parallel.
+     *
+     * @author Fabian Prasser
+     */
+    static class ChunkedData extends Data {
+
+        /** Iterators over the chunks of the file, until imported. */
+        private List<Iterator<String[]>> chunks;
+
+        /** Number of threads. */
+        private final int                parallelism;
+
+        /** The encoded data, once imported. */
+        private DataEncoder              encoder = null;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param chunks iterators over the chunks
+         * @param parallelism the number of threads
+         */
+        private ChunkedData(final List<Iterator<String[]>> chunks, final int parallelism) {
+            this.chunks = chunks;
+            this.parallelism = parallelism;
+        }
+
+        @Override
+        protected DataEncoder getEncoder() {
+            if (encoder == null) {
+                encoder = DataEncoder.encode(chunks, parallelism, getStorageType());
+                chunks = null;
+            }
+            return encoder;
+        }
+
+        @Override
+        protected Iterator<String[]> iterator() {
+            return getEncoder().iterator();
+        }
+    }
+
     /**
      * A data object for iterators.
      *
@@ -162,6 +252,20 @@ public abstract class Data { // NO_UCD
         }
     }
 
+    /**
+     * The type of memory used for storing the encoded data.
+     *
+     * @author Fabian Prasser
+     */
+    public static enum StorageType {
+        /** Java heap. Default. */
+        HEAP,
+        /** Direct buffers outside of the Java heap */
+        OFF_HEAP,
+        /** Memory-mapped temporary file. Allows processing datasets larger than main memory. */
+        MEMORY_MAPPED
+    }
+
     /**
      * Creates a new default data object.
      *
@@ -272,6 +376,10 @@ public abstract class Data { // NO_UCD
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public static Data create(final File file, final Charset charset, final CSVSyntax config, final CSVOptions options) throws IOException {
+        if (options != null && options.getParallelism() > 1) {
+            CSVDataChunks chunks = new CSVDataChunks(file, charset, config, options, options.getParallelism());
+            return new ChunkedData(chunks.iterators(), options.getParallelism());
+        }
         return new IterableData(new CSVDataInput(file, charset, config, options).iterator());
     }
 
@@ -528,6 +636,9 @@ public abstract class Data { // NO_UCD
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public static Data create(final String path, final Charset charset, final CSVSyntax config, final CSVOptions options) throws IOException {
+        if (options != null && options.getParallelism() > 1) {
+            return create(new File(path), charset, config, options);
+        }
         return new IterableData(new CSVDataInput(path, charset, config, options).iterator());
     }
 
@@ -554,12 +665,99 @@ public abstract class Data { // NO_UCD
         return new ArrayData(array);
     }
 
+    /**
+     * Creates a new data object from a file in binary format, which has been written
+     * with DataHandle.saveBinary(). The data is read immediately into heap memory.
+     *
+     * @param file A file
+     * @return A Data object
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public static Data createFromBinary(final File file) throws IOException {
+        return createFromBinary(file, StorageType.HEAP);
+    }
+
+    /**
+     * Creates a new data object from a file in binary format, which has been written
+     * with DataHandle.saveBinary(). The data is read immediately into the given type of storage.
+     *
+     * @param file A file
+     * @param storage The type of storage
+     * @return A Data object
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public static Data createFromBinary(final File file, final StorageType storage) throws IOException {
+        try (InputStream stream = new BufferedInputStream(new FileInputStream(file))) {
+            return createFromBinary(stream, storage);
+        }
+    }
+
+    /**
+     * Creates a new data object from a stream in binary format, which has been written
+     * with DataHandle.saveBinary(). The data is read immediately into heap memory.
+     * The stream is read up to the end of the data, but not beyond.
+     *
+     * @param stream An input stream
+     * @return A Data object
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public static Data createFromBinary(final InputStream stream) throws IOException {
+        return createFromBinary(stream, StorageType.HEAP);
+    }
+
+    /**
+     * Creates a new data object from a stream in binary format, which has been written
+     * with DataHandle.saveBinary(). The data is read immediately into the given type of storage.
+     * The stream is read up to the end of the data, but not beyond.
+     *
+     * @param stream An input stream
+     * @param storage The type of storage
+     * @return A Data object
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public static Data createFromBinary(final InputStream stream, final StorageType storage) throws IOException {
+        if (storage == null) {
+            throw new NullPointerException("Storage type must not be null");
+        }
+        Data data = new BinaryData(DataBinaryFormat.read(stream, storage));
+        data.setStorageType(storage);
+        return data;
+    }
+
+    /**
+     * Creates a new data object from a file in binary format, which has been written
+     * with DataHandle.saveBinary(). The data is read immediately into heap memory.
+     *
+     * @param path A path to the file
+     * @return A Data object
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public static Data createFromBinary(final String path) throws IOException {
+        return createFromBinary(new File(path));
+    }
+
+    /**
+     * Creates a new data object from a file in binary format, which has been written
+     * with DataHandle.saveBinary(). The data is read immediately into the given type of storage.
+     *
+     * @param path A path to the file
+     * @param storage The type of storage
+     * @return A Data object
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public static Data createFromBinary(final String path, final StorageType storage) throws IOException {
+        return createFromBinary(new File(path), storage);
+    }
+
     /** The data handle. */
     private DataHandleInput handle;
 
     /** The data definition. */
     private DataDefinition  definition = new DataDefinition();
 
+    /** The type of storage. */
+    private StorageType     storage    = StorageType.HEAP;
+
     /**
      * Returns the data definition.
      *
@@ -583,6 +781,36 @@ public abstract class Data { // NO_UCD
         return handle;
     }
 
+    /**
+     * Returns the type of memory used for storing the encoded data.
+     *
+     * @return the storage type
+     */
+    public StorageType getStorageType() {
+        return storage;
+    }
+
+    /**
+     * Sets the type of memory used for storing the encoded data. Must be called
+     * before the data handle is obtained for the first time.
+     *
+     * @param storage the storage type
+     */
+    public void setStorageType(StorageType storage) {
+        if (storage == null) {
+            throw new NullPointerException("Storage type must not be null");
+        }
+        this.storage = storage;
+    }
+
+    /**
+     * Override to return data which has already been encoded
+     * @return
+     */
+    protected DataEncoder getEncoder() {
+        return null;
+    }
+
     /**
      * Override to return a length to improve loading
      * @return
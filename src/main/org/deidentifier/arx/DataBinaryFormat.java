@@ -0,0 +1,233 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.deidentifier.arx.Data.StorageType;
+import org.deidentifier.arx.framework.data.DataMatrix;
+import org.deidentifier.arx.framework.data.Dictionary;
+
+/**
+ * Columnar binary format for datasets. For each column, the file contains the name of
+ * the attribute, a dictionary of its values and the codes of all records bit-packed with
+ * the minimal number of bits. Data is written from the encoded representation of a handle
+ * and read into a dictionary and a data matrix directly, without parsing or decoding
+ * strings for each cell. Values are numbered in the order of their first occurrence, so
+ * that the result is identical to importing the same data from a CSV file.
+ * 
+ * @author Fabian Prasser
+ */
+class DataBinaryFormat {
+
+    /** Magic number: "ARXC" */
+    private static final int MAGIC   = 0x41525843;
+
+    /** Version of the format */
+    private static final int VERSION    = 1;
+
+    /** Number of words of codes which are read at once */
+    private static final int BLOCK_SIZE = 1024;
+
+    /**
+     * Reads data in binary format into a matrix with the given type of storage. The stream is not
+     * buffered and no bytes are read beyond the end of the data, so that the stream may contain
+     * further content. Callers should provide a buffered stream.
+     * @param stream
+     * @param type
+     * @return
+     * @throws IOException
+     */
+    static DataEncoder read(InputStream stream, StorageType type) throws IOException {
+        
+        // Header
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a binary data file");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported version of binary data file: " + version);
+        }
+        int rows = in.readInt();
+        int columns = in.readInt();
+        String[] header = new String[columns];
+        for (int column = 0; column < columns; column++) {
+            header[column] = readString(in);
+        }
+        
+        // Columns
+        Dictionary dictionary = new Dictionary(columns);
+        DataMatrix matrix = new DataMatrix(rows, columns, type);
+        byte[] block = new byte[BLOCK_SIZE * 8];
+        ByteBuffer buffer = ByteBuffer.wrap(block);
+        for (int column = 0; column < columns; column++) {
+            
+            // Dictionary
+            int[] codes = new int[in.readInt()];
+            for (int i = 0; i < codes.length; i++) {
+                codes[i] = dictionary.register(column, readString(in));
+            }
+            
+            // Codes, read in blocks of words which have been written for this column
+            int bits = getBits(codes.length);
+            long mask = (1L << bits) - 1L;
+            long word = 0L;
+            int available = 0;
+            long words = ((long) rows * bits + 63L) / 64L;
+            buffer.limit(0);
+            for (int row = 0; row < rows; row++) {
+                int code;
+                if (available >= bits) {
+                    code = (int) (word & mask);
+                    word >>>= bits;
+                    available -= bits;
+                } else {
+                    if (!buffer.hasRemaining()) {
+                        int length = (int) Math.min(words, BLOCK_SIZE) * 8;
+                        in.readFully(block, 0, length);
+                        buffer.clear();
+                        buffer.limit(length);
+                        words -= length / 8;
+                    }
+                    long next = buffer.getLong();
+                    code = (int) ((word | (next << available)) & mask);
+                    word = next >>> (bits - available);
+                    available += 64 - bits;
+                }
+                if (code >= codes.length) {
+                    throw new IOException("Invalid code in binary data file");
+                }
+                matrix.set(row, column, codes[code]);
+            }
+        }
+        
+        // Done
+        return new DataEncoder(matrix, dictionary, header);
+    }
+
+    /**
+     * Writes the data represented by the given handle in binary format. Suppressed values and
+     * values of removed attributes are written as DataType.ANY_VALUE.
+     * @param handle
+     * @param stream
+     * @throws IOException
+     */
+    static void write(DataHandle handle, OutputStream stream) throws IOException {
+        
+        // Header
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+        int rows = handle.getNumRows();
+        int columns = handle.getNumColumns();
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(rows);
+        out.writeInt(columns);
+        for (int column = 0; column < columns; column++) {
+            writeString(out, handle.getAttributeName(column));
+        }
+        
+        // Columns
+        int[] codes = new int[rows];
+        for (int column = 0; column < columns; column++) {
+
+            // Renumber values in the order of their first occurrence
+            String[] values = handle.internalGetDictionary(column);
+            values = values != null ? values : new String[0];
+            int[] mapping = new int[values.length + 1];
+            Arrays.fill(mapping, -1);
+            List<String> dictionary = new ArrayList<>();
+            for (int row = 0; row < rows; row++) {
+                int code = handle.internalGetEncodedValue(row, column, false);
+                int index = code == -1 ? values.length : code;
+                if (mapping[index] == -1) {
+                    mapping[index] = dictionary.size();
+                    dictionary.add(code == -1 ? DataType.ANY_VALUE : values[code]);
+                }
+                codes[row] = mapping[index];
+            }
+
+            // Dictionary
+            out.writeInt(dictionary.size());
+            for (String value : dictionary) {
+                writeString(out, value);
+            }
+            
+            // Codes
+            int bits = getBits(dictionary.size());
+            long word = 0L;
+            int used = 0;
+            for (int row = 0; row < rows && bits > 0; row++) {
+                word |= (long) codes[row] << used;
+                used += bits;
+                if (used >= 64) {
+                    out.writeLong(word);
+                    used -= 64;
+                    word = used > 0 ? (long) codes[row] >>> (bits - used) : 0L;
+                }
+            }
+            if (used > 0) {
+                out.writeLong(word);
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Returns the number of bits needed for encoding the given number of values
+     * @param values
+     * @return
+     */
+    private static int getBits(int values) {
+        return values <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(values - 1);
+    }
+
+    /**
+     * Reads a string
+     * @param in
+     * @return
+     * @throws IOException
+     */
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a string
+     * @param out
+     * @param value
+     * @throws IOException
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
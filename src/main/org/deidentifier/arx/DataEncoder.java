@@ -0,0 +1,385 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.deidentifier.arx.Data.StorageType;
+import org.deidentifier.arx.framework.data.DataMatrix;
+import org.deidentifier.arx.framework.data.DataMatrixBuilder;
+import org.deidentifier.arx.framework.data.Dictionary;
+
+import com.carrotsearch.hppc.ObjectIntOpenHashMap;
+
+/**
+ * Encodes records into a dictionary and a data matrix in a single pass, without
+ * retaining the strings of the records. If the number of records is known in advance,
+ * they are written into a matrix of the final size and type of storage directly.
+ *
+ * @author Fabian Prasser
+ */
+class DataEncoder {
+
+    /**
+     * Encodes the records provided by the given iterators in parallel. The first record of the
+     * first iterator is the header. Each chunk is encoded with a separate dictionary, which are
+     * merged in the order of the chunks afterwards, followed by a pass which rewrites the codes.
+     * The result is identical to encoding all records sequentially. Each chunk is released as soon
+     * as it has been rewritten, so that not all of them are retained in addition to the result.
+     * 
+     * @param chunks Iterators over consecutive chunks of records
+     * @param threads The number of threads
+     * @param type The type of storage
+     * @return
+     */
+    static DataEncoder encode(final List<Iterator<String[]>> chunks, int threads, StorageType type) {
+        
+        // Obtain header
+        if (chunks.isEmpty() || !chunks.get(0).hasNext()) {
+            throw new IllegalArgumentException("Data object is empty!");
+        }
+        final String[] header = chunks.get(0).next();
+        
+        // Prepare
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, chunks.size())), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "ARX-Import");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            
+            // Encode chunks
+            List<Future<DataEncoder>> futures = new ArrayList<>();
+            for (final Iterator<String[]> iterator : chunks) {
+                futures.add(executor.submit(new Callable<DataEncoder>() {
+                    @Override
+                    public DataEncoder call() throws Exception {
+                        DataEncoder encoder = new DataEncoder(header, null, null);
+                        while (iterator.hasNext()) {
+                            encoder.encode(iterator.next());
+                        }
+                        return encoder;
+                    }
+                }));
+            }
+            final DataEncoder[] parts = get(futures).toArray(new DataEncoder[chunks.size()]);
+            futures.clear();
+            
+            // Merge dictionaries in the order of the chunks, which keeps the codes of a sequential encoding
+            final Dictionary dictionary = new Dictionary(header.length);
+            final int[][][] mappings = new int[parts.length][][];
+            final int[] offsets = new int[parts.length];
+            long rows = 0;
+            for (int i = 0; i < parts.length; i++) {
+                DataEncoder part = parts[i];
+                int[][] mapping = new int[header.length][];
+                for (int column = 0; column < header.length; column++) {
+                    String[] values = part.getValues(column);
+                    mapping[column] = new int[values.length];
+                    for (int code = 0; code < values.length; code++) {
+                        mapping[column][code] = dictionary.register(column, values[code]);
+                    }
+                }
+                mappings[i] = mapping;
+                rows += part.getNumRows();
+                if (rows > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Too many records (more than " + Integer.MAX_VALUE + ")");
+                }
+                offsets[i] = (int) (rows - part.getNumRows());
+            }
+            
+            // Rewrite codes
+            final DataMatrix matrix = new DataMatrix((int) rows, header.length, type);
+            List<Future<Void>> rewrites = new ArrayList<>();
+            for (int i = 0; i < parts.length; i++) {
+                final int index = i;
+                rewrites.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        DataEncoder part = parts[index];
+                        int[][] mapping = mappings[index];
+                        int[] tuple = new int[header.length];
+                        int start = offsets[index];
+                        for (int row = 0; row < part.getNumRows(); row++) {
+                            for (int column = 0; column < header.length; column++) {
+                                tuple[column] = mapping[column][part.builder.get(row, column)];
+                            }
+                            matrix.setRow(start + row, tuple);
+                        }
+                        
+                        // Release the chunk
+                        parts[index] = null;
+                        mappings[index] = null;
+                        return null;
+                    }
+                }));
+            }
+            get(rewrites);
+            
+            // Done
+            return new DataEncoder(matrix, dictionary, header);
+            
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Waits for the given futures and returns their results
+     * @param futures
+     * @return
+     */
+    private static <T> List<T> get(List<Future<T>> futures) {
+        List<T> result = new ArrayList<>();
+        RuntimeException exception = null;
+        for (Future<T> future : futures) {
+            try {
+                result.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                exception = exception != null ? exception : new RuntimeException(e);
+            } catch (ExecutionException e) {
+                if (exception == null) {
+                    exception = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new RuntimeException(e.getCause());
+                }
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+        return result;
+    }
+
+    /** The header */
+    private final String[]          header;
+
+    /** The dictionary */
+    private final Dictionary        dictionary;
+
+    /** The matrix, if the number of records is known */
+    private final DataMatrix        matrix;
+
+    /** The builder, if the number of records is unknown */
+    private final DataMatrixBuilder builder;
+
+    /** Buffer for encoding a record */
+    private final int[]             tuple;
+
+    /** Number of records encoded */
+    private int                     rows    = 0;
+
+    /** Whether the data has been obtained */
+    private boolean                 encoded = false;
+
+    /**
+     * Creates a new instance
+     * @param header The header
+     * @param length The number of records, if known
+     * @param type The type of storage, if the number of records is known
+     */
+    DataEncoder(String[] header, Integer length, StorageType type) {
+        this.header = Arrays.copyOf(header, header.length);
+        this.dictionary = new Dictionary(header.length);
+        this.tuple = new int[header.length];
+        if (length != null && length > 0) {
+            this.matrix = new DataMatrix(length, header.length, type);
+            this.builder = null;
+        } else {
+            this.matrix = null;
+            this.builder = new DataMatrixBuilder(header.length);
+        }
+    }
+
+    /**
+     * Creates a new instance from data which has already been encoded
+     * @param matrix
+     * @param dictionary
+     * @param header
+     */
+    DataEncoder(DataMatrix matrix, Dictionary dictionary, String[] header) {
+        this.header = Arrays.copyOf(header, header.length);
+        this.dictionary = dictionary;
+        this.tuple = new int[header.length];
+        this.matrix = matrix;
+        this.builder = null;
+        this.rows = matrix.getNumRows();
+    }
+
+    /**
+     * Encodes the given record. Missing values and null are encoded as DataType.NULL_VALUE,
+     * surplus values are ignored.
+     * @param strings
+     */
+    void encode(String[] strings) {
+        if (encoded) {
+            throw new IllegalStateException("Data has already been encoded");
+        }
+        for (int i = 0; i < header.length; i++) {
+            String value = (i < strings.length) ? strings[i] : DataType.NULL_VALUE;
+            value = (value != null) ? value : DataType.NULL_VALUE;
+            tuple[i] = dictionary.register(i, value);
+        }
+        if (matrix != null) {
+            if (rows >= matrix.getNumRows()) {
+                throw new IllegalStateException("Invalid internal state. Numbers of records don't match. Expected: <" + matrix.getNumRows() + "> is: <" + (rows + 1) + ">");
+            }
+            matrix.setRow(rows, tuple);
+        } else {
+            builder.add(tuple);
+        }
+        rows++;
+    }
+
+    /**
+     * Returns the data and finalizes the dictionary. No more records can be encoded afterwards.
+     * @param type The type of storage
+     * @return
+     */
+    DataMatrix getData(StorageType type) {
+        if (encoded) {
+            throw new IllegalStateException("Data has already been encoded");
+        }
+        encoded = true;
+        dictionary.finalizeAll();
+        if (matrix != null) {
+            
+            // Sanity check to prevent loading errors
+            if (rows != matrix.getNumRows()) {
+                throw new IllegalStateException("Invalid internal state. Numbers of records don't match. Expected: <" + matrix.getNumRows() + "> is: <" + rows + ">");
+            }
+            
+            // Move to the requested type of storage
+            if (matrix.getStorageType() != type) {
+                DataMatrix result = new DataMatrix(rows, header.length, type);
+                for (int row = 0; row < rows; row++) {
+                    result.copyFrom(row, matrix, row);
+                }
+                return result;
+            }
+            return matrix;
+        } else {
+            return builder.build(type);
+        }
+    }
+
+    /**
+     * Returns the dictionary
+     * @return
+     */
+    Dictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Returns the header
+     * @return
+     */
+    String[] getHeader() {
+        return header;
+    }
+
+    /**
+     * Returns the number of records encoded
+     * @return
+     */
+    int getNumRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the values registered for the given column so far, indexed by their codes
+     * @param column
+     * @return
+     */
+    private String[] getValues(int column) {
+        ObjectIntOpenHashMap<String> map = dictionary.getUnfinalizedValues(column);
+        Object[] keys = map.keys;
+        String[] result = new String[map.size()];
+        for (int i = 0; i < map.allocated.length; i++) {
+            if (map.allocated[i]) {
+                result[map.values[i]] = (String) keys[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns an iterator decoding the header and all records encoded so far. Only supported
+     * as long as the data has not been obtained.
+     * @return
+     */
+    Iterator<String[]> iterator() {
+        if (encoded) {
+            throw new IllegalStateException("Data has already been encoded");
+        }
+        
+        // Invert dictionary
+        final String[][] mapping = new String[header.length][];
+        for (int i = 0; i < header.length; i++) {
+            mapping[i] = getValues(i);
+        }
+        
+        // Iterate
+        final int rows = this.rows;
+        return new Iterator<String[]>() {
+
+            private int row = -1;
+
+            @Override
+            public boolean hasNext() {
+                return row < rows;
+            }
+
+            @Override
+            public String[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                String[] result;
+                if (row == -1) {
+                    result = Arrays.copyOf(header, header.length);
+                } else {
+                    result = new String[header.length];
+                    for (int i = 0; i < header.length; i++) {
+                        result[i] = mapping[i][matrix != null ? matrix.get(row, i) : builder.get(row, i)];
+                    }
+                }
+                row++;
+                return result;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
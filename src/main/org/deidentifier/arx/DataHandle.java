@@ -18,8 +18,12 @@
 package org.deidentifier.arx;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -699,6 +703,22 @@ public abstract class DataHandle {
         output.write(iterator());
     }
 
+    /**
+     * Writes the data to a CSV file with the given charset. Records are written directly
+     * from the encoded representation of the data, without creating strings for each cell.
+     *
+     * @param file the file
+     * @param charset the charset
+     * @param config the config
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public void save(final File file, final Charset charset, final CSVSyntax config) throws IOException {
+        checkReleased();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            save(out.getChannel(), charset, config);
+        }
+    }
+
     /**
      * Writes the data to a CSV file.
      *
@@ -737,6 +757,22 @@ public abstract class DataHandle {
         output.write(iterator());
     }
 
+    /**
+     * Writes the data to a stream in CSV format with the given charset. Records are written
+     * directly from the encoded representation of the data, without creating strings for
+     * each cell. The stream is not closed.
+     *
+     * @param out the out
+     * @param charset the charset
+     * @param config the config
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public void save(final OutputStream out, final Charset charset, final CSVSyntax config) throws IOException {
+        checkReleased();
+        save(Channels.newChannel(out), charset, config);
+        out.flush();
+    }
+
     /**
      * Writes the data to a CSV file.
      *
@@ -775,6 +811,58 @@ public abstract class DataHandle {
         output.write(iterator());
     }
 
+    /**
+     * Writes the data to a channel in CSV format with the given charset. Records are written
+     * directly from the encoded representation of the data, without creating strings for
+     * each cell. The channel is not closed.
+     *
+     * @param channel the channel
+     * @param charset the charset
+     * @param config the config
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public void save(final WritableByteChannel channel, final Charset charset, final CSVSyntax config) throws IOException {
+        checkReleased();
+        new DataHandleExporter(this, charset, config).write(channel);
+    }
+
+    /**
+     * Writes the data to a file in a columnar binary format, which can be loaded with
+     * Data.createFromBinary() without parsing. Suppressed values are written as "*".
+     *
+     * @param file the file
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public void saveBinary(final File file) throws IOException {
+        checkReleased();
+        try (OutputStream out = new FileOutputStream(file)) {
+            DataBinaryFormat.write(this, out);
+        }
+    }
+
+    /**
+     * Writes the data to a stream in a columnar binary format, which can be loaded with
+     * Data.createFromBinary() without parsing. Suppressed values are written as "*".
+     *
+     * @param out the out
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public void saveBinary(final OutputStream out) throws IOException {
+        checkReleased();
+        DataBinaryFormat.write(this, out);
+    }
+
+    /**
+     * Writes the data to a file in a columnar binary format, which can be loaded with
+     * Data.createFromBinary() without parsing. Suppressed values are written as "*".
+     *
+     * @param path the path
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public void saveBinary(final String path) throws IOException {
+        saveBinary(new File(path));
+    }
+
     /**
      * Returns an iterator over the data in a random order.
      *
@@ -995,6 +1083,15 @@ public abstract class DataHandle {
         }
     }
 
+    /**
+     * Returns the values which are represented by the codes returned by internalGetEncodedValue()
+     * for the given column, indexed by their codes. Returns null for removed columns.
+     *
+     * @param col the col
+     * @return the values
+     */
+    protected abstract String[] internalGetDictionary(int col);
+
     /**
      * Internal representation of get encoded value. Returns -1 for suppressed values.
      *
@@ -18,10 +18,7 @@
 package org.deidentifier.arx;
 
 import java.security.SecureRandom;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Set;
 
 import org.apache.commons.lang3.ArrayUtils;
@@ -66,80 +63,32 @@ public class DataHandleInput extends DataHandle {
      */
     protected DataHandleInput(final Data data) {
         
-        // Obtain and check iterator
-        Iterator<String[]> iterator = data.iterator();
-        if (!iterator.hasNext()) { 
-            throw new IllegalArgumentException("Data object is empty!"); 
-        }
-
-        // Register
-        this.setRegistry(new DataRegistry());
-        this.getRegistry().updateInput(this);
-        this.definition = data.getDefinition().clone();
-
-        // Obtain header
-        String[] columns = iterator.next();
-        super.setHeader(Arrays.copyOf(columns, columns.length));
-
-        // Init dictionary
-        this.dictionary = new Dictionary(header.length);
-        
-        // Optimized code-path, if the number of records is known
-        if (data.getLength() != null && data.getLength() > 0) {
-            
-            // Records
-            int records = data.getLength();
-
-            // Build array
-            this.data = new DataMatrix(records, header.length);
+        // Obtain encoded data, if available
+        DataEncoder encoder = data.getEncoder();
+        if (encoder == null) {
             
-            // Encode data on the fly
-            int row = 0;
-            while (iterator.hasNext()) {
-    
-                // Process a tuple
-                String[] strings = iterator.next();
-                int[] tuple = new int[header.length];
-                for (int i = 0; i < header.length; i++) {
-                    String value = (i < strings.length) ? strings[i] : DataType.NULL_VALUE;
-                    value = (value != null) ? value : DataType.NULL_VALUE;
-                    tuple[i] = dictionary.register(i, value);
-                }
-                this.data.setRow(row, tuple);
-                row++;
+            // Obtain and check iterator
+            Iterator<String[]> iterator = data.iterator();
+            if (!iterator.hasNext()) { 
+                throw new IllegalArgumentException("Data object is empty!"); 
             }
             
-            // Sanity check to prevent loading errors
-            if (row != records) {
-                throw new IllegalStateException("Invalid internal state. Numbers of records don't match. Expected: <" + records + "> is: <" + row + ">");
-            }
-
-        } else { 
-    
-            // Encode data
-            List<int[]> vals = new ArrayList<int[]>();
+            // Encode data on the fly. Uses an optimized code-path, if the number of records is known
+            encoder = new DataEncoder(iterator.next(), data.getLength(), data.getStorageType());
             while (iterator.hasNext()) {
-    
-                // Process a tuple
-                String[] strings = iterator.next();
-                int[] tuple = new int[header.length];
-                for (int i = 0; i < header.length; i++) {
-                    String value = (i < strings.length) ? strings[i] : DataType.NULL_VALUE;
-                    value = (value != null) ? value : DataType.NULL_VALUE;
-                    tuple[i] = dictionary.register(i, value);
-                }
-                vals.add(tuple);
-            }
-    
-            // Build array
-            this.data = new DataMatrix(vals.size(), header.length);
-            for (int row = 0; row < vals.size(); row++) {
-                this.data.setRow(row, vals.get(row));
+                encoder.encode(iterator.next());
             }
         }
 
-        // finalize dictionary
-        this.dictionary.finalizeAll();
+        // Register
+        this.setRegistry(new DataRegistry());
+        this.getRegistry().updateInput(this);
+        this.definition = data.getDefinition().clone();
+
+        // Obtain header, data and finalized dictionary
+        super.setHeader(encoder.getHeader());
+        this.data = encoder.getData(data.getStorageType());
+        this.dictionary = encoder.getDictionary();
 
         // Create datatype array
         this.columnToDataType = getColumnToDataType();
@@ -376,6 +325,11 @@ public class DataHandleInput extends DataHandle {
         return -1;
     }
 
+    @Override
+    protected String[] internalGetDictionary(final int column) {
+        return dictionary.getMapping()[column];
+    }
+
     @Override
     protected int internalGetEncodedValue(final int row, final int column, final boolean ignoreSuppression) {
         return data.get(row, column);
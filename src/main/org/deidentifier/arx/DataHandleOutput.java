@@ -599,6 +599,12 @@ public class DataHandleOutput extends DataHandle {
         return 0;
     }
 
+    @Override
+    protected String[] internalGetDictionary(final int col) {
+        Data data = columnToData[col];
+        return data == null ? null : data.getDictionary().getMapping()[columnToIndex[col]];
+    }
+
     @Override
     protected int internalGetEncodedValue(final int row,
                                           final int col,
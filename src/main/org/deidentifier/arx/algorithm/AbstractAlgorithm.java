@@ -17,10 +17,17 @@
 
 package org.deidentifier.arx.algorithm;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.deidentifier.arx.ARXCancellationToken;
 import org.deidentifier.arx.ARXConfiguration.Monotonicity;
 import org.deidentifier.arx.ARXListener;
 import org.deidentifier.arx.framework.check.TransformationChecker;
 import org.deidentifier.arx.framework.check.TransformationChecker.ScoreType;
+import org.deidentifier.arx.framework.check.TransformationResult;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
 import org.deidentifier.arx.framework.lattice.SolutionSpace;
 import org.deidentifier.arx.framework.lattice.Transformation;
@@ -44,6 +51,9 @@ public abstract class AbstractAlgorithm {
     /** The listener */
     private ARXListener             listener               = null;
 
+    /** The cancellation token, if any */
+    private ARXCancellationToken    token                  = null;
+
     /** A node checker. */
     protected TransformationChecker checker                = null;
 
@@ -123,6 +133,15 @@ public abstract class AbstractAlgorithm {
         return timeStart;
     }
 
+    /**
+     * Sets a token which allows to cancel the algorithm
+     * @param token
+     */
+    public void setCancellationToken(ARXCancellationToken token) {
+        this.token = token;
+        this.checker.setCancellationToken(token);
+    }
+
     /**
      * Sets a listener
      * @param listener
@@ -138,6 +157,61 @@ public abstract class AbstractAlgorithm {
      */
     public abstract boolean traverse();
 
+    /**
+     * Checks all given transformations which have not been checked yet in parallel, if
+     * the checker has been configured accordingly. The number of checks performed is
+     * capped by the step limit. Does nothing if checks are performed sequentially.
+     * Results are stored in the solution space, while tracking the optimum is left to the caller.
+     *
+     * @param transformations
+     * @return The transformations that have been checked
+     */
+    protected List<Transformation<?>> checkInParallel(List<Transformation<?>> transformations) {
+        return checkInParallel(transformations, ScoreType.INFORMATION_LOSS);
+    }
+
+    /**
+     * Checks all given transformations which have not been checked yet in parallel, computing
+     * the given type of score, see checkInParallel(List).
+     *
+     * @param transformations
+     * @param scoreType
+     * @return The transformations that have been checked
+     */
+    protected List<Transformation<?>> checkInParallel(List<Transformation<?>> transformations, ScoreType scoreType) {
+        
+        // Nothing to do
+        if (checker.getConfiguration().getParallelism() <= 1) {
+            return new ArrayList<>();
+        }
+        
+        // Collect transformations which have not been checked
+        int limit = checkLimit - checker.getNumChecksPerformed();
+        List<Transformation<?>> unchecked = new ArrayList<>();
+        Set<Object> identifiers = new HashSet<>();
+        for (Transformation<?> transformation : transformations) {
+            if (unchecked.size() >= limit) {
+                break;
+            }
+            if (!transformation.hasProperty(solutionSpace.getPropertyChecked()) &&
+                identifiers.add(transformation.getIdentifier())) {
+                unchecked.add(transformation);
+            }
+        }
+        
+        // Check and store
+        TransformationResult[] results = checker.check(unchecked, true, scoreType);
+        List<Transformation<?>> checked = new ArrayList<>();
+        for (int i = 0; i < results.length; i++) {
+            // Transformations are not checked after cancellation
+            if (results[i] != null) {
+                unchecked.get(i).setChecked(results[i]);
+                checked.add(unchecked.get(i));
+            }
+        }
+        return checked;
+    }
+
     /**
      * Determine information loss implied by the given transformation if it can be
      * used for estimating minimum and maximum information loss for tagged nodes.
@@ -145,7 +219,8 @@ public abstract class AbstractAlgorithm {
      * @param transformation
      */
     protected void computeUtilityForMonotonicMetrics(Transformation<?> transformation) {
-        if (checker.getConfiguration().getMonotonicityOfUtility() == Monotonicity.FULL &&
+        if (!isCancelled() &&
+            checker.getConfiguration().getMonotonicityOfUtility() == Monotonicity.FULL &&
             transformation.getInformationLoss() == null) {
 
             // Independent evaluation or check
@@ -160,12 +235,21 @@ public abstract class AbstractAlgorithm {
     }
 
     /**
-     * Returns whether we have exceeded the allowed number of steps or time.
+     * Returns whether we have exceeded the allowed number of steps or time, or have been cancelled.
      * @return
      */
     protected boolean mustStop() {
         return ((int)(System.currentTimeMillis() - timeStart) > timeLimit) ||
-               (checker.getNumChecksPerformed() >= checkLimit);
+               (checker.getNumChecksPerformed() >= checkLimit) ||
+               isCancelled();
+    }
+
+    /**
+     * Returns whether the process has been cancelled.
+     * @return
+     */
+    protected boolean isCancelled() {
+        return token != null && token.isCancelled();
     }
 
     /**
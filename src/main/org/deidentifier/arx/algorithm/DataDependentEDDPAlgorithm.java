@@ -17,7 +17,10 @@
 
 package org.deidentifier.arx.algorithm;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -44,6 +47,9 @@ import de.linearbits.jhpl.PredictiveProperty;
  */
 public class DataDependentEDDPAlgorithm extends AbstractAlgorithm {
 
+    /** Name of the phase */
+    private static final String                PHASE     = "Data-dependent DP";
+
     /** Property */
     private final PredictiveProperty           propertyChecked;
 
@@ -53,6 +59,12 @@ public class DataDependentEDDPAlgorithm extends AbstractAlgorithm {
     /** The exponential mechanism */
     private final ExponentialMechanism<Object> exponentialMechanism;
 
+    /** Buffer for candidates, reused across steps */
+    private Object[]                           values    = new Object[0];
+
+    /** Buffer for exponents of candidates, reused across steps */
+    private double[]                           exponents = new double[0];
+
     /**
      * Creates a new instance
      * @param solutionSpace
@@ -114,6 +126,7 @@ public class DataDependentEDDPAlgorithm extends AbstractAlgorithm {
 
         // Prepare
         super.startTraverse();
+        checker.setPhase(PHASE);
         
         // Set the top-transformation to be the initial pivot element
         Transformation<?> pivot = solutionSpace.getTop();
@@ -126,34 +139,43 @@ public class DataDependentEDDPAlgorithm extends AbstractAlgorithm {
         // Track optimum
         trackOptimum(pivot);
         
-        // Initialize the set of candidates, each mapped to its respective score
-        Map<Object, ILScore> transformationIDToScore = new HashMap<>();
-        transformationIDToScore.put(pivot.getIdentifier(), score);
+        // Initialize the set of candidates, each mapped to the exponent of its respective score. Scores
+        // are converted once, when a candidate is added. The order in which candidates are added and
+        // removed determines the iteration order of the map, and thus the mapping of random numbers to
+        // candidates, which is why a HashMap is used as before.
+        Map<Object, Double> transformationIDToExponent = new HashMap<>();
+        transformationIDToExponent.put(pivot.getIdentifier(), getExponent(score));
         
         // For each step
         for (int step = 1; step <= expansionLimit; ++step) {
             
-            // Add predecessors of the current pivot element to the set of candidates
+            // Check new predecessors in parallel, if configured
             TransformationList<?> list = pivot.getPredecessors();
+            List<Transformation<?>> predecessors = new ArrayList<>();
             for (int i = 0; i < list.size(); i++) {
                 Object id = list.getQuick(i);
-                if (transformationIDToScore.containsKey(id)) continue;
-                Transformation<?> predecessor = solutionSpace.getTransformation(id);
+                if (!transformationIDToExponent.containsKey(id)) {
+                    predecessors.add(solutionSpace.getTransformation(id));
+                }
+            }
+            checkInParallel(predecessors, ScoreType.DP_SCORE);
+            
+            // Add predecessors of the current pivot element to the set of candidates
+            for (Transformation<?> predecessor : predecessors) {
                 assureChecked(predecessor);
-                transformationIDToScore.put(id, (ILScore)predecessor.getInformationLoss());
-                
+                transformationIDToExponent.put(predecessor.getIdentifier(), getExponent((ILScore)predecessor.getInformationLoss()));
             }
             
             // Remove the current pivot element from the set of candidates
-            transformationIDToScore.remove(pivot.getIdentifier());
+            transformationIDToExponent.remove(pivot.getIdentifier());
             
             // Stop if no more transformations available
-            if (transformationIDToScore.isEmpty()) {
+            if (transformationIDToExponent.isEmpty()) {
                 return false;
             }
             
             // Select the next pivot element from the set of candidates using the exponential mechanism
-            Object id = executeExponentialMechanism(transformationIDToScore, exponentialMechanism);
+            Object id = executeExponentialMechanism(transformationIDToExponent);
             pivot = solutionSpace.getTransformation(id);
            
             // Track optimum
@@ -184,28 +206,37 @@ public class DataDependentEDDPAlgorithm extends AbstractAlgorithm {
 
     /**
      * Executes the exponential mechanism
-     * @param transformationIDToScore
-     * @param exponentialMechanism 
+     * @param transformationIDToExponent
      * @return
      */
-    private Object executeExponentialMechanism(Map<Object, ILScore> transformationIDToScore, ExponentialMechanism<Object> exponentialMechanism) {
+    private Object executeExponentialMechanism(Map<Object, Double> transformationIDToExponent) {
         
         // Convert the map into arrays of the types required by the exponential mechanism
-        Object[] values = new Object[transformationIDToScore.size()];
-        double[] scores = new double[values.length];
-
+        int size = transformationIDToExponent.size();
+        if (values.length < size) {
+            values = new Object[Math.max(size, values.length * 2)];
+            exponents = new double[values.length];
+        }
         int i = 0;
-        for (Entry<Object, ILScore> entry : transformationIDToScore.entrySet()) {
+        for (Entry<Object, Double> entry : transformationIDToExponent.entrySet()) {
             values[i] = entry.getKey();
-            scores[i] = toDouble(entry.getValue().getValue());
+            exponents[i] = entry.getValue();
             i++;
         }
 
-        // Set the probability distribution
-        exponentialMechanism.setDistribution(values, scores);
-        
         // Select and return a value
-        return exponentialMechanism.sample();
+        Object result = exponentialMechanism.sample(values, exponents, size);
+        Arrays.fill(values, 0, size, null);
+        return result;
+    }
+
+    /**
+     * Returns the exponent used by the exponential mechanism for the given score
+     * @param score
+     * @return
+     */
+    private double getExponent(ILScore score) {
+        return exponentialMechanism.getExponent(toDouble(score.getValue()));
     }
     
     /**
@@ -18,14 +18,18 @@
 package org.deidentifier.arx.algorithm;
 
 import java.math.BigInteger;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.PriorityQueue;
 
 import org.deidentifier.arx.algorithm.FLASHPhaseConfiguration.PhaseAnonymityProperty;
 import org.deidentifier.arx.framework.check.TransformationChecker;
+import org.deidentifier.arx.framework.check.TransformationChecker.ScoreType;
 import org.deidentifier.arx.framework.check.TransformationResult;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
 import org.deidentifier.arx.framework.lattice.DependentAction;
@@ -53,6 +57,12 @@ import de.linearbits.jhpl.PredictiveProperty;
  */
 public class FLASHAlgorithmImpl extends AbstractAlgorithm {
 
+    /** Name of the binary phase */
+    private static final String        PHASE_BINARY = "FLASH binary";
+
+    /** Name of the linear phase */
+    private static final String        PHASE_LINEAR = "FLASH linear";
+
     /** Configuration for the algorithm's phases. */
     protected final FLASHConfiguration config;
 
@@ -71,6 +81,12 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
     /** Size of the solution space */
     private final int                  solutionSpaceSize;
 
+    /** Number of transformations which are checked speculatively at once */
+    private final int                  parallelism;
+
+    /** Results of speculative checks, which have not yet been consumed by the search */
+    private final Map<Long, TransformationResult> speculativeResults;
+
     /**
      * Creates a new instance.
      *
@@ -100,6 +116,8 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         this.config = config;
         this.potentiallyInsufficientUtility = this.config.isPruneInsufficientUtility() ? 
                                               new LinkedList<Integer>() : null;
+        this.parallelism = checker.getConfiguration().getParallelism();
+        this.speculativeResults = new HashMap<Long, TransformationResult>();
     }
 
     @Override
@@ -125,6 +143,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         Transformation<Long> top = (TransformationLong)solutionSpace.getTop();
 
         // Check bottom for speed and remember the result to prevent repeated checks
+        checker.setPhase(config.isBinaryPhaseRequired() ? PHASE_BINARY : PHASE_LINEAR);
         TransformationResult result = checker.check(bottom);
         bottom.setProperty(solutionSpace.getPropertyForceSnapshot());
         bottom.setData(result);
@@ -151,6 +170,9 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
                 } else {
                     linearSearch(transformation);
                 }
+                
+                // Discard speculative results which have not been needed
+                speculativeResults.clear();
             }
         }
 
@@ -198,6 +220,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
             if (!skip(triggerSkip, transformation)) {
 
                 // First phase
+                checker.setPhase(PHASE_BINARY);
                 List<Transformation<Long>> path = findPath(transformation, triggerSkip);
                 transformation = checkPath(path, triggerSkip, queue);
 
@@ -205,6 +228,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
                 if (config.isLinearPhaseRequired() && (transformation != null)) {
 
                     // Run linear search on head
+                    checker.setPhase(PHASE_LINEAR);
                     linearSearch(transformation);
                 }
             }
@@ -228,7 +252,8 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
                 transformation.setLowerBound(checker.getMetric().getLowerBound(transformation));
             }
         } else if (configuration.getTriggerCheck().appliesTo(transformation)) {
-            transformation.setChecked(checker.check(transformation));
+            TransformationResult result = speculativeResults.remove(transformation.getIdentifier());
+            transformation.setChecked(result != null ? result : checker.check(transformation));
             trackProgressFromLimits((double)++checked / (double)solutionSpaceSize);
         }
         
@@ -281,6 +306,11 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
             // Skip
             if (!skip(triggerSkip, transformation)) {
 
+                // Speculatively check the next transformations of the binary search
+                if (parallelism > 1 && !speculativeResults.containsKey(transformation.getIdentifier())) {
+                    speculate(getBinarySearchCandidates(path, low, high), config.getBinaryPhaseConfiguration());
+                }
+
                 // Check and tag
                 checkAndTag(transformation, config.getBinaryPhaseConfiguration());
 
@@ -335,6 +365,33 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         return path;
     }
     
+    /**
+     * Returns the transformations which may be visited by a binary search on the given
+     * part of the path in the order in which they may be visited, i.e. the decision
+     * tree of the binary search in breadth-first order. Returns at most as many
+     * transformations as checks are performed in parallel.
+     *
+     * @param path
+     * @param low
+     * @param high
+     * @return
+     */
+    private List<Transformation<Long>> getBinarySearchCandidates(List<Transformation<Long>> path, int low, int high) {
+        List<Transformation<Long>> result = new ArrayList<Transformation<Long>>();
+        ArrayDeque<int[]> intervals = new ArrayDeque<int[]>();
+        intervals.add(new int[] { low, high });
+        while (!intervals.isEmpty() && result.size() < parallelism) {
+            int[] interval = intervals.poll();
+            if (interval[0] <= interval[1]) {
+                int mid = (interval[0] + interval[1]) / 2;
+                result.add(path.get(mid));
+                intervals.add(new int[] { interval[0], mid - 1 });
+                intervals.add(new int[] { mid + 1, interval[1] });
+            }
+        }
+        return result;
+    }
+
     /**
      * Sorts pointers to successor nodes according to the strategy.
      *
@@ -402,6 +459,15 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
             // Check and tag
             checkAndTag(transformation, config.getLinearPhaseConfiguration());
 
+            // Speculatively check the successors
+            if (parallelism > 1) {
+                List<Transformation<Long>> successors = new ArrayList<Transformation<Long>>();
+                for (final int child : getSortedSuccessors(transformation)) {
+                    successors.add(((SolutionSpaceLong)solutionSpace).getTransformation((long)child));
+                }
+                speculate(successors, config.getLinearPhaseConfiguration());
+            }
+
             // DFS
             for (final int child : getSortedSuccessors(transformation)) {
                 Transformation<Long> childTransformation = ((SolutionSpaceLong)solutionSpace).getTransformation((long)child);
@@ -540,6 +606,47 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         return false;
     }
 
+    /**
+     * Checks the given candidates in parallel without changing their state in the solution space.
+     * The results are used by the search when it visits the according transformations, which keeps
+     * the traversal identical to a sequential execution. Candidates which are already known to be
+     * skipped, evaluated or not checked are excluded.
+     *
+     * @param candidates
+     * @param configuration
+     */
+    private void speculate(List<Transformation<Long>> candidates, FLASHPhaseConfiguration configuration) {
+
+        // Select
+        int limit = Math.min(parallelism, getCheckLimit() - checker.getNumChecksPerformed());
+        List<Transformation<?>> transformations = new ArrayList<Transformation<?>>();
+        for (Transformation<Long> candidate : candidates) {
+            if (transformations.size() >= limit) {
+                break;
+            }
+            if (!configuration.getTriggerSkip().appliesTo(candidate) &&
+                !configuration.getTriggerEvaluate().appliesTo(candidate) &&
+                configuration.getTriggerCheck().appliesTo(candidate) &&
+                !speculativeResults.containsKey(candidate.getIdentifier())) {
+                transformations.add(candidate);
+            }
+        }
+
+        // There is nothing to gain
+        if (transformations.size() <= 1) {
+            return;
+        }
+
+        // Check and store
+        TransformationResult[] results = checker.check(transformations, false, ScoreType.INFORMATION_LOSS);
+        for (int i = 0; i < results.length; i++) {
+            // Transformations are not checked after cancellation
+            if (results[i] != null) {
+                speculativeResults.put((Long)transformations.get(i).getIdentifier(), results[i]);
+            }
+        }
+    }
+
     /**
      * Sorts a given array of transformation identifiers.
      * 
@@ -22,6 +22,7 @@ import java.util.Comparator;
 
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.SolutionSpaceLong;
 import org.deidentifier.arx.framework.lattice.Transformation;
 
 /**
@@ -136,7 +137,7 @@ public class FLASHStrategy implements Comparator<Integer> {
         double level = 0;
         double prec = 0;
         double ddistinct = 0;
-        Transformation<?> transformation = solutionSpace.getTransformation((long)id);
+        Transformation<?> transformation = ((SolutionSpaceLong)solutionSpace).getTransformation((long)id);
         int[] generalization = transformation.getGeneralization();
         
         // Compute
@@ -87,6 +87,10 @@ public class GeneticAlgorithm extends AbstractAlgorithm {
                                checkLimit);
     }
 
+    /** Name of the phase creating the initial population */
+    private static final String         PHASE_INITIALIZATION = "Genetic initialization";
+    /** Prefix of the names of the phases creating generations */
+    private static final String         PHASE_GENERATION     = "Genetic generation ";
     /** RNG */
     private final Random                random;
     /** Max values */
@@ -162,6 +166,7 @@ public class GeneticAlgorithm extends AbstractAlgorithm {
 
         // Prepare
         super.startTraverse();
+        checker.setPhase(PHASE_INITIALIZATION);
 
         // k is defined in a way that stops very small sub-populations
         // from breaking the algorithm, as very small values fail to
@@ -176,7 +181,8 @@ public class GeneticAlgorithm extends AbstractAlgorithm {
         GeneticAlgorithmSubpopulation z1 = new GeneticAlgorithmSubpopulation();
         GeneticAlgorithmSubpopulation z2 = new GeneticAlgorithmSubpopulation();
 
-        // Fill sub-population 1
+        // Create sub-population 1
+        List<int[]> generalizations1 = new ArrayList<>();
         for (int i = 0; i < k; i++) {
 
             // Prepare
@@ -202,14 +208,11 @@ public class GeneticAlgorithm extends AbstractAlgorithm {
                     generalization[j] = getRandomGeneralizationLevel(j);
                 }
             }
-
-            // Stop
-            if (mustStop()) { return false; }
-
-            z1.addIndividual(getIndividual(generalization));
+            generalizations1.add(generalization);
         }
 
-        // Fill sub-population 2
+        // Create sub-population 2
+        List<int[]> generalizations2 = new ArrayList<>();
         for (int i = 0; i < k; i++) {
 
             // Prepare
@@ -219,6 +222,23 @@ public class GeneticAlgorithm extends AbstractAlgorithm {
             for (int j = 0; j < maxLevels.length; j++) {
                 generalization[j] = getRandomGeneralizationLevel(j);
             }
+            generalizations2.add(generalization);
+        }
+
+        // Check both sub-populations at once
+        checkIndividuals(generalizations1, generalizations2);
+
+        // Fill sub-population 1
+        for (int[] generalization : generalizations1) {
+
+            // Stop
+            if (mustStop()) { return false; }
+
+            z1.addIndividual(getIndividual(generalization));
+        }
+
+        // Fill sub-population 2
+        for (int[] generalization : generalizations2) {
 
             // Stop
             if (mustStop()) { return false; }
@@ -229,6 +249,9 @@ public class GeneticAlgorithm extends AbstractAlgorithm {
         // Main iterator
         for (int t = 0; t < itr; t++) {
 
+            // Track generation
+            checker.setPhase(PHASE_GENERATION + (t + 1));
+
             // Sort by fitness descending
             z1.sort();
             z2.sort();
@@ -245,9 +268,15 @@ public class GeneticAlgorithm extends AbstractAlgorithm {
                 z2.sort();
             }
 
+            // Create offspring of both sub-populations and check them at once
+            List<int[]> offspring1 = getOffspring(z1);
+            List<int[]> offspring2 = getOffspring(z2);
+            checkIndividuals(offspring1, offspring2);
+
             // Iterate
-            iterateSubpopulation(z1);
-            iterateSubpopulation(z2);
+            iterateSubpopulation(z1, offspring1);
+            if (mustStop()) { return false; }
+            iterateSubpopulation(z2, offspring2);
 
             // Stop
             if (mustStop()) { return false; }
@@ -257,6 +286,27 @@ public class GeneticAlgorithm extends AbstractAlgorithm {
         return getGlobalOptimum() != null;
     }
 
+    /**
+     * Checks the given individuals of all sub-populations in parallel, if enabled
+     * 
+     * @param generalizations
+     */
+    @SafeVarargs
+    private final void checkIndividuals(List<int[]>... generalizations) {
+        if (this.checker.getConfiguration().getParallelism() > 1) {
+            List<Transformation<?>> transformations = new ArrayList<>();
+            for (List<int[]> list : generalizations) {
+                for (int[] generalization : list) {
+                    transformations.add(this.solutionSpace.getTransformation(generalization));
+                }
+            }
+            for (Transformation<?> transformation : checkInParallel(transformations)) {
+                trackOptimum(transformation);
+            }
+            trackProgressFromLimits();
+        }
+    }
+
     /**
      * Returns an individual
      * 
@@ -274,7 +324,7 @@ public class GeneticAlgorithm extends AbstractAlgorithm {
     }
 
     /**
-     * Returns a mutated transformation, which means that a random parent is
+     * Returns a mutated generalization, which means that a random parent is
      * selected. <br>
      * - Randomly generate an integer r, representing the number of mutated
      * places (from 1 to ceil (upper bound on mutation probability * m)) <br>
@@ -284,7 +334,7 @@ public class GeneticAlgorithm extends AbstractAlgorithm {
      * 
      * @return
      */
-    private Transformation<?> getMutatedIndividual(Transformation<?> transformation) {
+    private int[] getMutatedGeneralization(Transformation<?> transformation) {
 
         // Prepare
         int[] generalization = transformation.getGeneralization().clone();
@@ -310,7 +360,7 @@ public class GeneticAlgorithm extends AbstractAlgorithm {
         }
 
         // Done
-        return getIndividual(generalization);
+        return generalization;
     }
 
     /**
@@ -380,11 +430,12 @@ public class GeneticAlgorithm extends AbstractAlgorithm {
     }
 
     /**
-     * Performs one iteration on a sub-population.
+     * Creates the offspring of a sub-population, i.e. crossover children followed by mutated individuals.
      * 
      * @param population
+     * @return
      */
-    private void iterateSubpopulation(GeneticAlgorithmSubpopulation population) {
+    private List<int[]> getOffspring(GeneticAlgorithmSubpopulation population) {
 
         // Copy old Population
         GeneticAlgorithmSubpopulation oldPopulation = new GeneticAlgorithmSubpopulation(population);
@@ -405,6 +456,7 @@ public class GeneticAlgorithm extends AbstractAlgorithm {
         // Crossover individuals
         Transformation<?>[] parents1 = getRandomIndividuals(population, productionCount, crossoverCount);
         Transformation<?>[] parents2 = getRandomIndividuals(population, productionCount, crossoverCount);
+        List<int[]> generalizations = new ArrayList<>();
         for (int crossover = 0; crossover < crossoverCount; crossover++) {
 
             // Create crossover child
@@ -412,19 +464,46 @@ public class GeneticAlgorithm extends AbstractAlgorithm {
             for (int i = 0; i < maxLevels.length; i++) {
                 vec[i] = (random.nextDouble() < 0.5 ? parents1[crossover] : parents2[crossover]).getGeneralization()[i];
             }
+            generalizations.add(vec);
+        }
+
+        // Create mutated individuals
+        for (int mutation = eliteCount; mutation < k - crossoverCount; mutation++) {
+            generalizations.add(getMutatedGeneralization(oldPopulation.getIndividual(random.nextInt(k))));
+        }
+        
+        // Done
+        return generalizations;
+    }
+
+    /**
+     * Performs one iteration on a sub-population by replacing individuals with the given offspring.
+     * 
+     * @param population
+     * @param generalizations
+     */
+    private void iterateSubpopulation(GeneticAlgorithmSubpopulation population, List<int[]> generalizations) {
+
+        // Calculate mutation configuration parameters
+        int k = population.individualCount();
+        int crossoverCount = (int) Math.ceil(geneticAlgorithmCrossoverFraction * k);
+        int eliteCount = (int) Math.ceil(geneticAlgorithmEliteFraction * k);
+
+        // Replace crossover individuals
+        for (int crossover = 0; crossover < crossoverCount; crossover++) {
 
             // Stop
             if (mustStop()) { return; }
 
             // Replace
-            population.setIndividual(k - crossover - 1, getIndividual(vec));
+            population.setIndividual(k - crossover - 1, getIndividual(generalizations.get(crossover)));
         }
 
-        // Mutate individuals
+        // Replace mutated individuals
         for (int mutation = eliteCount; mutation < k - crossoverCount; mutation++) {
 
             // Mutate
-            Transformation<?> individual = getMutatedIndividual(oldPopulation.getIndividual(random.nextInt(k)));
+            Transformation<?> individual = getIndividual(generalizations.get(crossoverCount + mutation - eliteCount));
             if (individual != null) {
                 population.setIndividual(mutation, individual);
             }
@@ -17,8 +17,10 @@
 
 package org.deidentifier.arx.algorithm;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
 import java.util.PriorityQueue;
 
 import org.deidentifier.arx.framework.check.TransformationChecker;
@@ -45,6 +47,9 @@ import de.linearbits.jhpl.PredictiveProperty;
  */
 public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
 
+    /** Name of the phase */
+    private static final String PHASE = "LIGHTNING";
+
     /**
      * Creates a new instance
      * @param solutionSpace
@@ -65,6 +70,8 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
     private final PredictiveProperty propertyInsufficientUtility;
     /** The number indicating how often a depth-first-search will be performed */
     private final int                stepping;
+    /** The number of transformations expanded at once */
+    protected final int              parallelism;
     
     /**
     * Constructor
@@ -81,6 +88,7 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
         this.propertyChecked = space.getPropertyChecked();
         this.propertyExpanded = space.getPropertyExpanded();
         this.propertyInsufficientUtility = space.getPropertyInsufficientUtility();
+        this.parallelism = checker.getConfiguration().getParallelism();
         this.solutionSpace.setAnonymityPropertyPredictable(false);
     }
 
@@ -89,6 +97,7 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
 
         // Prepare
         super.startTraverse();
+        checker.setPhase(PHASE);
         PriorityQueue<Object> queue = new PriorityQueue<>(stepping, new Comparator<Object>() {
             @Override
             public int compare(Object arg0, Object arg1) {
@@ -108,6 +117,8 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
                 step++;
                 if (step % stepping == 0) {
                     dfs(queue, next);
+                } else if (parallelism > 1) {
+                    expand(queue, poll(queue, next, true), true);
                 } else {
                     expand(queue, next, true);
                 }
@@ -150,6 +161,35 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
         }
     }
     
+    /**
+    * Expands the given transformations, which have been taken from the queue in order of utility.
+    * The neighbors of all transformations are checked in parallel before they are expanded. The
+    * solution space and the global optimum are only updated by the calling thread.
+    * @param queue
+    * @param transformations
+    * @param up
+    */
+    protected void expand(PriorityQueue<Object> queue, List<Transformation<?>> transformations, boolean up) {
+        
+        // Check neighbors of all transformations
+        List<Transformation<?>> neighbors = new ArrayList<>();
+        for (Transformation<?> transformation : transformations) {
+            neighbors.addAll(getNeighbors(transformation, up));
+        }
+        for (Transformation<?> checked : checkInParallel(neighbors)) {
+            trackOptimum(checked);
+        }
+        trackProgressFromLimits();
+        
+        // Expand
+        for (Transformation<?> transformation : transformations) {
+            if (mustStop()) {
+                return;
+            }
+            expand(queue, transformation, up);
+        }
+    }
+    
     /**
     * Returns the successor with minimal information loss, if any, null otherwise.
     * @param queue
@@ -161,6 +201,15 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
         
         Transformation<?> result = null;
         TransformationList<?> list = up ? transformation.getSuccessors() : transformation.getPredecessors();
+        
+        // Check neighbors in parallel, if enabled
+        if (parallelism > 1) {
+            for (Transformation<?> checked : checkInParallel(getNeighbors(transformation, up))) {
+                trackOptimum(checked);
+            }
+            trackProgressFromLimits();
+        }
+        
         for (int i = 0; i < list.size(); i++) {
             Object id = list.getQuick(i);
             Transformation<?> successor = solutionSpace.getTransformation(id);
@@ -179,6 +228,45 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
         return result;
     }
     
+    /**
+    * Takes further transformations which cannot be pruned from the queue, in order of utility,
+    * until the given transformation and the transformations taken can be expanded in parallel.
+    * @param queue
+    * @param transformation
+    * @param up
+    * @return
+    */
+    protected List<Transformation<?>> poll(PriorityQueue<Object> queue, Transformation<?> transformation, boolean up) {
+        List<Transformation<?>> result = new ArrayList<>();
+        result.add(transformation);
+        Object nextId;
+        while (result.size() < parallelism && (nextId = queue.poll()) != null) {
+            Transformation<?> next = solutionSpace.getTransformation(nextId);
+            if (!prune(next, up)) {
+                result.add(next);
+            }
+        }
+        return result;
+    }
+    
+    /**
+    * Returns the neighbors of the given transformation which have not been expanded or pruned
+    * @param transformation
+    * @param up
+    * @return
+    */
+    private List<Transformation<?>> getNeighbors(Transformation<?> transformation, boolean up) {
+        List<Transformation<?>> result = new ArrayList<>();
+        TransformationList<?> list = up ? transformation.getSuccessors() : transformation.getPredecessors();
+        for (int i = 0; i < list.size(); i++) {
+            Transformation<?> neighbor = solutionSpace.getTransformation(list.getQuick(i));
+            if (!neighbor.hasProperty(propertyExpanded) && !neighbor.hasProperty(propertyInsufficientUtility)) {
+                result.add(neighbor);
+            }
+        }
+        return result;
+    }
+    
     /**
     * Returns whether we can prune this Transformation
     * @param transformation
@@ -31,6 +31,9 @@ import org.deidentifier.arx.framework.lattice.Transformation;
  */
 public class LIGHTNINGTopDownAlgorithm extends LIGHTNINGAlgorithm {
 
+    /** Name of the phase */
+    private static final String PHASE = "LIGHTNING top-down";
+
     /**
      * Creates a new instance
      * @param solutionSpace
@@ -59,6 +62,7 @@ public class LIGHTNINGTopDownAlgorithm extends LIGHTNINGAlgorithm {
 
         // Prepare
         super.startTraverse();
+        checker.setPhase(PHASE);
         PriorityQueue<Object> queue = new PriorityQueue<>(new Comparator<Object>() {
             @Override
             public int compare(Object arg0, Object arg1) {
@@ -74,7 +78,11 @@ public class LIGHTNINGTopDownAlgorithm extends LIGHTNINGAlgorithm {
         while ((nextId = queue.poll()) != null) {
             Transformation<?> next = solutionSpace.getTransformation(nextId);
             if (!prune(next, false)) {
-                expand(queue, next, false);
+                if (parallelism > 1) {
+                    expand(queue, poll(queue, next, false), false);
+                } else {
+                    expand(queue, next, false);
+                }
                 if (mustStop()) {
                     break;
                 }
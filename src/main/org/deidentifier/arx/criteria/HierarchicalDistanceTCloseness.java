@@ -17,6 +17,8 @@
 
 package org.deidentifier.arx.criteria;
 
+import java.util.Arrays;
+
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.AttributeType.Hierarchy;
 import org.deidentifier.arx.certificate.elements.ElementData;
@@ -32,6 +34,41 @@ import org.deidentifier.arx.framework.lattice.Transformation;
  */
 public class HierarchicalDistanceTCloseness extends TCloseness {
 
+    /**
+     * Scratch space for evaluating the EMD of one class
+     *
+     * @author Fabian Prasser
+     */
+    private static class Scratch {
+
+        /** Sum of positive extras of the touched children of each inner node, minus their extras if they were not touched */
+        private final long[]    positive;
+
+        /** Sum of negative extras of the touched children of each inner node */
+        private final long[]    negative;
+
+        /** Whether an inner node has been touched */
+        private final boolean[] touched;
+
+        /** Touched inner nodes of the current level */
+        private int[]           current;
+
+        /** Touched inner nodes of the next level */
+        private int[]           next;
+
+        /**
+         * Creates a new instance
+         * @param nodes
+         */
+        private Scratch(int nodes) {
+            this.positive = new long[nodes];
+            this.negative = new long[nodes];
+            this.touched = new boolean[nodes];
+            this.current = new int[nodes];
+            this.next = new int[nodes];
+        }
+    }
+
     /**  SVUID */
     private static final long serialVersionUID = -2142590190479670706L;
 
@@ -41,11 +78,20 @@ public class HierarchicalDistanceTCloseness extends TCloseness {
     /** Internal tree. */
     private int[]             tree;
 
-    /** Internal offset. */
-    private int               start;
+    /** Parent of each leaf, as index of an inner node, -1 if there is none. */
+    private int[]             leafParent;
 
-    /** Internal empty tree. */
-    private int[]             empty;
+    /** Parent of each inner node, -1 for the root. */
+    private int[]             nodeParent;
+
+    /** Level of each inner node. */
+    private int[]             nodeLevel;
+
+    /** Number of elements in the subtree of each inner node. */
+    private long[]            nodeElements;
+
+    /** Scratch space, one per thread. */
+    private transient ThreadLocal<Scratch> scratch;
 
     /**
      * Creates a new instance of the t-closeness criterion with hierarchical earth-movers-distance as proposed in:
@@ -79,85 +125,121 @@ public class HierarchicalDistanceTCloseness extends TCloseness {
     @Override
     public void initialize(DataManager manager, ARXConfiguration config) {
         super.initialize(manager, config);
+        
+        // Tree data format: #p_count, #leafs, height, freqLeaf_1, ...,
+        // freqLeaf_n, extra_1,..., extra_n, [#childs, level, child_1, ...
+        // child_x, pos_e, neg_e], ...
+        // Inner nodes are ordered by level.
         this.tree = manager.getTree(attribute);
-        this.start = this.tree[1] + 3;
-        this.empty = new int[this.tree[1]];
+        final int numLeafs = tree[1];
+        final int extraStartPos = numLeafs + 3;
+        final int extraEndPos = extraStartPos + numLeafs;
+        
+        // Find inner nodes
+        int nodes = 0;
+        for (int i = extraEndPos; i < tree.length; i += tree[i] + 4) {
+            nodes++;
+        }
+        int[] offsets = new int[nodes];
+        for (int i = extraEndPos, node = 0; i < tree.length; i += tree[i] + 4) {
+            offsets[node++] = i;
+        }
+        
+        // Link nodes bottom-up
+        this.leafParent = new int[numLeafs];
+        this.nodeParent = new int[nodes];
+        this.nodeLevel = new int[nodes];
+        this.nodeElements = new long[nodes];
+        Arrays.fill(this.leafParent, -1);
+        Arrays.fill(this.nodeParent, -1);
+        for (int node = 0; node < nodes; node++) {
+            final int offset = offsets[node];
+            final int numChilds = tree[offset];
+            nodeLevel[node] = tree[offset + 1];
+            for (int j = 0; j < numChilds; j++) {
+                final int child = tree[offset + 2 + j];
+                if (nodeLevel[node] == 1) {
+                    leafParent[child - extraStartPos] = node;
+                    nodeElements[node] += tree[child - numLeafs];
+                } else {
+                    final int childNode = Arrays.binarySearch(offsets, child);
+                    nodeParent[childNode] = node;
+                    nodeElements[node] += nodeElements[childNode];
+                }
+            }
+        }
+        
+        // Scratch space
+        final int size = nodes;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(size));
     }
 
     @Override
     public boolean isAnonymous(Transformation<?> node, HashGroupifyEntry entry) {
         
-        // Empty data in tree
-        System.arraycopy(empty, 0, tree, start, empty.length);
-
-        // init parameters
-        final int totalElementsP = tree[0];
-        final int numLeafs = tree[1];
+        // Init parameters
+        final Scratch scratch = this.scratch.get();
+        final long totalElementsP = tree[0];
         final double height = tree[2]; // cast to double as it is used in double
                                        // calculations
-        final int extraStartPos = numLeafs + 3;
-        final int extraEndPos = extraStartPos + numLeafs;
 
-        // Copy and count
-        int totalElementsQ = 0;
+        // Count
+        long totalElementsQ = 0;
         int[] buckets = entry.distributions[index].getBuckets();
         for (int i = 0; i < buckets.length; i += 2) {
             if (buckets[i] != -1) { // bucket not empty
-                final int value = buckets[i];
-                final int frequency = buckets[i + 1];
-                tree[value + extraStartPos] = frequency;
-                totalElementsQ += frequency;
+                totalElementsQ += buckets[i + 1];
             }
         }
-        // Tree data format: #p_count, #leafs, height, freqLeaf_1, ...,
-        // freqLeaf_n, extra_1,..., extra_n, [#childs, level, child_1, ...
-        // child_x, pos_e, neg_e], ...
-        double cost = 0;
-
-        // leafs
-        for (int i = extraStartPos; i < extraEndPos; i++) {
-            tree[i] = (tree[i - numLeafs] * totalElementsQ) -
-                      (tree[i] * totalElementsP); // p_i - q_i
-        }
-
-        // innerNodes
-        for (int i = extraEndPos; i < tree.length; i++) {
-            int pos_e = 0;
-            int neg_e = 0;
-
-            final int numChilds = tree[i++];
-            final int level = tree[i++];
-
-            // iterate over all children
-            for (int j = 0; j < numChilds; j++) {
-                // differentiate between first level and rest
-
-                int extra = 0;
-                if (level == 1) {
-                    extra = tree[tree[i + j]];
-                } else {
-                    final int extra_child_index = tree[i + j] +
-                                                  tree[tree[i + j]] + 2; // pointer to the pos_e of node
-                    final int pos_child = tree[extra_child_index];
-                    final int neg_child = tree[extra_child_index + 1];
-                    extra = pos_child - neg_child;
+        
+        // The extra of each leaf is p_i - q_i, scaled by the total number of elements. Subtrees
+        // without elements from the class have positive extras which are proportional to their
+        // frequencies in the overall dataset and do not contribute to the costs. We therefore only
+        // propagate the extras of leafs in the class upwards and adjust the extras of their parents.
+        int size = 0;
+        for (int i = 0; i < buckets.length; i += 2) {
+            if (buckets[i] != -1) { // bucket not empty
+                final int value = buckets[i];
+                final int parent = leafParent[value];
+                if (parent != -1) {
+                    final long frequencyP = tree[value + 3];
+                    final long extra = (frequencyP * totalElementsQ) - (buckets[i + 1] * totalElementsP);
+                    size = touch(scratch, parent, extra, frequencyP * totalElementsQ, size, scratch.current);
                 }
+            }
+        }
 
-                if (extra > 0) { // positive
-                    pos_e += extra;
-                } else { // negative
-                    neg_e += (-extra);
+        // Inner nodes, level by level in the order of the tree
+        double cost = 0;
+        while (size > 0) {
+            Arrays.sort(scratch.current, 0, size);
+            int nextSize = 0;
+            for (int k = 0; k < size; k++) {
+                
+                // Compute extras
+                final int inner = scratch.current[k];
+                final long pos_e = (nodeElements[inner] * totalElementsQ) + scratch.positive[inner];
+                final long neg_e = scratch.negative[inner];
+                scratch.positive[inner] = 0;
+                scratch.negative[inner] = 0;
+                scratch.touched[inner] = false;
+                
+                // Sum
+                final double cost_n = (nodeLevel[inner] / height) * Math.min(pos_e, neg_e);
+                cost += cost_n;
+                
+                // Propagate
+                final int parent = nodeParent[inner];
+                if (parent != -1) {
+                    nextSize = touch(scratch, parent, pos_e - neg_e, nodeElements[inner] * totalElementsQ, nextSize, scratch.next);
                 }
             }
-
-            // save extras
-            i += numChilds; // increment pointer to extra
-            tree[i++] = pos_e;
-            tree[i] = neg_e;
-
-            // sum
-            final double cost_n = (level / height) * Math.min(pos_e, neg_e);
-            cost += cost_n;
+            
+            // Next level
+            int[] temp = scratch.current;
+            scratch.current = scratch.next;
+            scratch.next = temp;
+            size = nextSize;
         }
 
         cost /= ((double) totalElementsP * (double) totalElementsQ);
@@ -184,4 +266,29 @@ public class HierarchicalDistanceTCloseness extends TCloseness {
 	public String toString() {
 		return t+"-closeness with hierarchical ground-distance for attribute '"+attribute+"'";
 	}
+
+    /**
+     * Adds the extra of a touched child to its parent
+     * 
+     * @param scratch
+     * @param parent
+     * @param extra The extra of the child
+     * @param untouched The extra of the child, if it had not been touched
+     * @param size Number of touched parents
+     * @param touched Touched parents
+     * @return The new number of touched parents
+     */
+    private int touch(Scratch scratch, int parent, long extra, long untouched, int size, int[] touched) {
+        if (extra > 0) { // positive
+            scratch.positive[parent] += extra;
+        } else { // negative
+            scratch.negative[parent] += (-extra);
+        }
+        scratch.positive[parent] -= untouched;
+        if (!scratch.touched[parent]) {
+            scratch.touched[parent] = true;
+            touched[size++] = parent;
+        }
+        return size;
+    }
 }
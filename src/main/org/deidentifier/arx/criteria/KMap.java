@@ -17,6 +17,9 @@
 
 package org.deidentifier.arx.criteria;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.apache.commons.math3.distribution.PoissonDistribution;
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.ARXPopulationModel;
@@ -67,6 +70,98 @@ public class KMap extends ImplicitPrivacyCriterion {
             return this.label;
         }
     }
+
+    /**
+     * Parameters determining the derived k, used as a key for caching
+     * 
+     * @author Fabian Prasser
+     */
+    private static class EstimatorParameters {
+
+        /** Estimator */
+        private final CellSizeEstimator estimator;
+
+        /** K */
+        private final int               k;
+
+        /** Significance level */
+        private final double            significanceLevel;
+
+        /** Size of the population */
+        private final long              populationSize;
+
+        /** Size of the sample */
+        private final int               sampleSize;
+
+        /**
+         * Creates a new instance
+         * @param estimator
+         * @param k
+         * @param significanceLevel
+         * @param populationSize
+         * @param sampleSize
+         */
+        private EstimatorParameters(CellSizeEstimator estimator, int k, double significanceLevel, long populationSize, int sampleSize) {
+            this.estimator = estimator;
+            this.k = k;
+            this.significanceLevel = significanceLevel;
+            this.populationSize = populationSize;
+            this.sampleSize = sampleSize;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof EstimatorParameters)) return false;
+            EstimatorParameters other = (EstimatorParameters) obj;
+            return estimator == other.estimator && k == other.k && populationSize == other.populationSize &&
+                   sampleSize == other.sampleSize &&
+                   Double.doubleToLongBits(significanceLevel) == Double.doubleToLongBits(other.significanceLevel);
+        }
+
+        @Override
+        public int hashCode() {
+            long bits = Double.doubleToLongBits(significanceLevel);
+            int result = estimator.hashCode();
+            result = 31 * result + k;
+            result = 31 * result + (int) (bits ^ (bits >>> 32));
+            result = 31 * result + (int) (populationSize ^ (populationSize >>> 32));
+            result = 31 * result + sampleSize;
+            return result;
+        }
+    }
+
+    /** Maximal number of derived parameters cached */
+    private static final int                                   CACHE_SIZE = 256;
+
+    /** Cache: parameters -> derived k and type I error. Deriving k requires evaluating many distributions. */
+    @SuppressWarnings("serial")
+    private static final Map<EstimatorParameters, double[]>    CACHE      = new LinkedHashMap<EstimatorParameters, double[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<EstimatorParameters, double[]> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /** Whether the cache is used */
+    private static volatile boolean                            cacheEnabled = true;
+
+    /**
+     * Clears the cache of derived parameters
+     */
+    static void clearCache() {
+        synchronized (CACHE) {
+            CACHE.clear();
+        }
+    }
+
+    /**
+     * Enables or disables the cache of derived parameters
+     * @param enabled
+     */
+    static void setCacheEnabled(boolean enabled) {
+        cacheEnabled = enabled;
+    }
     
     /** SVUID */
     private static final long        serialVersionUID = -6966985761538810077L;
@@ -266,20 +361,37 @@ public class KMap extends ImplicitPrivacyCriterion {
         if (this.estimator != null) {
             
             // TODO: consider subset/inclusion
-            double samplingFraction =
-                    (double)manager.getDataGeneralized().getDataLength() /
-                    (double)this.populationModel.getPopulationSize();
+            int sampleSize = manager.getDataGeneralized().getDataLength();
+            long populationSize = this.populationModel.getPopulationSize();
+            double samplingFraction = (double)sampleSize / (double)populationSize;
             
-            // Derive k
-            switch (this.estimator) {
-            case POISSON:
-                this.derivedK = calculateKPoisson(samplingFraction * (double)this.k);
-                break;
-            case ZERO_TRUNCATED_POISSON:
-                this.derivedK = calculateKZeroPoisson(samplingFraction * (double)this.k);
-                break;
-            default:
-                throw new IllegalArgumentException("Unknown estimator: " + this.estimator);
+            // Derive k, if not already done for the same parameters
+            EstimatorParameters parameters = new EstimatorParameters(this.estimator, this.k, this.significanceLevel, populationSize, sampleSize);
+            double[] cached = null;
+            if (cacheEnabled) {
+                synchronized (CACHE) {
+                    cached = CACHE.get(parameters);
+                }
+            }
+            if (cached != null) {
+                this.derivedK = (int) cached[0];
+                this.type1Error = cached[1];
+            } else {
+                switch (this.estimator) {
+                case POISSON:
+                    this.derivedK = calculateKPoisson(samplingFraction * (double)this.k);
+                    break;
+                case ZERO_TRUNCATED_POISSON:
+                    this.derivedK = calculateKZeroPoisson(samplingFraction * (double)this.k);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown estimator: " + this.estimator);
+                }
+                if (cacheEnabled) {
+                    synchronized (CACHE) {
+                        CACHE.put(parameters, new double[] { this.derivedK, this.type1Error });
+                    }
+                }
             }
         }
         
@@ -19,7 +19,6 @@ package org.deidentifier.arx.criteria;
 
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.certificate.elements.ElementData;
-import org.deidentifier.arx.common.FastIntDoubleMap;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.data.DataManager;
 import org.deidentifier.arx.framework.lattice.Transformation;
@@ -54,6 +53,9 @@ public class OrderedDistanceTCloseness extends TCloseness {
 
     /** Minimal order number that must be present */
     private int               minOrder;
+
+    /** Frequencies of the current class, indexed by value, one per thread. Only non-zero while evaluating a class. */
+    private transient ThreadLocal<double[]> frequencies;
     
     /**
      * Creates a new instance of the t-closeness criterion for ordered attributes as proposed in:
@@ -108,6 +110,10 @@ public class OrderedDistanceTCloseness extends TCloseness {
                 break;
             }
         }
+        
+        // Scratch space
+        final int size = this.distribution.length;
+        this.frequencies = ThreadLocal.withInitial(() -> new double[size]);
     }
     
     @Override
@@ -119,16 +125,54 @@ public class OrderedDistanceTCloseness extends TCloseness {
         
         // Prepare
         int currentMinOrder = Integer.MAX_VALUE;
-        FastIntDoubleMap map = new FastIntDoubleMap(buckets.length / 2);
+        double[] frequencies = this.frequencies.get();
         for (int i = 0; i < buckets.length; i += 2) {
             if (buckets[i] != -1) { // bucket not empty
                 int value = buckets[i];
-                double frequency = ((double) buckets[i + 1] / count);
-                map.put(value, frequency);
+                frequencies[value] = ((double) buckets[i + 1] / count);
                 currentMinOrder = Math.min(currentMinOrder,  orderNumber[value]);
             }
         }
         
+        // Check and reset
+        try {
+            return isAnonymous(frequencies, currentMinOrder);
+        } finally {
+            for (int i = 0; i < buckets.length; i += 2) {
+                if (buckets[i] != -1) { // bucket not empty
+                    frequencies[buckets[i]] = 0d;
+                }
+            }
+        }
+    }
+    
+    @Override
+    public boolean isLocalRecodingSupported() {
+        return true;
+    }
+
+    @Override
+    public ElementData render() {
+        ElementData result = new ElementData("t-Closeness");
+        result.addProperty("Attribute", attribute);
+        result.addProperty("Threshold (t)", this.t);
+        result.addProperty("Distance", "Ordered");
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return t+"-closeness with ordered distance for attribute '"+attribute+"'";
+    }
+
+    /**
+     * Checks the distance of the given frequencies
+     * @param frequencies
+     * @param currentMinOrder
+     * @return
+     */
+    private boolean isAnonymous(double[] frequencies, int currentMinOrder) {
+        
         // Prune
         if (currentMinOrder > this.minOrder) {
             return false;
@@ -144,7 +188,7 @@ public class OrderedDistanceTCloseness extends TCloseness {
             
             // Compute summands and distance
             int value = order[i];
-            sum_i += (map.get(value, 0d) - distribution[value]);
+            sum_i += (frequencies[value] - distribution[value]);
             distance += Math.abs(sum_i);
             
             // Early abort
@@ -156,25 +200,6 @@ public class OrderedDistanceTCloseness extends TCloseness {
         // Yes
         return true;
     }
-    
-    @Override
-    public boolean isLocalRecodingSupported() {
-        return true;
-    }
-
-    @Override
-    public ElementData render() {
-        ElementData result = new ElementData("t-Closeness");
-        result.addProperty("Attribute", attribute);
-        result.addProperty("Threshold (t)", this.t);
-        result.addProperty("Distance", "Ordered");
-        return result;
-    }
-
-    @Override
-    public String toString() {
-        return t+"-closeness with ordered distance for attribute '"+attribute+"'";
-    }
 
     /**
      * Maps values to order nums
@@ -18,6 +18,7 @@ package org.deidentifier.arx.dp;
 
 import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 
@@ -94,6 +95,9 @@ public class ExponentialMechanism<T> {
 
     /** The random generator */
     private AbstractRandomGenerator   random;
+
+    /** Buffer for probabilities, reused across samples */
+    private double[]                  probabilities = new double[0];
     
     /**
      * Constructs a new instance
@@ -115,6 +119,17 @@ public class ExponentialMechanism<T> {
         this.random = new RandomNumberGenerator(deterministic);
     }
     
+    /**
+     * Returns the exponent 0,5 * epsilon * score which is used for the given score.
+     * Callers can maintain exponents of candidates incrementally, see sample(T[], double[], int).
+     * 
+     * @param score
+     * @return
+     */
+    public double getExponent(double score) {
+        return 0.5d * epsilon * score;
+    }
+
     /**
      * Returns a random sampled value
      * @return
@@ -167,4 +182,63 @@ public class ExponentialMechanism<T> {
         // the factor exp(-shift)
         this.distribution = new EnumeratedDistribution<T>(this.random, pmf);
     }
+
+    /**
+     * Samples a value from the first size candidates given, each specified by its exponent as
+     * returned by getExponent(double). This draws from the same distribution and consumes the same
+     * random numbers as setDistribution(T[], double[]) followed by sample(), with identical
+     * floating-point arithmetic. It does not create any objects, which allows callers to maintain
+     * their candidates incrementally.
+     * 
+     * @param values
+     * @param exponents
+     * @param size
+     * @return
+     */
+    public T sample(T[] values, double[] exponents, int size) {
+        
+        // Check arguments
+        if (size == 0) {
+            throw new IllegalStateException("No values supplied");
+        }
+        if (size > values.length || size > exponents.length) {
+            throw new IllegalStateException("Number of scores and values must be identical");
+        }
+        
+        // Determine the shift, see setDistribution()
+        double shift = -Double.MAX_VALUE;
+        for (int i = 0; i < size; ++i) {
+            shift = Math.max(shift, exponents[i]);
+        }
+        
+        // Calculate the non-normalized probabilities and their sum
+        if (probabilities.length < size) {
+            probabilities = new double[Math.max(size, probabilities.length * 2)];
+        }
+        double sum = 0d;
+        for (int i = 0; i < size; ++i) {
+            double prob = Math.exp(exponents[i] - shift);
+            probabilities[i] = prob;
+            sum += prob;
+        }
+        
+        // Calculate the cumulative distribution in place, normalizing the
+        // probabilities in the same manner as EnumeratedDistribution
+        double cumulative = 0d;
+        for (int i = 0; i < size; ++i) {
+            cumulative += probabilities[i] * 1d / sum;
+            probabilities[i] = cumulative;
+        }
+        
+        // Sample in the same manner as EnumeratedDistribution
+        double value = random.nextDouble();
+        int index = Arrays.binarySearch(probabilities, 0, size, value);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        if (index < size && value < probabilities[index]) {
+            return values[index];
+        }
+        return values[size - 1];
+    }
 }
@@ -0,0 +1,264 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check;
+
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.history.HistoryStatistics;
+
+/**
+ * Statistics about the checks performed within one phase of a search algorithm. The steps of
+ * a check are timed consecutively: storing the snapshot of the previous check, looking up a
+ * snapshot in the history, transforming and grouping the data, evaluating the privacy model
+ * and evaluating the quality model. Times are measured in nanoseconds.
+ * 
+ * @author Fabian Prasser
+ */
+public class CheckStatistics {
+
+    /** Number of checks */
+    private long checks;
+
+    /** Time spent on storing snapshots */
+    private long timeSnapshot;
+
+    /** Time spent on looking up snapshots */
+    private long timeHistory;
+
+    /** Time spent on transforming and grouping data */
+    private long timeTransformation;
+
+    /** Time spent on evaluating the privacy model */
+    private long timeCriteria;
+
+    /** Time spent on evaluating the quality model */
+    private long timeMetric;
+
+    /** Total number of equivalence classes */
+    private long classes;
+
+    /** Maximal number of equivalence classes */
+    private long classesMax;
+
+    /** Number of times the groupify operator has been rehashed */
+    private long rehashes;
+
+    /** Total number of suppressed records */
+    private long suppressed;
+
+    /** Number of requests for which a snapshot was found */
+    private long historyHits;
+
+    /** Number of requests for which no snapshot was found */
+    private long historyMisses;
+
+    /** Time at which the current step started */
+    private long time;
+
+    /** Hits of the history when the current check started */
+    private long hits;
+
+    /** Misses of the history when the current check started */
+    private long misses;
+
+    /** Rehashes of the groupify operator when the current transformation started */
+    private long rehashesGroupify;
+
+    /**
+     * Adds the given statistics to this instance
+     * 
+     * @param other
+     */
+    public void add(CheckStatistics other) {
+        this.checks += other.checks;
+        this.timeSnapshot += other.timeSnapshot;
+        this.timeHistory += other.timeHistory;
+        this.timeTransformation += other.timeTransformation;
+        this.timeCriteria += other.timeCriteria;
+        this.timeMetric += other.timeMetric;
+        this.classes += other.classes;
+        this.classesMax = Math.max(this.classesMax, other.classesMax);
+        this.rehashes += other.rehashes;
+        this.suppressed += other.suppressed;
+        this.historyHits += other.historyHits;
+        this.historyMisses += other.historyMisses;
+    }
+
+    /**
+     * Returns the number of checks
+     * @return
+     */
+    public long getChecks() {
+        return checks;
+    }
+
+    /**
+     * Returns the total number of equivalence classes
+     * @return
+     */
+    public long getClasses() {
+        return classes;
+    }
+
+    /**
+     * Returns the maximal number of equivalence classes
+     * @return
+     */
+    public long getClassesMax() {
+        return classesMax;
+    }
+
+    /**
+     * Returns the number of requests for which a snapshot was found
+     * @return
+     */
+    public long getHistoryHits() {
+        return historyHits;
+    }
+
+    /**
+     * Returns the number of requests for which no snapshot was found
+     * @return
+     */
+    public long getHistoryMisses() {
+        return historyMisses;
+    }
+
+    /**
+     * Returns the number of times the groupify operator has been rehashed
+     * @return
+     */
+    public long getRehashes() {
+        return rehashes;
+    }
+
+    /**
+     * Returns the total number of suppressed records
+     * @return
+     */
+    public long getSuppressed() {
+        return suppressed;
+    }
+
+    /**
+     * Returns the time spent on evaluating the privacy model
+     * @return
+     */
+    public long getTimeCriteria() {
+        return timeCriteria;
+    }
+
+    /**
+     * Returns the time spent on looking up snapshots
+     * @return
+     */
+    public long getTimeHistory() {
+        return timeHistory;
+    }
+
+    /**
+     * Returns the time spent on evaluating the quality model
+     * @return
+     */
+    public long getTimeMetric() {
+        return timeMetric;
+    }
+
+    /**
+     * Returns the time spent on storing snapshots
+     * @return
+     */
+    public long getTimeSnapshot() {
+        return timeSnapshot;
+    }
+
+    /**
+     * Returns the time spent on transforming and grouping data
+     * @return
+     */
+    public long getTimeTransformation() {
+        return timeTransformation;
+    }
+
+    /**
+     * Returns the time elapsed since the last step and starts the next step
+     * @return
+     */
+    private long lap() {
+        long now = System.nanoTime();
+        long elapsed = now - time;
+        time = now;
+        return elapsed;
+    }
+
+    /**
+     * Tracks the start of a check
+     * @param history
+     */
+    void start(HistoryStatistics history) {
+        this.checks++;
+        this.hits = history.getHits();
+        this.misses = history.getMisses();
+        this.time = System.nanoTime();
+    }
+
+    /**
+     * Tracks the end of evaluating the privacy model
+     * @param groupify
+     */
+    void trackCriteria(HashGroupify groupify) {
+        this.timeCriteria += lap();
+        this.suppressed += groupify.getNumberOfSuppressedRecords();
+    }
+
+    /**
+     * Tracks the end of looking up a snapshot
+     * @param history
+     * @param groupify The groupify operator which will be used next
+     */
+    void trackHistory(HistoryStatistics history, HashGroupify groupify) {
+        this.timeHistory += lap();
+        this.historyHits += history.getHits() - hits;
+        this.historyMisses += history.getMisses() - misses;
+        this.rehashesGroupify = groupify.getNumberOfRehashes();
+    }
+
+    /**
+     * Tracks the end of evaluating the quality model
+     */
+    void trackMetric() {
+        this.timeMetric += lap();
+    }
+
+    /**
+     * Tracks the end of storing a snapshot
+     */
+    void trackSnapshot() {
+        this.timeSnapshot += lap();
+    }
+
+    /**
+     * Tracks the end of transforming and grouping data
+     * @param groupify
+     */
+    void trackTransformation(HashGroupify groupify) {
+        this.timeTransformation += lap();
+        this.classes += groupify.getNumberOfEquivalenceClasses();
+        this.classesMax = Math.max(this.classesMax, groupify.getNumberOfEquivalenceClasses());
+        this.rehashes += groupify.getNumberOfRehashes() - rehashesGroupify;
+    }
+}
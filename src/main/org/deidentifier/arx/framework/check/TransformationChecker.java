@@ -17,12 +17,28 @@
 
 package org.deidentifier.arx.framework.check;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.deidentifier.arx.ARXCancellationToken;
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.framework.check.TransformationCheckerStateMachine.Transition;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.history.EvictionPolicy;
 import org.deidentifier.arx.framework.check.history.History;
+import org.deidentifier.arx.framework.check.history.HistoryStatistics;
 import org.deidentifier.arx.framework.data.Data;
 import org.deidentifier.arx.framework.data.DataManager;
 import org.deidentifier.arx.framework.data.DataMatrix;
@@ -54,6 +70,9 @@ public class TransformationChecker {
         DP_SCORE
     }
 
+    /** The phase in which checks are performed, if no other phase has been set */
+    public static final String                      PHASE_DEFAULT      = "Default";
+
     /** The config. */
     private final ARXConfigurationInternal          config;
 
@@ -90,6 +109,42 @@ public class TransformationChecker {
     /** Count the number of checks performed */
     private int                                     numChecksPerformed = 0;
 
+    /** The history max size */
+    private final int                               historyMaxSize;
+
+    /** A history threshold */
+    private final double                            snapshotSizeDataset;
+
+    /** A history threshold */
+    private final double                            snapshotSizeSnapshot;
+
+    /** The maximal memory consumed by the history in bytes */
+    private final long                              historyMemoryLimit;
+
+    /** The eviction policy of the history */
+    private final EvictionPolicy                    evictionPolicy;
+
+    /** Whether the history compresses snapshots */
+    private final boolean                           historyCompression;
+
+    /** Additional checkers used for parallel checks, if any */
+    private TransformationChecker[]                 workers;
+
+    /** The executor running the additional checkers, if any */
+    private ExecutorService                         executor;
+
+    /** Statistics about checks per phase, if instrumentation is enabled */
+    private final Map<String, CheckStatistics>      statistics;
+
+    /** The current phase */
+    private String                                  phase;
+
+    /** Statistics about checks in the current phase, if instrumentation is enabled */
+    private CheckStatistics                         phaseStatistics;
+
+    /** The cancellation token, if any */
+    private ARXCancellationToken                    token;
+
     /**
      * Creates a new transformation checker.
      * 
@@ -99,6 +154,9 @@ public class TransformationChecker {
      * @param historyMaxSize The history max size
      * @param snapshotSizeDataset A history threshold
      * @param snapshotSizeSnapshot A history threshold
+     * @param historyMemoryLimit The maximal memory consumed by the history in bytes
+     * @param evictionPolicy The eviction policy of the history
+     * @param historyCompression Whether the history compresses snapshots
      * @param solutionSpace
      */
     public TransformationChecker(final DataManager manager,
@@ -107,7 +165,52 @@ public class TransformationChecker {
                                  final int historyMaxSize,
                                  final double snapshotSizeDataset,
                                  final double snapshotSizeSnapshot,
+                                 final long historyMemoryLimit,
+                                 final EvictionPolicy evictionPolicy,
+                                 final boolean historyCompression,
                                  final SolutionSpace<?> solutionSpace) {
+        this(manager,
+             metric,
+             config,
+             historyMaxSize,
+             snapshotSizeDataset,
+             snapshotSizeSnapshot,
+             historyMemoryLimit,
+             evictionPolicy,
+             historyCompression,
+             solutionSpace,
+             getInput(manager.getDataGeneralized().getArray(), config),
+             getInput(manager.getDataAnalyzed().getArray(), config));
+    }
+
+    /**
+     * Creates a new transformation checker reading from the given input buffers.
+     * 
+     * @param manager The manager
+     * @param metric The metric
+     * @param config The configuration
+     * @param historyMaxSize The history max size
+     * @param snapshotSizeDataset A history threshold
+     * @param snapshotSizeSnapshot A history threshold
+     * @param historyMemoryLimit The maximal memory consumed by the history in bytes
+     * @param evictionPolicy The eviction policy of the history
+     * @param historyCompression Whether the history compresses snapshots
+     * @param solutionSpace
+     * @param inputGeneralized
+     * @param inputAnalyzed
+     */
+    private TransformationChecker(final DataManager manager,
+                                  final Metric<?> metric,
+                                  final ARXConfigurationInternal config,
+                                  final int historyMaxSize,
+                                  final double snapshotSizeDataset,
+                                  final double snapshotSizeSnapshot,
+                                  final long historyMemoryLimit,
+                                  final EvictionPolicy evictionPolicy,
+                                  final boolean historyCompression,
+                                  final SolutionSpace<?> solutionSpace,
+                                  final DataMatrix inputGeneralized,
+                                  final DataMatrix inputAnalyzed) {
         
         // Store data
         this.metric = metric;
@@ -116,6 +219,14 @@ public class TransformationChecker {
         this.dataGeneralized = manager.getDataGeneralized();
         this.solutionSpace = solutionSpace;
         this.minimalClassSizeRequired = config.getMinimalGroupSize() != Integer.MAX_VALUE;
+        this.historyMaxSize = historyMaxSize;
+        this.snapshotSizeDataset = snapshotSizeDataset;
+        this.snapshotSizeSnapshot = snapshotSizeSnapshot;
+        this.historyMemoryLimit = historyMemoryLimit;
+        this.evictionPolicy = evictionPolicy;
+        this.historyCompression = historyCompression;
+        this.statistics = config.isInstrumentationEnabled() ? new LinkedHashMap<String, CheckStatistics>() : null;
+        this.setPhase(PHASE_DEFAULT);
         
         // Initialize all operators
         int initialSize = (int) (manager.getDataGeneralized().getDataLength() * 0.01d);
@@ -134,30 +245,34 @@ public class TransformationChecker {
                                    historyMaxSize,
                                    snapshotSizeDataset,
                                    snapshotSizeSnapshot,
+                                   historyMemoryLimit,
+                                   evictionPolicy,
+                                   historyCompression,
                                    config,
                                    dictionarySensValue,
                                    dictionarySensFreq,
                                    solutionSpace);
         
         this.stateMachine = new TransformationCheckerStateMachine(history);
-        this.transformer = new Transformer(manager.getDataGeneralized().getArray(),
-                                           manager.getDataAnalyzed().getArray(),
+        this.transformer = new Transformer(inputGeneralized,
+                                           inputAnalyzed,
                                            manager.getAggregationInformation().getHotThreshold(),
                                            manager.getHierarchies(),
                                            config,
                                            dictionarySensValue,
-                                           dictionarySensFreq);
+                                           dictionarySensFreq,
+                                           manager.getDataGeneralized().getDictionary());
         
         this.currentGroupify = new HashGroupify(initialSize, config, manager.getAggregationInformation().getHotThreshold(),
-                                                manager.getDataGeneralized().getArray(),
+                                                inputGeneralized,
                                                 transformer.getBuffer(),
-                                                manager.getDataAnalyzed().getArray(),
+                                                inputAnalyzed,
                                                 manager.getDataGeneralized().getDictionary().getSuppressedCodes());
         
         this.lastGroupify = new HashGroupify(initialSize, config, manager.getAggregationInformation().getHotThreshold(),
-                                             manager.getDataGeneralized().getArray(),
+                                             inputGeneralized,
                                              transformer.getBuffer(),
-                                             manager.getDataAnalyzed().getArray(),
+                                             inputAnalyzed,
                                              manager.getDataGeneralized().getDictionary().getSuppressedCodes());
     }
 
@@ -187,10 +302,19 @@ public class TransformationChecker {
             return (TransformationResult) node.getData();
         }
         
+        // Track, if enabled
+        final CheckStatistics statistics = this.phaseStatistics;
+        if (statistics != null) {
+            statistics.start(history.getStatistics());
+        }
+        
         // Store snapshot from last check
         if (stateMachine.getLastTransformation() != null) {
             history.store(solutionSpace.getTransformation(stateMachine.getLastTransformation()), currentGroupify, stateMachine.getLastTransition().snapshot);
         }
+        if (statistics != null) {
+            statistics.trackSnapshot();
+        }
         
         // Transition
         final Transition transition = stateMachine.transition(node.getGeneralization());
@@ -199,6 +323,9 @@ public class TransformationChecker {
         final HashGroupify temp = lastGroupify;
         lastGroupify = currentGroupify;
         currentGroupify = temp;
+        if (statistics != null) {
+            statistics.trackHistory(history.getStatistics(), currentGroupify);
+        }
         
         // Apply transition
         switch (transition.type) {
@@ -212,31 +339,33 @@ public class TransformationChecker {
             currentGroupify = transformer.applySnapshot(transition.projection, node.getGeneralization(), currentGroupify, transition.snapshot);
             break;
         }
+        if (statistics != null) {
+            statistics.trackTransformation(currentGroupify);
+        }
         
         // We are done with transforming and adding
         currentGroupify.stateAnalyze(node, forceMeasureInfoLoss);
         if (forceMeasureInfoLoss && !currentGroupify.isPrivacyModelFulfilled() && !config.isSuppressionAlwaysEnabled()) {
             currentGroupify.stateResetSuppression();
         }
+        if (statistics != null) {
+            statistics.trackCriteria(currentGroupify);
+        }
         
-        // Compute information loss and lower bound
-        InformationLoss<?> loss = null;
-        InformationLoss<?> bound = null;
-        
-        switch (scoreType) {
-        case DP_SCORE:
-            // Evaluate score function
-            loss = metric.getScore(node, currentGroupify);
-            break;
-        case INFORMATION_LOSS:
-            // Calculate conventional information loss and bound
-            InformationLossWithBound<?> result = (currentGroupify.isPrivacyModelFulfilled() || forceMeasureInfoLoss) ?
-                                                  metric.getInformationLoss(node, currentGroupify) : null;
-            loss = result != null ? result.getInformationLoss() : null;
-            bound = result != null ? result.getLowerBound() : metric.getLowerBound(node, currentGroupify);
-            break;
-        default:
-            throw new RuntimeException("The score type " + scoreType + " is not supported");
+        // Compute information loss and lower bound. Quality models are shared between
+        // parallel checkers, so models which are not thread-safe are evaluated by one thread at a time.
+        InformationLoss<?>[] quality;
+        if (metric.isThreadSafe()) {
+            quality = getQuality(node, forceMeasureInfoLoss, scoreType);
+        } else {
+            synchronized (metric) {
+                quality = getQuality(node, forceMeasureInfoLoss, scoreType);
+            }
+        }
+        InformationLoss<?> loss = quality[0];
+        InformationLoss<?> bound = quality[1];
+        if (statistics != null) {
+            statistics.trackMetric();
         }
         
         // Return result;
@@ -246,6 +375,87 @@ public class TransformationChecker {
                                       bound);
     }
     
+    /**
+     * Checks the given transformations. If parallelism has been configured, the transformations
+     * are distributed amongst this checker and additional checkers, each with its own output
+     * buffer, groupify operators and history. Results are returned in the order of the input.
+     * The caller is responsible for storing the results in the solution space, which must not
+     * be modified while this method is running. If the process is cancelled, no further
+     * transformations are checked and the results of the remaining ones are null.
+     * 
+     * @param transformations
+     * @param forceMeasureInfoLoss
+     * @param scoreType
+     * @return
+     */
+    public TransformationResult[] check(final List<Transformation<?>> transformations,
+                                        final boolean forceMeasureInfoLoss,
+                                        final ScoreType scoreType) {
+        
+        // Prepare
+        final TransformationResult[] results = new TransformationResult[transformations.size()];
+        int parallelism = Math.min(config.getParallelism(), transformations.size());
+        
+        // Check sequentially
+        if (parallelism <= 1) {
+            for (int i = 0; i < results.length && !isCancelled(); i++) {
+                results[i] = check(transformations.get(i), forceMeasureInfoLoss, scoreType);
+            }
+            return results;
+        }
+        
+        // Initialize workers
+        if (this.workers == null) {
+            this.initializeWorkers();
+        }
+        
+        // Distribute transformations
+        final AtomicInteger next = new AtomicInteger(0);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < parallelism - 1; i++) {
+            final TransformationChecker worker = this.workers[i];
+            worker.history.setStorageStrategy(this.history.getStorageStrategy());
+            worker.setPhase(this.phase);
+            worker.setCancellationToken(this.token);
+            futures.add(this.executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    worker.check(transformations, results, next, forceMeasureInfoLoss, scoreType);
+                    return null;
+                }
+            }));
+        }
+        
+        // Participate
+        RuntimeException exception = null;
+        try {
+            this.check(transformations, results, next, forceMeasureInfoLoss, scoreType);
+        } catch (RuntimeException e) {
+            next.set(results.length);
+            exception = e;
+        }
+        
+        // Wait for workers
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                exception = exception != null ? exception : new RuntimeException(e);
+            } catch (ExecutionException e) {
+                if (exception == null) {
+                    exception = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new RuntimeException(e.getCause());
+                }
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+        
+        // Done
+        return results;
+    }
+    
     /**
      * Returns an associated transformation applicator
      * @return
@@ -279,6 +489,21 @@ public class TransformationChecker {
         return history;
     }
     
+    /**
+     * Returns statistics about the usage of the histories of this checker and all additional checkers
+     * @return
+     */
+    public HistoryStatistics getHistoryStatistics() {
+        HistoryStatistics result = new HistoryStatistics();
+        result.add(this.history.getStatistics());
+        if (this.workers != null) {
+            for (TransformationChecker worker : this.workers) {
+                result.add(worker.history.getStatistics());
+            }
+        }
+        return result;
+    }
+
     /**
      * Returns the input buffer
      * @return
@@ -300,7 +525,13 @@ public class TransformationChecker {
      * @return
      */
     public int getNumChecksPerformed() {
-        return this.numChecksPerformed;
+        int result = this.numChecksPerformed;
+        if (this.workers != null) {
+            for (TransformationChecker worker : this.workers) {
+                result += worker.numChecksPerformed;
+            }
+        }
+        return result;
     }
     
     /**
@@ -311,6 +542,26 @@ public class TransformationChecker {
         return this.transformer.getBuffer();
     }
 
+    /**
+     * Returns statistics about the checks of this checker and all additional checkers per phase,
+     * in the order in which the phases have been entered. Returns null if instrumentation is
+     * disabled.
+     * @return
+     */
+    public Map<String, CheckStatistics> getStatistics() {
+        if (this.statistics == null) {
+            return null;
+        }
+        Map<String, CheckStatistics> result = new LinkedHashMap<>();
+        add(result, this.statistics);
+        if (this.workers != null) {
+            for (TransformationChecker worker : this.workers) {
+                add(result, worker.statistics);
+            }
+        }
+        return result;
+    }
+
     /**
      * Frees memory
      */
@@ -320,5 +571,158 @@ public class TransformationChecker {
         history.setSize(0);
         currentGroupify.stateClear();
         lastGroupify.stateClear();
+        transformer.shutdown();
+        if (this.workers != null) {
+            this.executor.shutdown();
+            for (TransformationChecker worker : this.workers) {
+                this.numChecksPerformed += worker.numChecksPerformed;
+                this.history.getStatistics().add(worker.history.getStatistics());
+                if (this.statistics != null) {
+                    add(this.statistics, worker.statistics);
+                }
+                worker.transformer.shutdown();
+            }
+            this.workers = null;
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Sets a token which allows to cancel checking lists of transformations
+     * @param token
+     */
+    public void setCancellationToken(ARXCancellationToken token) {
+        this.token = token;
+    }
+
+    /**
+     * Sets the phase of the search algorithm in which subsequent checks are performed
+     * @param phase
+     */
+    public void setPhase(String phase) {
+        this.phase = phase;
+        if (this.statistics != null) {
+            this.phaseStatistics = getStatistics(this.statistics, phase);
+        }
+    }
+
+    /**
+     * Adds the given statistics to the given target
+     * @param target
+     * @param statistics
+     */
+    private static void add(Map<String, CheckStatistics> target, Map<String, CheckStatistics> statistics) {
+        for (Entry<String, CheckStatistics> entry : statistics.entrySet()) {
+            getStatistics(target, entry.getKey()).add(entry.getValue());
+        }
+    }
+
+    /**
+     * Returns a private view on the given input buffer, if checks are performed in parallel
+     * @param input
+     * @param config
+     * @return
+     */
+    private static DataMatrix getInput(DataMatrix input, ARXConfigurationInternal config) {
+        return input != null && config.getParallelism() > 1 ? input.view() : input;
+    }
+
+    /**
+     * Returns the statistics about the given phase, creating it if needed
+     * @param statistics
+     * @param phase
+     * @return
+     */
+    private static CheckStatistics getStatistics(Map<String, CheckStatistics> statistics, String phase) {
+        CheckStatistics result = statistics.get(phase);
+        if (result == null) {
+            result = new CheckStatistics();
+            statistics.put(phase, result);
+        }
+        return result;
+    }
+
+    /**
+     * Checks transformations from the given list until all have been claimed or the process has been cancelled
+     * 
+     * @param transformations
+     * @param results
+     * @param next
+     * @param forceMeasureInfoLoss
+     * @param scoreType
+     */
+    private void check(List<Transformation<?>> transformations,
+                       TransformationResult[] results,
+                       AtomicInteger next,
+                       boolean forceMeasureInfoLoss,
+                       ScoreType scoreType) {
+        int index;
+        while (!isCancelled() && (index = next.getAndIncrement()) < results.length) {
+            results[index] = check(transformations.get(index), forceMeasureInfoLoss, scoreType);
+        }
+    }
+
+    /**
+     * Returns whether the process has been cancelled
+     * @return
+     */
+    private boolean isCancelled() {
+        return token != null && token.isCancelled();
+    }
+
+    /**
+     * Evaluates the quality of the current groupify operator. Returns information loss and lower bound.
+     * 
+     * @param node
+     * @param forceMeasureInfoLoss
+     * @param scoreType
+     * @return
+     */
+    private InformationLoss<?>[] getQuality(Transformation<?> node,
+                                            boolean forceMeasureInfoLoss,
+                                            ScoreType scoreType) {
+        switch (scoreType) {
+        case DP_SCORE:
+            // Evaluate score function
+            return new InformationLoss<?>[] { metric.getScore(node, currentGroupify), null };
+        case INFORMATION_LOSS:
+            // Calculate conventional information loss and bound
+            InformationLossWithBound<?> result = (currentGroupify.isPrivacyModelFulfilled() || forceMeasureInfoLoss) ?
+                                                  metric.getInformationLoss(node, currentGroupify) : null;
+            return new InformationLoss<?>[] { result != null ? result.getInformationLoss() : null,
+                                              result != null ? result.getLowerBound() : metric.getLowerBound(node, currentGroupify) };
+        default:
+            throw new RuntimeException("The score type " + scoreType + " is not supported");
+        }
+    }
+
+    /**
+     * Creates the additional checkers and the executor running them
+     */
+    private void initializeWorkers() {
+        final int size = config.getParallelism() - 1;
+        this.workers = new TransformationChecker[size];
+        for (int i = 0; i < size; i++) {
+            this.workers[i] = new TransformationChecker(manager,
+                                                        metric,
+                                                        config,
+                                                        historyMaxSize,
+                                                        snapshotSizeDataset,
+                                                        snapshotSizeSnapshot,
+                                                        historyMemoryLimit,
+                                                        evictionPolicy,
+                                                        historyCompression,
+                                                        solutionSpace,
+                                                        getInput(manager.getDataGeneralized().getArray(), config),
+                                                        getInput(manager.getDataAnalyzed().getArray(), config));
+        }
+        this.executor = Executors.newFixedThreadPool(size, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "ARX-Checker");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
     }
 }
\ No newline at end of file
@@ -18,6 +18,7 @@
 package org.deidentifier.arx.framework.check;
 
 import org.deidentifier.arx.framework.check.history.History;
+import org.deidentifier.arx.framework.check.history.Snapshot;
 
 /**
  * This class implements a state machine, which determines which optimizations
@@ -41,7 +42,7 @@ public class TransformationCheckerStateMachine {
         public long           projection;
 
         /** Snapshot, if available. */
-        public int[]          snapshot;
+        public Snapshot       snapshot;
 
         /** The actual type of the transition. */
         public TransitionType type;
@@ -75,7 +76,7 @@ public class TransformationCheckerStateMachine {
     private Transition lastTransition;
 
     /** The current snapshot, if any. */
-    private int[]      snapshot = null;
+    private Snapshot   snapshot = null;
 
     /** The node for the current snapshot. */
     private int[]      snapshotTransformation;
@@ -17,11 +17,23 @@
 
 package org.deidentifier.arx.framework.check;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
+import org.deidentifier.arx.Data.StorageType;
 import org.deidentifier.arx.framework.check.TransformationCheckerStateMachine.TransitionType;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.groupify.HashGroupifyArray;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
+import org.deidentifier.arx.framework.check.groupify.HashGroupifyTarget;
+import org.deidentifier.arx.framework.check.history.Snapshot;
 import org.deidentifier.arx.framework.check.transformer.AbstractTransformer;
 import org.deidentifier.arx.framework.check.transformer.Transformer01;
 import org.deidentifier.arx.framework.check.transformer.Transformer02;
@@ -40,6 +52,8 @@ import org.deidentifier.arx.framework.check.transformer.Transformer14;
 import org.deidentifier.arx.framework.check.transformer.Transformer15;
 import org.deidentifier.arx.framework.check.transformer.TransformerAll;
 import org.deidentifier.arx.framework.data.DataMatrix;
+import org.deidentifier.arx.framework.data.DataMatrixPacked;
+import org.deidentifier.arx.framework.data.Dictionary;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 
 /**
@@ -50,6 +64,9 @@ import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
  */
 public class Transformer {
 
+    /** Minimal number of rows per partition */
+    private static final int                  PARTITION_MIN_SIZE = 1000;
+
     /** The config. */
     protected final ARXConfigurationInternal  config;
 
@@ -80,6 +97,21 @@ public class Transformer {
     /** Number of columns to analyze */
     protected final int                       dataAnalyzedNumberOfColumns;
 
+    /** Number of partitions that are transformed in parallel */
+    private final int                         partitions;
+
+    /** The instances for each partition, if any */
+    private AbstractTransformer[][]           partitionInstances;
+
+    /** The local groupify operators for each partition, if any */
+    private HashGroupifyArray[]               partitionGroupifies;
+
+    /** The buffers for each partition, if any */
+    private DataMatrix[]                      partitionBuffers;
+
+    /** The executor transforming partitions, if any */
+    private ExecutorService                   executor;
+
     /**
      * Instantiates a new transformer.
      *
@@ -90,6 +122,7 @@ public class Transformer {
      * @param config
      * @param dictionarySensValue
      * @param dictionarySensFreq
+     * @param dictionary
      */
     public Transformer(final DataMatrix inputGeneralized,
                        final DataMatrix inputAnalyzed,
@@ -97,22 +130,22 @@ public class Transformer {
                        final GeneralizationHierarchy[] hierarchies,
                        final ARXConfigurationInternal config,
                        final IntArrayDictionary dictionarySensValue,
-                       final IntArrayDictionary dictionarySensFreq) {
+                       final IntArrayDictionary dictionarySensFreq,
+                       final Dictionary dictionary) {
 
         this.config = config;
         this.inputGeneralized = inputGeneralized;
         this.dataAnalyzedNumberOfColumns = dataAnalyzedNumberOfColumns;
         this.hierarchies = hierarchies;
-        this.instances = new AbstractTransformer[16];
-        this.outputGeneralized = new DataMatrix(inputGeneralized.getNumRows(), 
-                                                inputGeneralized.getNumColumns());
+        this.outputGeneralized = createBuffer(inputGeneralized, dictionary, config);
 
         this.dimensions = inputGeneralized.getNumColumns();
         this.dictionarySensValue = dictionarySensValue;
         this.dictionarySensFreq = dictionarySensFreq;
         this.inputAnalyzed = inputAnalyzed;
+        this.partitions = Math.min(config.getGroupifyParallelism(), inputGeneralized.getNumRows() / PARTITION_MIN_SIZE);
 
-        buildTransformers();
+        this.instances = buildTransformers(inputGeneralized, inputAnalyzed);
     }
 
     /**
@@ -145,6 +178,7 @@ public class Transformer {
         this.dimensions = inputGeneralized.getNumColumns();
         this.dictionarySensValue = null;
         this.dictionarySensFreq = null;
+        this.partitions = 1;
 
         // Build just one applicator
         this.instances = new AbstractTransformer[1];
@@ -211,7 +245,7 @@ public class Transformer {
     public HashGroupify applySnapshot(final long projection,
                                        final int[] state,
                                        final HashGroupify target,
-                                       final int[] snapshot) {
+                                       final Snapshot snapshot) {
         
         return applyInternal(projection,
                              state,
@@ -230,10 +264,108 @@ public class Transformer {
         return outputGeneralized;
     }
 
+    /**
+     * Stops all threads used for transforming partitions, if any
+     */
+    public void shutdown() {
+        if (this.executor != null) {
+            this.executor.shutdown();
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Transforms the whole dataset by transforming partitions of the rows into local groupify
+     * operators in parallel and merging them into the target afterwards.
+     * 
+     * @param projection the projection
+     * @param state the state
+     * @param target the target
+     * @return the hash groupify
+     */
+    private HashGroupify applyPartitioned(final long projection,
+                                          final int[] state,
+                                          final HashGroupify target) {
+        
+        // Initialize
+        if (this.partitionInstances == null) {
+            this.initializePartitions();
+        }
+        if (this.executor == null) {
+            this.initializeExecutor();
+        }
+        
+        // Transform and group partitions
+        final int rows = inputGeneralized.getNumRows();
+        final int index = getTransformerIndex(projection);
+        List<Future<HashGroupifyTarget>> futures = new ArrayList<>();
+        for (int partition = 0; partition < partitions; partition++) {
+            
+            // Prepare
+            AbstractTransformer transformer = this.partitionInstances[partition][index];
+            transformer.init(projection,
+                             state,
+                             this.partitionGroupifies[partition],
+                             null,
+                             null,
+                             TransitionType.UNOPTIMIZED,
+                             (int) ((long) rows * partition / partitions),
+                             (int) ((long) rows * (partition + 1) / partitions),
+                             null,
+                             this.partitionBuffers[partition]);
+            
+            // Execute
+            if (partition == 0) {
+                continue;
+            }
+            futures.add(this.executor.submit(transformer));
+        }
+        
+        // Participate
+        RuntimeException exception = null;
+        try {
+            this.partitionInstances[0][index].call();
+        } catch (RuntimeException e) {
+            exception = e;
+        }
+        
+        // Merge in the order of rows
+        target.stateClear();
+        if (exception == null) {
+            target.addFromPartition(this.partitionGroupifies[0]);
+        }
+        for (int partition = 1; partition < partitions; partition++) {
+            try {
+                futures.get(partition - 1).get();
+                if (exception == null) {
+                    target.addFromPartition(this.partitionGroupifies[partition]);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                exception = exception != null ? exception : new RuntimeException(e);
+            } catch (ExecutionException e) {
+                if (exception == null) {
+                    exception = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new RuntimeException(e.getCause());
+                }
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+        
+        // Done
+        return target;
+    }
+
     /**
      * Builds the applicators.
+     * 
+     * @param inputGeneralized
+     * @param inputAnalyzed
+     * @return
      */
-    private void buildTransformers() {
+    private AbstractTransformer[] buildTransformers(final DataMatrix inputGeneralized, final DataMatrix inputAnalyzed) {
+        AbstractTransformer[] instances = new AbstractTransformer[16];
         instances[15] = new Transformer15(inputGeneralized,
                                           hierarchies,
                                           inputAnalyzed,
@@ -346,6 +478,85 @@ public class Transformer {
                                           dictionarySensValue,
                                           dictionarySensFreq,
                                           config);
+        return instances;
+    }
+
+    /**
+     * Creates the output buffer. If enabled, rows are bit-packed based on the
+     * cardinalities of the domains in the dictionary.
+     * 
+     * @param inputGeneralized
+     * @param dictionary
+     * @param config
+     * @return
+     */
+    private DataMatrix createBuffer(final DataMatrix inputGeneralized,
+                                    final Dictionary dictionary,
+                                    final ARXConfigurationInternal config) {
+
+        // Bit-packed
+        if (config.isBitPackingEnabled() && inputGeneralized.getStorageType() == StorageType.HEAP) {
+            int[] cardinalities = new int[inputGeneralized.getNumColumns()];
+            for (int column = 0; column < cardinalities.length; column++) {
+                cardinalities[column] = dictionary.getMapping()[column].length;
+            }
+            if (DataMatrixPacked.isSupported(inputGeneralized.getNumRows(), cardinalities)) {
+                return new DataMatrixPacked(inputGeneralized.getNumRows(), cardinalities);
+            }
+        }
+
+        // Default
+        return new DataMatrix(inputGeneralized.getNumRows(),
+                              inputGeneralized.getNumColumns(),
+                              inputGeneralized.getStorageType());
+    }
+
+    /**
+     * Returns the index of the applicator for the given projection
+     * 
+     * @param projection the projection
+     * @return the index
+     */
+    private int getTransformerIndex(final long projection) {
+        final int index = dimensions - Long.bitCount(projection);
+        return index > (instances.length - 1) ? 0 : index;
+    }
+
+    /**
+     * Creates applicators, buffers and local groupify operators for all partitions. Each
+     * partition reads and writes through private views, as matrices maintain a row state.
+     */
+    private void initializePartitions() {
+        
+        int capacity = (int) (inputGeneralized.getNumRows() * 0.01d / partitions);
+        this.partitionInstances = new AbstractTransformer[partitions][];
+        this.partitionGroupifies = new HashGroupifyArray[partitions];
+        this.partitionBuffers = new DataMatrix[partitions];
+        for (int partition = 0; partition < partitions; partition++) {
+            DataMatrix generalized = partition == 0 ? inputGeneralized : inputGeneralized.view();
+            DataMatrix analyzed = partition == 0 || inputAnalyzed == null ? inputAnalyzed : inputAnalyzed.view();
+            this.partitionBuffers[partition] = partition == 0 ? outputGeneralized : outputGeneralized.view();
+            this.partitionInstances[partition] = partition == 0 ? instances : buildTransformers(generalized, analyzed);
+            this.partitionGroupifies[partition] = new HashGroupifyArray(capacity,
+                                                                        config,
+                                                                        dataAnalyzedNumberOfColumns,
+                                                                        this.partitionBuffers[partition],
+                                                                        analyzed);
+        }
+    }
+
+    /**
+     * Creates the executor transforming partitions
+     */
+    private void initializeExecutor() {
+        this.executor = Executors.newFixedThreadPool(partitions - 1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "ARX-Transformer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
     }
 
     /**
@@ -363,9 +574,14 @@ public class Transformer {
                                           final int[] state,
                                           final HashGroupify source,
                                           final HashGroupify target,
-                                          final int[] snapshot,
+                                          final Snapshot snapshot,
                                           final TransitionType transition) {
 
+        // Transform partitions in parallel
+        if (transition == TransitionType.UNOPTIMIZED && partitions > 1) {
+            return applyPartitioned(projection, state, target);
+        }
+
         int startIndex = 0;
         int stopIndex = 0;
 
@@ -383,7 +599,7 @@ public class Transformer {
             break;
         case SNAPSHOT:
             startIndex = 0;
-            stopIndex = snapshot.length / config.getSnapshotLength();
+            stopIndex = snapshot.getNumberOfEquivalenceClasses();
             break;
         }
 
@@ -402,7 +618,8 @@ public class Transformer {
                  element,
                  outputGeneralized);
 
-        return transformer.call();
+        transformer.call();
+        return target;
     }
 
     /**
@@ -412,11 +629,6 @@ public class Transformer {
      * @return the applicator
      */
     protected AbstractTransformer getTransformer(final long projection) {
-        final int index = dimensions - Long.bitCount(projection);
-        if (index > (instances.length - 1)) {
-            return instances[0];
-        } else {
-            return instances[index];
-        }
+        return instances[getTransformerIndex(projection)];
     }
 }
@@ -41,7 +41,7 @@ import com.carrotsearch.hppc.ObjectIntOpenHashMap;
  * @author Fabian Prasser
  * @author Florian Kohlmayer
  */
-public class HashGroupify {
+public class HashGroupify implements HashGroupifyTarget {
 
     /** Criteria. */
     private final PrivacyCriterion[]     classBasedCriteria;
@@ -67,6 +67,9 @@ public class HashGroupify {
     /** Maximum number of elements that can be put in this map before having to rehash. */
     private int                          hashTableThreshold;
 
+    /** Number of times the hash table has been rehashed. */
+    private long                         hashTableRehashes;
+
     /** Do we ensure optimality for sample-based criteria */
     private final boolean                heuristicForSampleBasedCriteria;
 
@@ -183,6 +186,7 @@ public class HashGroupify {
      * @param count
      * @param pcount
      */
+    @Override
     public void addFromBuffer(int generalized, int other, int representative, int count, int pcount) {
         
         // Add
@@ -220,6 +224,7 @@ public class HashGroupify {
      * @param count
      * @param pcount
      */
+    @Override
     public void addFromGroupify(int generalized, Distribution[] distributions, int representative, int count, int pcount) {
 
         // Add
@@ -240,6 +245,38 @@ public class HashGroupify {
         }
     }
     
+    /**
+     * Adds all classes from a groupify operator which has been built from a partition of the
+     * rows of the same output buffer. Classes are added in the order in which they have been
+     * created. Adding partitions in the order of their rows thus yields the same classes,
+     * representatives and ordering as a single pass over all rows.
+     * @param partition
+     */
+    public void addFromPartition(HashGroupifyArray partition) {
+        
+        for (int index = 0; index < partition.getNumberOfEquivalenceClasses(); index++) {
+            
+            // Add
+            final HashGroupifyEntry entry = addInternal(partition.getRow(index),
+                                                        partition.getHashCode(index),
+                                                        partition.getRepresentative(index),
+                                                        partition.getCount(index),
+                                                        partition.getPCount(index));
+            
+            // Is a distribution provided
+            Distribution[] distributions = partition.getDistributions(index);
+            if (distributions != null) {
+                if (entry.distributions == null) {
+                    entry.distributions = distributions;
+                } else {
+                    for (int i = 0; i < entry.distributions.length; i++) {
+                        entry.distributions[i].merge(distributions[i]);
+                    }
+                }
+            }
+        }
+    }
+    
     /**
      * Adds a class from a snapshot
      * @param generalized
@@ -249,6 +286,7 @@ public class HashGroupify {
      * @param count
      * @param pcount
      */
+    @Override
     public void addFromSnapshot(int generalized, int[][] elements, int[][] frequencies, int representative, int count, int pcount) {
 
         // Add
@@ -313,6 +351,22 @@ public class HashGroupify {
     public int getNumberOfEquivalenceClasses() {
         return hashTableElementCount;
     }
+
+    /**
+     * Returns the number of times the hash table has been rehashed since this operator was created
+     * @return
+     */
+    public long getNumberOfRehashes() {
+        return hashTableRehashes;
+    }
+
+    /**
+     * Returns the number of records suppressed in the current state
+     * @return
+     */
+    public int getNumberOfSuppressedRecords() {
+        return currentNumOutliers;
+    }
     
     /**
      * Returns the output data
@@ -373,7 +427,7 @@ public class HashGroupify {
         int[] columns = microaggregationData.getMicroaggregationColumns();
         
         // Prepare result
-        Data result = Data.createWrapper(new DataMatrix(dataOutput.getNumRows(), indices.length), header, columns, dictionary);
+        Data result = Data.createWrapper(new DataMatrix(dataOutput.getNumRows(), indices.length, dataOutput.getStorageType()), header, columns, dictionary);
 
         // TODO: To improve performance, microaggregation and marking of outliers could be performed in one pass
         ObjectIntOpenHashMap<Distribution> cache = new ObjectIntOpenHashMap<Distribution>();
@@ -450,6 +504,7 @@ public class HashGroupify {
     /**
      * Clears all entries
      */
+    @Override
     public void stateClear() {
         if (hashTableElementCount > 0) {
             this.hashTableElementCount = 0;
@@ -778,5 +833,6 @@ public class HashGroupify {
         }
         hashTableBuckets = newData;
         hashTableThreshold = HashTableUtil.calculateThreshold(hashTableBuckets.length, hashTableLoadFactor);
+        hashTableRehashes++;
     }
 }
@@ -0,0 +1,339 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.groupify;
+
+import java.util.Arrays;
+
+import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
+import org.deidentifier.arx.RowSet;
+import org.deidentifier.arx.framework.check.distribution.Distribution;
+import org.deidentifier.arx.framework.data.DataMatrix;
+
+/**
+ * A groupify operator which does not create objects per equivalence class. Classes are stored
+ * in parallel arrays in the order in which they have been created and are indexed by a hash
+ * table with open addressing and linear probing. All arrays are reused after calling
+ * stateClear(). This operator only supports adding classes and does not evaluate privacy models.
+ * It is used for grouping partitions of a dataset, which are merged into a HashGroupify afterwards.
+ *
+ * @author Fabian Prasser
+ */
+public class HashGroupifyArray implements HashGroupifyTarget {
+
+    /** Load factor. */
+    private static final float LOAD_FACTOR = 0.5f;
+
+    /** Output */
+    private final DataMatrix   dataOutput;
+
+    /** Output */
+    private final DataMatrix   dataAnalyzed;
+
+    /** Number of columns (from index 0) that need to be analyzed in hot-mode */
+    private final int          dataAnalyzedNumberOfColumns;
+
+    /** The research subset, if d-presence is contained in the set of criteria. */
+    private final RowSet       privacyModelDefinesSubset;
+
+    /** The hash table, storing the index of a class + 1 or 0 for empty slots */
+    private int[]              table;
+
+    /** Maximum number of classes that can be stored before having to rehash. */
+    private int                threshold;
+
+    /** Current number of classes */
+    private int                size;
+
+    /** Key row of each class */
+    private int[]              rows;
+
+    /** Hash code of each class */
+    private int[]              hashcodes;
+
+    /** Count of each class */
+    private int[]              counts;
+
+    /** Count of each class, including elements from the public table */
+    private int[]              pcounts;
+
+    /** Representative of each class */
+    private int[]              representatives;
+
+    /** Distributions of each class, if any */
+    private Distribution[][]   distributions;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param capacity The capacity
+     * @param config The config
+     * @param dataAnalyzedNumberOfColumns
+     * @param output
+     * @param analyzed
+     */
+    public HashGroupifyArray(int capacity,
+                             ARXConfigurationInternal config,
+                             int dataAnalyzedNumberOfColumns,
+                             DataMatrix output,
+                             DataMatrix analyzed) {
+
+        // Store
+        this.dataOutput = output;
+        this.dataAnalyzed = analyzed;
+        this.dataAnalyzedNumberOfColumns = dataAnalyzedNumberOfColumns;
+        this.privacyModelDefinesSubset = config.getSubset() != null ? config.getSubset().getSet() : null;
+
+        // Allocate
+        this.allocate(HashTableUtil.calculateCapacity(capacity));
+    }
+
+    @Override
+    public void addFromBuffer(int generalized, int other, int representative, int count, int pcount) {
+
+        // Add
+        final int index = addInternal(generalized, dataOutput.hashCode(generalized), representative, count, pcount);
+
+        // Is a other attribute provided
+        if (other != -1) {
+            if (distributions[index] == null) {
+                distributions[index] = new Distribution[dataAnalyzedNumberOfColumns];
+                for (int i = 0; i < dataAnalyzedNumberOfColumns; i++) {
+                    distributions[index][i] = new Distribution();
+                }
+            }
+
+            // Only add other value if in research subset
+            if (privacyModelDefinesSubset == null || privacyModelDefinesSubset.contains(representative)) {
+                dataAnalyzed.iterator(other);
+                for (int i = 0; i < dataAnalyzedNumberOfColumns; i++) {
+                    distributions[index][i].add(dataAnalyzed.iterator_next());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void addFromGroupify(int generalized, Distribution[] distributions, int representative, int count, int pcount) {
+
+        // Add
+        final int index = addInternal(generalized, dataOutput.hashCode(generalized), representative, count, pcount);
+
+        // Is a distribution provided
+        if (distributions != null) {
+            if (this.distributions[index] == null) {
+                this.distributions[index] = distributions;
+            } else {
+                for (int i = 0; i < distributions.length; i++) {
+                    this.distributions[index][i].merge(distributions[i]);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void addFromSnapshot(int generalized, int[][] elements, int[][] frequencies, int representative, int count, int pcount) {
+
+        // Add
+        final int index = addInternal(generalized, dataOutput.hashCode(generalized), representative, count, pcount);
+
+        // Is a distribution provided
+        if (elements != null) {
+            if (distributions[index] == null) {
+                distributions[index] = new Distribution[elements.length];
+                for (int i = 0; i < elements.length; i++) {
+                    distributions[index][i] = new Distribution(elements[i], frequencies[i]);
+                }
+            } else {
+                for (int i = 0; i < elements.length; i++) {
+                    distributions[index][i].merge(elements[i], frequencies[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of classes
+     * @return
+     */
+    public int getNumberOfEquivalenceClasses() {
+        return size;
+    }
+
+    @Override
+    public void stateClear() {
+        if (size > 0) {
+            Arrays.fill(table, 0);
+            Arrays.fill(distributions, 0, size, null);
+            size = 0;
+        }
+    }
+
+    /**
+     * Returns the count of the given class
+     * @param index
+     * @return
+     */
+    int getCount(int index) {
+        return counts[index];
+    }
+
+    /**
+     * Returns the distributions of the given class, if any
+     * @param index
+     * @return
+     */
+    Distribution[] getDistributions(int index) {
+        return distributions[index];
+    }
+
+    /**
+     * Returns the hash code of the given class
+     * @param index
+     * @return
+     */
+    int getHashCode(int index) {
+        return hashcodes[index];
+    }
+
+    /**
+     * Returns the count of the given class, including elements from the public table
+     * @param index
+     * @return
+     */
+    int getPCount(int index) {
+        return pcounts[index];
+    }
+
+    /**
+     * Returns the representative of the given class
+     * @param index
+     * @return
+     */
+    int getRepresentative(int index) {
+        return representatives[index];
+    }
+
+    /**
+     * Returns the key row of the given class
+     * @param index
+     * @return
+     */
+    int getRow(int index) {
+        return rows[index];
+    }
+
+    /**
+     * Internal adder method. Mirrors the semantics of the according method in HashGroupify.
+     *
+     * @param generalized the key
+     * @param hash the hash
+     * @param representative
+     * @param count
+     * @param pcount
+     * @return the index of the class
+     */
+    private int addInternal(final int generalized, final int hash, final int representative, int count, final int pcount) {
+
+        // Find or create class
+        int mask = table.length - 1;
+        int slot = spread(hash) & mask;
+        int index = table[slot] - 1;
+        while (index != -1 && (hashcodes[index] != hash || !dataOutput.equals(generalized, rows[index]))) {
+            slot = (slot + 1) & mask;
+            index = table[slot] - 1;
+        }
+        if (index == -1) {
+            if (size == threshold) {
+                rehash();
+                mask = table.length - 1;
+                slot = spread(hash) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+            }
+            index = size++;
+            table[slot] = index + 1;
+            rows[index] = generalized;
+            hashcodes[index] = hash;
+            counts[index] = 0;
+            pcounts[index] = 0;
+            representatives[index] = representative;
+        }
+
+        // If we enforce d-presence and the tuple is not contained in the research subset: set its count to zero
+        count = (privacyModelDefinesSubset != null && !privacyModelDefinesSubset.contains(representative)) ? 0 : count;
+        counts[index] += count;
+
+        // Track size of tuples from public table and choose the smallest representative from the subset
+        if (privacyModelDefinesSubset != null) {
+            pcounts[index] += pcount;
+            representatives[index] = (count > 0 && (counts[index] == count || representatives[index] < representative)) ? representative : representatives[index];
+        }
+
+        // Return
+        return index;
+    }
+
+    /**
+     * Allocates arrays for the given capacity
+     * @param capacity
+     */
+    private void allocate(int capacity) {
+        this.table = new int[capacity];
+        this.threshold = HashTableUtil.calculateThreshold(capacity, LOAD_FACTOR);
+        this.rows = new int[threshold];
+        this.hashcodes = new int[threshold];
+        this.counts = new int[threshold];
+        this.pcounts = new int[threshold];
+        this.representatives = new int[threshold];
+        this.distributions = new Distribution[threshold][];
+    }
+
+    /**
+     * Doubles the capacity, keeping all classes
+     */
+    private void rehash() {
+        int capacity = HashTableUtil.calculateCapacity(table.length << 1);
+        this.table = new int[capacity];
+        this.threshold = HashTableUtil.calculateThreshold(capacity, LOAD_FACTOR);
+        this.rows = Arrays.copyOf(rows, threshold);
+        this.hashcodes = Arrays.copyOf(hashcodes, threshold);
+        this.counts = Arrays.copyOf(counts, threshold);
+        this.pcounts = Arrays.copyOf(pcounts, threshold);
+        this.representatives = Arrays.copyOf(representatives, threshold);
+        this.distributions = Arrays.copyOf(distributions, threshold);
+        int mask = capacity - 1;
+        for (int index = 0; index < size; index++) {
+            int slot = spread(hashcodes[index]) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = index + 1;
+        }
+    }
+
+    /**
+     * Spreads the bits of the hash code, as linear probing is sensitive to clustering
+     * @param hash
+     * @return
+     */
+    private int spread(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -161,12 +161,12 @@ public class HashGroupifyDistribution {
                     InformationLossWithBound<?> loss1 = cache.get(o1);
                     InformationLossWithBound<?> loss2 = cache.get(o2);
                     if (loss1 == null) {
-                        loss1 = metric.getInformationLoss(transformation, o1); 
+                        loss1 = getInformationLoss(metric, transformation, o1);
                         cache.put(o1, loss1);
                     }
                     
                     if (loss2 == null) {
-                        loss2 = metric.getInformationLoss(transformation, o2); 
+                        loss2 = getInformationLoss(metric, transformation, o2);
                         cache.put(o2, loss2);
                     }
                     
@@ -308,6 +308,25 @@ public class HashGroupifyDistribution {
         this.distribution.putOrAdd(size, 1, 1);   
     }
 
+    /**
+     * Returns the information loss of the given entry. Quality models are shared between
+     * parallel checkers, so models which are not thread-safe are evaluated by one thread at a time.
+     * @param metric
+     * @param transformation
+     * @param entry
+     * @return
+     */
+    private InformationLossWithBound<?> getInformationLoss(Metric<?> metric,
+                                                           Transformation<?> transformation,
+                                                           HashGroupifyEntry entry) {
+        if (metric.isThreadSafe()) {
+            return metric.getInformationLoss(transformation, entry);
+        }
+        synchronized (metric) {
+            return metric.getInformationLoss(transformation, entry);
+        }
+    }
+
     /**
      * Removes an entry
      * @param size
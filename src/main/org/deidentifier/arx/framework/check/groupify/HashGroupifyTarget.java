@@ -0,0 +1,64 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.groupify;
+
+import org.deidentifier.arx.framework.check.distribution.Distribution;
+
+/**
+ * A groupify operator to which equivalence classes can be added by the transformers
+ *
+ * @author Fabian Prasser
+ */
+public interface HashGroupifyTarget {
+
+    /**
+     * Adds a tuple from the buffer
+     * @param generalized
+     * @param other
+     * @param representative
+     * @param count
+     * @param pcount
+     */
+    public void addFromBuffer(int generalized, int other, int representative, int count, int pcount);
+
+    /**
+     * Adds an entry from another groupify operator
+     * @param generalized
+     * @param distributions
+     * @param representative
+     * @param count
+     * @param pcount
+     */
+    public void addFromGroupify(int generalized, Distribution[] distributions, int representative, int count, int pcount);
+
+    /**
+     * Adds a class from a snapshot
+     * @param generalized
+     * @param elements
+     * @param frequencies
+     * @param representative
+     * @param count
+     * @param pcount
+     */
+    public void addFromSnapshot(int generalized, int[][] elements, int[][] frequencies, int representative, int count, int pcount);
+
+    /**
+     * Clears all entries
+     */
+    public void stateClear();
+}
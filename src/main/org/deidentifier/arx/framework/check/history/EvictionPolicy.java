@@ -0,0 +1,64 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.history;
+
+/**
+ * A policy selecting the snapshot to evict from the history
+ * 
+ * @author Fabian Prasser
+ */
+public abstract class EvictionPolicy {
+
+    /**
+     * Evicts the snapshot with the largest size relative to the costs of rebuilding it,
+     * which are estimated by its level in the lattice
+     * 
+     * @return
+     */
+    public static EvictionPolicy createCostAwarePolicy() {
+        return new EvictionPolicyCostAware();
+    }
+
+    /**
+     * Evicts the snapshot of the most specific transformation, keeping snapshots of the
+     * most general ancestors of transformations which are yet to be checked
+     * 
+     * @return
+     */
+    public static EvictionPolicy createGeneralAncestorsPolicy() {
+        return new EvictionPolicyGeneralAncestors();
+    }
+
+    /**
+     * Evicts the least recently used snapshot
+     * 
+     * @return
+     */
+    public static EvictionPolicy createLRUPolicy() {
+        return new EvictionPolicyLRU();
+    }
+
+    /**
+     * Returns the snapshot to evict from the given non-empty cache. Entries are
+     * ordered from least recently used to most recently used.
+     * 
+     * @param cache
+     * @return
+     */
+    public abstract MRUCacheEntryMetadata getVictim(MRUCache<MRUCacheEntryMetadata> cache);
+}
@@ -0,0 +1,44 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.history;
+
+/**
+ * Evicts the snapshot with the largest ratio between its size and the costs of rebuilding
+ * it. Snapshots at higher levels of the lattice require more generalization steps and are
+ * thus considered more expensive to rebuild. Ties are resolved in least recently used order.
+ * 
+ * @author Fabian Prasser
+ */
+class EvictionPolicyCostAware extends EvictionPolicy {
+
+    @Override
+    public MRUCacheEntryMetadata getVictim(MRUCache<MRUCacheEntryMetadata> cache) {
+        MRUCacheEntryMetadata result = null;
+        double max = -1d;
+        MRUCacheEntry<MRUCacheEntryMetadata> entry = cache.getHead();
+        while (entry != null) {
+            double ratio = (double) entry.data.size / (double) (entry.data.level + 1);
+            if (ratio > max) {
+                max = ratio;
+                result = entry.data;
+            }
+            entry = entry.next;
+        }
+        return result;
+    }
+}
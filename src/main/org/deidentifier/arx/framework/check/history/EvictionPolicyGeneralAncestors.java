@@ -0,0 +1,41 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.history;
+
+/**
+ * Evicts the snapshot at the lowest level of the lattice. This keeps snapshots of the most
+ * general transformations, which are the closest ancestors of the transformations that are
+ * checked next during a bottom-up traversal. Ties are resolved in least recently used order.
+ * 
+ * @author Fabian Prasser
+ */
+class EvictionPolicyGeneralAncestors extends EvictionPolicy {
+
+    @Override
+    public MRUCacheEntryMetadata getVictim(MRUCache<MRUCacheEntryMetadata> cache) {
+        MRUCacheEntryMetadata result = null;
+        MRUCacheEntry<MRUCacheEntryMetadata> entry = cache.getHead();
+        while (entry != null) {
+            if (result == null || entry.data.level < result.level) {
+                result = entry.data;
+            }
+            entry = entry.next;
+        }
+        return result;
+    }
+}
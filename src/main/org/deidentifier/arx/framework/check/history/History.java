@@ -30,6 +30,8 @@ import org.deidentifier.arx.framework.lattice.DependentAction;
 import org.deidentifier.arx.framework.lattice.SolutionSpace;
 import org.deidentifier.arx.framework.lattice.Transformation;
 
+import com.carrotsearch.hppc.IntIntOpenHashMap;
+
 /**
  * The Class History.
  * 
@@ -60,7 +62,13 @@ public class History {
     private final IntArrayDictionary        dictionarySensValue;
 
     /** A map from nodes to snapshots. */
-    private HashMap<Object, int[]>          nodeToSnapshot                = null;
+    private HashMap<Object, Snapshot>       nodeToSnapshot                = null;
+
+    /** Whether snapshots are compressed. */
+    private final boolean                   compressed;
+
+    /** The smallest ratio between the memory consumed by compressed and uncompressed snapshots observed. */
+    private double                          compressionRatio              = 0d;
 
     /** The current requirements. */
     private final int                       requirements;
@@ -71,6 +79,18 @@ public class History {
     /** Maximal number of entries. */
     private int                             size;
 
+    /** Maximal memory consumed by snapshots in bytes. */
+    private final long                      memoryLimit;
+
+    /** Memory currently consumed by snapshots in bytes. */
+    private long                            memory;
+
+    /** The eviction policy. */
+    private final EvictionPolicy            policy;
+
+    /** Statistics. */
+    private final HistoryStatistics         statistics                    = new HistoryStatistics();
+
     /** The snapshotSizeDataset for the size of entries. */
     private final long                      snapshotSizeDataset;
 
@@ -96,9 +116,12 @@ public class History {
         }
     };
 
-    /** The current storage strategy. */
+    /** Decides whether the snapshot of a transformation is stored, implements the storage strategy. */
     private DependentAction                      storageTrigger;
 
+    /** Which transformations are stored: all or only non-anonymous ones. */
+    private StorageStrategy                      storageStrategy;
+
     /**
      * Creates a new history.
      *
@@ -106,6 +129,9 @@ public class History {
      * @param size the max size
      * @param snapshotSizeDataset the snapshotSizeDataset
      * @param snapshotSizeSnapshot
+     * @param memoryLimit the maximal memory consumed by snapshots in bytes
+     * @param policy the eviction policy
+     * @param compressed whether snapshots should be compressed
      * @param config
      * @param dictionarySensValue
      * @param dictionarySensFreq
@@ -115,6 +141,9 @@ public class History {
                    final int size,
                    final double snapshotSizeDataset,
                    final double snapshotSizeSnapshot,
+                   final long memoryLimit,
+                   final EvictionPolicy policy,
+                   final boolean compressed,
                    final ARXConfigurationInternal config,
                    final IntArrayDictionary dictionarySensValue,
                    final IntArrayDictionary dictionarySensFreq,
@@ -123,26 +152,30 @@ public class History {
         this.snapshotSizeDataset = (long) (rowCount * snapshotSizeDataset);
         this.snapshotSizeSnapshot = snapshotSizeSnapshot;
         this.cache = new MRUCache<MRUCacheEntryMetadata>(size);
-        this.nodeToSnapshot = new HashMap<Object, int[]>(size);
+        this.nodeToSnapshot = new HashMap<Object, Snapshot>(size);
+        this.compressed = compressed;
         this.size = size;
+        this.memoryLimit = memoryLimit;
+        this.policy = policy;
         this.dictionarySensFreq = dictionarySensFreq;
         this.dictionarySensValue = dictionarySensValue;
         this.config = config;
         this.requirements = config.getRequirements();
         this.storageTrigger = STORAGE_TRIGGER_NON_ANONYMOUS;
+        this.storageStrategy = StorageStrategy.NON_ANONYMOUS;
         this.solutionSpace = solutionSpace;
     }
     
     /**
-     * Retrieves a snapshot.
+     * Retrieves a snapshot. Compressed snapshots are not decompressed but must be decoded by the caller.
      * 
      * @param transformation
      * @return snapshot
      */
-    public int[] get(final int[] transformation) {
+    public Snapshot get(final int[] transformation) {
 
         // Init
-        int[] resultSnapshot = null;
+        Snapshot resultSnapshot = null;
         MRUCacheEntryMetadata resultMetadata = null;
         int level = solutionSpace.getLevel(transformation);
 
@@ -151,11 +184,9 @@ public class History {
         while (entry != null) {
             MRUCacheEntryMetadata currentMetadata = entry.data;
             if (currentMetadata.level < level) {
-                final int[] currentSnapshot = nodeToSnapshot.get(currentMetadata.id);
-                if ((resultMetadata == null) || (currentSnapshot.length < resultSnapshot.length)) {
+                if ((resultMetadata == null) || (currentMetadata.length < resultMetadata.length)) {
                     if (solutionSpace.isParentChildOrEqual(transformation, currentMetadata.transformation)) {
                         resultMetadata = currentMetadata;
-                        resultSnapshot = currentSnapshot;
                     }
                 }
             }
@@ -165,7 +196,9 @@ public class History {
         // Manager
         if (resultMetadata != null) {
             cache.touch(resultMetadata);
+            resultSnapshot = nodeToSnapshot.get(resultMetadata.id);
         }
+        statistics.requested(resultMetadata != null);
         this.resultMetadata = resultMetadata;
 
         // Return
@@ -191,7 +224,35 @@ public class History {
     }
 
     /**
-     * Returns the current storage strategy.
+     * Returns the memory currently consumed by snapshots in bytes.
+     *
+     * @return
+     */
+    public long getMemory() {
+        return memory;
+    }
+
+    /**
+     * Returns statistics about the usage of this history.
+     *
+     * @return
+     */
+    public HistoryStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Returns which transformations snapshots are stored for. Used to configure
+     * the histories of parallel checkers like this one.
+     *
+     * @return
+     */
+    public StorageStrategy getStorageStrategy() {
+        return storageStrategy;
+    }
+
+    /**
+     * Returns the action which decides whether the snapshot of a given transformation is stored.
      *
      * @return
      */
@@ -221,6 +282,7 @@ public class History {
         this.dictionarySensFreq.clear();
         this.dictionarySensValue.clear();
         this.resultMetadata = null;
+        this.memory = 0;
     }
 
     /**
@@ -239,8 +301,10 @@ public class History {
     public void setStorageStrategy(StorageStrategy strategy) {
         if (strategy == StorageStrategy.ALL) {
             this.storageTrigger = STORAGE_TRIGGER_ALL;
+            this.storageStrategy = strategy;
         } else if (strategy == StorageStrategy.NON_ANONYMOUS) {
             this.storageTrigger = STORAGE_TRIGGER_NON_ANONYMOUS;
+            this.storageStrategy = strategy;
         }
     }
     
@@ -252,16 +316,17 @@ public class History {
      * @param snapshot The snapshot that was previously used, if any
      * @return
      */
-    public boolean store(final Transformation<?> transformation, final HashGroupify groupify, final int[] snapshot) {
+    public boolean store(final Transformation<?> transformation, final HashGroupify groupify, final Snapshot snapshot) {
 
         // Early abort if too large, or no space
-        if (size == 0 || groupify.getNumberOfEquivalenceClasses() > snapshotSizeDataset) {
+        if (size == 0 || groupify.getNumberOfEquivalenceClasses() > snapshotSizeDataset ||
+            getEstimatedMemory(groupify.getNumberOfEquivalenceClasses() * config.getSnapshotLength()) > memoryLimit) {
             return false;
         }
 
         // Early abort if too large
         if (snapshot != null) {
-            final double relativeSize = (groupify.getNumberOfEquivalenceClasses() / ((double) snapshot.length / config.getSnapshotLength()));
+            final double relativeSize = (groupify.getNumberOfEquivalenceClasses() / ((double) snapshot.getNumberOfEquivalenceClasses()));
             if (relativeSize > snapshotSizeSnapshot) { return false; }
         }
         
@@ -273,18 +338,39 @@ public class History {
         
         // Clear the cache
         cleanUpHistory();
-
-        // Perform LRU eviction, if still too large
-        if (cache.size() >= size) {
-            removeHistoryEntry(cache.removeHead());
-        }
         
         // Create the snapshot
         final int[] data = createSnapshot(groupify);
+        final Snapshot result;
+        if (compressed) {
+            final int[] offsets = new int[config.getSnapshotLength()];
+            final byte[] compressedData = SnapshotCompression.compress(data, config.getSnapshotLength(), offsets);
+            result = new Snapshot(compressedData, offsets, data.length, config.getSnapshotLength(), getReferences(data));
+            compressionRatio = Math.min(compressionRatio == 0d ? 1d : compressionRatio, (double) result.getMemory() / getMemory(data.length));
+        } else {
+            result = new Snapshot(data, config.getSnapshotLength());
+        }
+        final long required = result.getMemory();
+        
+        // Early abort if too large
+        if (required > memoryLimit) {
+            releaseSnapshot(data);
+            return false;
+        }
+
+        // Perform eviction, if still too large
+        while (cache.size() >= size || memory + required > memoryLimit) {
+            final MRUCacheEntryMetadata victim = policy.getVictim(cache);
+            cache.remove(victim);
+            removeHistoryEntry(victim);
+            statistics.evicted();
+        }
 
         // Assign snapshot and keep reference for cache
-        nodeToSnapshot.put(transformation.getIdentifier(), data);
-        cache.append(new MRUCacheEntryMetadata(transformation));
+        nodeToSnapshot.put(transformation.getIdentifier(), result);
+        cache.append(new MRUCacheEntryMetadata(transformation, data.length, required));
+        memory += required;
+        statistics.stored(memory);
 
         // Success
         return true;
@@ -358,31 +444,154 @@ public class History {
     }
 
     /**
-     * Removes a snapshot.
+     * Returns an estimate of the memory which will be consumed by a snapshot with the given length in bytes.
+     * For compressed snapshots, the estimate is based on the best compression observed, but at least one
+     * byte per equivalence class is required.
      *
-     * @param metadata
+     * @param length
+     * @return
      */
-    private final void removeHistoryEntry(final MRUCacheEntryMetadata metadata) {
-        final int[] snapshot = nodeToSnapshot.remove(metadata.id);
+    private final long getEstimatedMemory(int length) {
+        if (!compressed) {
+            return getMemory(length);
+        }
+        long minimum = 16L + length / config.getSnapshotLength();
+        return Math.max(minimum, (long) (getMemory(length) * compressionRatio));
+    }
 
+    /**
+     * Returns the memory consumed by a snapshot with the given length in bytes. Distributions
+     * are stored in shared dictionaries and are not taken into account.
+     *
+     * @param length
+     * @return
+     */
+    private final long getMemory(int length) {
+        return 16L + 4L * length;
+    }
+
+    /**
+     * Returns the offset of the first reference into the dictionaries of distributions within
+     * an entry of a snapshot. Returns -1 if there are no distributions.
+     *
+     * @return
+     */
+    private final int getReferenceOffset() {
         switch (requirements) {
         case ARXConfiguration.REQUIREMENT_COUNTER | ARXConfiguration.REQUIREMENT_SECONDARY_COUNTER | ARXConfiguration.REQUIREMENT_DISTRIBUTION:
-            for (int i = 0; i < snapshot.length; i += config.getSnapshotLength()) {
-                for (int j = i + 3; j < i + config.getSnapshotLength() - 1; j += 2) {
-                    dictionarySensValue.decrementRefCount(snapshot[j]);
-                    dictionarySensFreq.decrementRefCount(snapshot[j+1]);
-                }
-            }
-            break;
+            return 3;
         // TODO: If we only need a distribution, we should get rid of the primary counter
         case ARXConfiguration.REQUIREMENT_COUNTER | ARXConfiguration.REQUIREMENT_DISTRIBUTION:
         case ARXConfiguration.REQUIREMENT_DISTRIBUTION:
-            for (int i = 0; i < snapshot.length; i += config.getSnapshotLength()) {
-                for (int j = i + 2; j < i + config.getSnapshotLength() - 1; j += 2) {
-                    dictionarySensValue.decrementRefCount(snapshot[j]);
-                    dictionarySensFreq.decrementRefCount(snapshot[j+1]);
-                }
+            return 2;
+        default:
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the references of a snapshot into the dictionaries of distributions, as pairs of ids
+     * and counts, so that they can be released without decompressing the snapshot. Returns null
+     * if there are no distributions.
+     *
+     * @param snapshot
+     * @return
+     */
+    private final int[][] getReferences(final int[] snapshot) {
+
+        int offset = getReferenceOffset();
+        if (offset == -1) {
+            return null;
+        }
+        IntIntOpenHashMap values = new IntIntOpenHashMap();
+        IntIntOpenHashMap frequencies = new IntIntOpenHashMap();
+        for (int i = 0; i < snapshot.length; i += config.getSnapshotLength()) {
+            for (int j = i + offset; j < i + config.getSnapshotLength() - 1; j += 2) {
+                values.putOrAdd(snapshot[j], 1, 1);
+                frequencies.putOrAdd(snapshot[j + 1], 1, 1);
             }
         }
+        return new int[][] { getReferences(values), getReferences(frequencies) };
+    }
+
+    /**
+     * Returns the given counts as pairs of ids and counts.
+     *
+     * @param counts
+     * @return
+     */
+    private final int[] getReferences(final IntIntOpenHashMap counts) {
+        int[] result = new int[counts.size() * 2];
+        int index = 0;
+        for (int i = 0; i < counts.allocated.length; i++) {
+            if (counts.allocated[i]) {
+                result[index++] = counts.keys[i];
+                result[index++] = counts.values[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Releases the references of a snapshot into the dictionaries of distributions.
+     *
+     * @param snapshot
+     */
+    private final void releaseSnapshot(final int[] snapshot) {
+
+        int offset = getReferenceOffset();
+        if (offset == -1) {
+            return;
+        }
+        for (int i = 0; i < snapshot.length; i += config.getSnapshotLength()) {
+            for (int j = i + offset; j < i + config.getSnapshotLength() - 1; j += 2) {
+                dictionarySensValue.decrementRefCount(snapshot[j]);
+                dictionarySensFreq.decrementRefCount(snapshot[j+1]);
+            }
+        }
+    }
+
+    /**
+     * Releases the references of a snapshot into the dictionaries of distributions.
+     *
+     * @param snapshot
+     */
+    private final void releaseSnapshot(final Snapshot snapshot) {
+        if (!snapshot.isCompressed()) {
+            releaseSnapshot(snapshot.getArray());
+            return;
+        }
+        int[][] references = snapshot.getReferences();
+        if (references != null) {
+            release(dictionarySensValue, references[0]);
+            release(dictionarySensFreq, references[1]);
+        }
+    }
+
+    /**
+     * Releases the given references, as pairs of ids and counts, into the given dictionary.
+     *
+     * @param dictionary
+     * @param references
+     */
+    private final void release(final IntArrayDictionary dictionary, final int[] references) {
+        for (int i = 0; i < references.length; i += 2) {
+            for (int j = 0; j < references[i + 1]; j++) {
+                dictionary.decrementRefCount(references[i]);
+            }
+        }
+    }
+
+    /**
+     * Removes a snapshot.
+     *
+     * @param metadata
+     */
+    private final void removeHistoryEntry(final MRUCacheEntryMetadata metadata) {
+        Snapshot snapshot = nodeToSnapshot.remove(metadata.id);
+        if ((requirements & ARXConfiguration.REQUIREMENT_DISTRIBUTION) != 0) {
+            releaseSnapshot(snapshot);
+        }
+        memory -= metadata.size;
     }
 }
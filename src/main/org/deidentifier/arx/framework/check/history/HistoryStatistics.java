@@ -0,0 +1,123 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.history;
+
+/**
+ * Statistics about the usage of the history
+ * 
+ * @author Fabian Prasser
+ */
+public class HistoryStatistics {
+
+    /** Number of requests for which a snapshot was found */
+    private long hits;
+
+    /** Number of requests for which no snapshot was found */
+    private long misses;
+
+    /** Number of snapshots evicted by the policy */
+    private long evictions;
+
+    /** Number of snapshots stored */
+    private long stored;
+
+    /** Maximal memory consumed by snapshots in bytes */
+    private long peakMemory;
+
+    /**
+     * Adds the given statistics to this instance. Memory consumption is summed up, as the
+     * histories of different checkers exist in parallel.
+     * 
+     * @param other
+     */
+    public void add(HistoryStatistics other) {
+        this.hits += other.hits;
+        this.misses += other.misses;
+        this.evictions += other.evictions;
+        this.stored += other.stored;
+        this.peakMemory += other.peakMemory;
+    }
+
+    /**
+     * Returns the number of snapshots evicted by the policy
+     * @return
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the number of requests for which a snapshot was found
+     * @return
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of requests for which no snapshot was found
+     * @return
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the maximal memory consumed by snapshots in bytes
+     * @return
+     */
+    public long getPeakMemory() {
+        return peakMemory;
+    }
+
+    /**
+     * Returns the number of snapshots stored
+     * @return
+     */
+    public long getStored() {
+        return stored;
+    }
+
+    /**
+     * Tracks an eviction
+     */
+    void evicted() {
+        this.evictions++;
+    }
+
+    /**
+     * Tracks a request
+     * @param hit
+     */
+    void requested(boolean hit) {
+        if (hit) {
+            this.hits++;
+        } else {
+            this.misses++;
+        }
+    }
+
+    /**
+     * Tracks storing a snapshot
+     * @param memory The memory currently consumed
+     */
+    void stored(long memory) {
+        this.stored++;
+        this.peakMemory = Math.max(this.peakMemory, memory);
+    }
+}
@@ -31,14 +31,22 @@ public class MRUCacheEntryMetadata {
     public final int   level;
     /** Id */
     public final Object  id;
+    /** Length of the snapshot */
+    public final int     length;
+    /** Size in bytes */
+    public final long    size;
 
     /**
      * Creates a new instance
      * @param transformation
+     * @param length
+     * @param size
      */
-    public MRUCacheEntryMetadata(Transformation<?> transformation) {
+    public MRUCacheEntryMetadata(Transformation<?> transformation, int length, long size) {
         this.transformation = transformation.getGeneralization().clone();
         this.level = transformation.getLevel();
         this.id = transformation.getIdentifier();
+        this.length = length;
+        this.size = size;
     }
 }
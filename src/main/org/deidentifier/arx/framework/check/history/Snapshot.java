@@ -0,0 +1,150 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.history;
+
+/**
+ * A snapshot stored in the history. Uncompressed snapshots are accessed as an array,
+ * compressed snapshots are decoded as a stream.
+ * 
+ * @author Fabian Prasser
+ */
+public final class Snapshot {
+
+    /** The uncompressed snapshot, if not compressed */
+    private final int[]  array;
+
+    /** The compressed snapshot, if compressed */
+    private final byte[] data;
+
+    /** Offsets of the columns in the compressed snapshot */
+    private final int[]  offsets;
+
+    /** Length of the uncompressed snapshot */
+    private final int    length;
+
+    /** The number of ints per equivalence class */
+    private final int    width;
+
+    /** References into the dictionaries of distributions, as pairs of ids and counts, if compressed */
+    private final int[][] references;
+
+    /**
+     * Creates an uncompressed snapshot
+     * 
+     * @param array
+     * @param width
+     */
+    Snapshot(int[] array, int width) {
+        this.array = array;
+        this.data = null;
+        this.offsets = null;
+        this.length = array.length;
+        this.width = width;
+        this.references = null;
+    }
+
+    /**
+     * Creates a compressed snapshot
+     * 
+     * @param data
+     * @param offsets
+     * @param length
+     * @param width
+     * @param references
+     */
+    Snapshot(byte[] data, int[] offsets, int length, int width, int[][] references) {
+        this.array = null;
+        this.data = data;
+        this.offsets = offsets;
+        this.length = length;
+        this.width = width;
+        this.references = references;
+    }
+
+    /**
+     * Returns the uncompressed snapshot. Null if the snapshot is compressed.
+     * 
+     * @return
+     */
+    public int[] getArray() {
+        return array;
+    }
+
+    /**
+     * Returns a new decoder for the compressed snapshot. Null if the snapshot is not compressed.
+     * 
+     * @return
+     */
+    public SnapshotDecoder getDecoder() {
+        return data == null ? null : new SnapshotDecoder(data, offsets, length, width);
+    }
+
+    /**
+     * Returns the length of the uncompressed snapshot
+     * 
+     * @return
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Returns the number of equivalence classes
+     * 
+     * @return
+     */
+    public int getNumberOfEquivalenceClasses() {
+        return length / width;
+    }
+
+    /**
+     * Returns whether the snapshot is compressed
+     * 
+     * @return
+     */
+    public boolean isCompressed() {
+        return data != null;
+    }
+
+    /**
+     * Returns the memory consumed by the snapshot in bytes. Distributions are stored
+     * in shared dictionaries and are not taken into account.
+     * 
+     * @return
+     */
+    long getMemory() {
+        if (data == null) {
+            return 16L + 4L * array.length;
+        }
+        long memory = 16L + data.length + 16L + 4L * offsets.length;
+        if (references != null) {
+            memory += 16L + (16L + 4L * references[0].length) + (16L + 4L * references[1].length);
+        }
+        return memory;
+    }
+
+    /**
+     * Returns references into the dictionaries of distributions of a compressed snapshot,
+     * as pairs of ids and counts. Null if not available.
+     * 
+     * @return
+     */
+    int[][] getReferences() {
+        return references;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.history;
+
+import java.util.Arrays;
+
+/**
+ * Compressed representation of snapshots. Snapshots are encoded column by column.
+ * Representatives are delta-encoded, as they are mostly increasing. All other columns
+ * (counts, secondary counts and references into dictionaries) are run-length encoded.
+ * All values are stored as zig-zag encoded variable-length integers. The offsets of the
+ * columns are recorded, so that snapshots can be decoded as a stream by SnapshotDecoder.
+ * 
+ * @author Fabian Prasser
+ */
+final class SnapshotCompression {
+
+    /**
+     * Compresses the given snapshot
+     * 
+     * @param snapshot
+     * @param width The number of ints per equivalence class
+     * @param offsets Output parameter for the offsets of the columns, of length width
+     * @return
+     */
+    static byte[] compress(int[] snapshot, int width, int[] offsets) {
+        return new SnapshotCompression(snapshot.length).encode(snapshot, width, offsets);
+    }
+
+    /** Buffer */
+    private byte[] buffer;
+
+    /** Position in the buffer */
+    private int    position;
+
+    /**
+     * Creates a new instance for encoding
+     * @param length
+     */
+    private SnapshotCompression(int length) {
+        this.buffer = new byte[Math.max(16, length)];
+        this.position = 0;
+    }
+
+    /**
+     * Encodes a snapshot
+     * @param snapshot
+     * @param width
+     * @param offsets
+     * @return
+     */
+    private byte[] encode(int[] snapshot, int width, int[] offsets) {
+        
+        // Representatives
+        offsets[0] = position;
+        int previous = 0;
+        for (int i = 0; i < snapshot.length; i += width) {
+            write(snapshot[i] - previous);
+            previous = snapshot[i];
+        }
+        
+        // Other columns
+        for (int column = 1; column < width; column++) {
+            offsets[column] = position;
+            int i = column;
+            while (i < snapshot.length) {
+                int value = snapshot[i];
+                int run = 0;
+                while (i < snapshot.length && snapshot[i] == value) {
+                    run++;
+                    i += width;
+                }
+                write(value);
+                write(run);
+            }
+        }
+        return Arrays.copyOf(buffer, position);
+    }
+
+    /**
+     * Writes a zig-zag encoded variable-length integer
+     * @param value
+     */
+    private void write(int value) {
+        if (position + 5 > buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        value = (value << 1) ^ (value >> 31);
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.history;
+
+/**
+ * Decodes a compressed snapshot as a stream of equivalence classes, so that
+ * the snapshot does not need to be decompressed as a whole.
+ * 
+ * @author Fabian Prasser
+ */
+public final class SnapshotDecoder {
+
+    /** Data */
+    private final byte[] data;
+
+    /** The number of ints per equivalence class */
+    private final int    width;
+
+    /** Column -> Position in the data */
+    private final int[]  positions;
+
+    /** Column -> Value of the current run */
+    private final int[]  values;
+
+    /** Column -> Remaining length of the current run */
+    private final int[]  runs;
+
+    /** The last representative */
+    private int          representative;
+
+    /** The number of equivalence classes which have not been decoded */
+    private int          remaining;
+
+    /**
+     * Creates a new instance
+     * 
+     * @param data
+     * @param offsets
+     * @param length The length of the uncompressed snapshot
+     * @param width The number of ints per equivalence class
+     */
+    SnapshotDecoder(byte[] data, int[] offsets, int length, int width) {
+        this.data = data;
+        this.width = width;
+        this.positions = offsets.clone();
+        this.values = new int[width];
+        this.runs = new int[width];
+        this.representative = 0;
+        this.remaining = length / width;
+    }
+
+    /**
+     * Decodes the next equivalence classes into the given buffer, in the layout of
+     * uncompressed snapshots. Returns the number of equivalence classes decoded,
+     * which is 0 if the snapshot has been decoded completely.
+     * 
+     * @param buffer
+     * @return
+     */
+    public int decode(int[] buffer) {
+        int classes = Math.min(remaining, buffer.length / width);
+        for (int i = 0; i < classes * width; i += width) {
+            representative += read(0);
+            buffer[i] = representative;
+            for (int column = 1; column < width; column++) {
+                if (runs[column] == 0) {
+                    values[column] = read(column);
+                    runs[column] = read(column);
+                }
+                buffer[i + column] = values[column];
+                runs[column]--;
+            }
+        }
+        remaining -= classes;
+        return classes;
+    }
+
+    /**
+     * Reads the next zig-zag encoded variable-length integer of the given column
+     * 
+     * @param column
+     * @return
+     */
+    private int read(int column) {
+        int position = positions[column];
+        int value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = data[position++];
+            value |= (current & 0x7F) << shift;
+            shift += 7;
+        } while (current < 0);
+        positions[column] = position;
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -24,7 +24,10 @@ import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.framework.check.TransformationCheckerStateMachine.TransitionType;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.groupify.HashGroupifyTarget;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
+import org.deidentifier.arx.framework.check.history.Snapshot;
+import org.deidentifier.arx.framework.check.history.SnapshotDecoder;
 import org.deidentifier.arx.framework.data.DataMatrix;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 
@@ -34,7 +37,10 @@ import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
  * @author Fabian Prasser
  * @author Florian Kohlmayer
  */
-public abstract class AbstractTransformer implements Callable<HashGroupify> {
+public abstract class AbstractTransformer implements Callable<HashGroupifyTarget> {
+
+    /** The number of equivalence classes of compressed snapshots which are decoded at once. */
+    private static final int BLOCK_SIZE = 1024;
 
     /**
      * Implementation of the delegate for Requirements.COUNTER
@@ -215,7 +221,7 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
     }
 
     /** The hash groupify. */
-    private HashGroupify                      groupify;
+    private HashGroupifyTarget                groupify;
 
     /** The buffer. */
     protected DataMatrix                      buffer;
@@ -259,9 +265,15 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
     protected final DataMatrix                dataAnalyzed;
     /** Analyzed number of columns. */
     protected final int                       dataAnalyzedNumberOfColumns;
-    /** The snapshot. */
+    /** The snapshot, or the current block of a compressed snapshot. */
     protected int[]                           snapshot;
 
+    /** The snapshot which is processed. */
+    private Snapshot                          snapshotInput;
+
+    /** Buffer for blocks of compressed snapshots. */
+    private int[]                             snapshotBlock;
+
     /** The size of one snapshopt entry *. */
     protected final int                       ssStepWidth;
 
@@ -344,7 +356,7 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
     }
 
     @Override
-    public HashGroupify call() {
+    public HashGroupifyTarget call() {
         
         // Clear local groupify
         groupify.stateClear();
@@ -358,7 +370,11 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
             processGroupify();
             break;
         case SNAPSHOT:
-            processSnapshot();
+            if (!snapshotInput.isCompressed()) {
+                processSnapshot();
+            } else {
+                processCompressedSnapshot();
+            }
             break;
 
         default:
@@ -383,9 +399,9 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
      */
     public void init(final long projection,
                      final int[] state,
-                     final HashGroupify groupify,
+                     final HashGroupifyTarget groupify,
                      final HashGroupify source,
-                     final int[] snapshot,
+                     final Snapshot snapshot,
                      final TransitionType transition,
                      final int startIndex,
                      final int stopIndex,
@@ -400,7 +416,8 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
         this.generalization = state;
         this.transition = transition;
         this.groupify = groupify;
-        this.snapshot = snapshot;
+        this.snapshotInput = snapshot;
+        this.snapshot = snapshot == null ? null : snapshot.getArray();
 
         // Calculate mapping
         int index = 0;
@@ -479,4 +496,21 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
      * Process snapshot.
      */
     protected abstract void processSnapshot();
+
+    /**
+     * Decodes a compressed snapshot block by block and processes each block as a snapshot.
+     */
+    private void processCompressedSnapshot() {
+        if (snapshotBlock == null) {
+            snapshotBlock = new int[BLOCK_SIZE * ssStepWidth];
+        }
+        SnapshotDecoder decoder = snapshotInput.getDecoder();
+        int classes;
+        while ((classes = decoder.decode(snapshotBlock)) > 0) {
+            this.snapshot = snapshotBlock;
+            this.startIndex = 0;
+            this.stopIndex = classes;
+            processSnapshot();
+        }
+    }
 }
@@ -58,11 +58,11 @@ public class Data implements Cloneable, Serializable {
         
         // Empty object
         if (columns.length == 0) {
-            return new Data(null, new String[0], new int[0], new Dictionary(0));
+            return new Data(null, null, new String[0], new int[0], new Dictionary(0));
         }
 
         // Clone matrix
-        DataMatrix matrix = new DataMatrix(data.getNumRows(), columns.length);
+        DataMatrix matrix = new DataMatrix(data.getNumRows(), columns.length, data.getStorageType());
         for (int row = 0; row < data.getNumRows(); row++) {
             
             // Prepare row
@@ -83,7 +83,7 @@ public class Data implements Cloneable, Serializable {
         }
 
         // Return
-        return new Data(matrix, newHeader, columns, new Dictionary(dictionary, columns));
+        return new Data(matrix, data, newHeader, columns, new Dictionary(dictionary, columns));
     }
 
     /**
@@ -100,12 +100,15 @@ public class Data implements Cloneable, Serializable {
                                      final Dictionary dictionary) {
         
         // Return
-        return new Data(data, header, columns, dictionary);
+        return new Data(data, null, header, columns, dictionary);
     }
 
     /** Row, Dimension. */
     private final DataMatrix           data;
 
+    /** The data from which this object has been projected, if any. */
+    private final transient DataMatrix source;
+
     /** The header. */
     private final String[]             header;
 
@@ -122,16 +125,19 @@ public class Data implements Cloneable, Serializable {
      * Creates a new data object.
      * 
      * @param data The int array
+     * @param source The data from which the int array has been projected, if any
      * @param header The header
      * @param columns The map
      * @param dictionary The dictionary
      */
     private Data(final DataMatrix data,
+                 final DataMatrix source,
                  final String[] header,
                  final int[] columns,
                  final Dictionary dictionary) {
         
         this.data = data;
+        this.source = source;
         this.header = header;
         this.dictionary = dictionary;
         this.columns = columns;
@@ -143,7 +149,7 @@ public class Data implements Cloneable, Serializable {
 
     @Override
     public Data clone(){
-        return new Data(data != null ? data.clone() : null, header, columns, dictionary);
+        return new Data(data != null ? data.clone() : null, source, header, columns, dictionary);
     }
 
     /**
@@ -155,6 +161,16 @@ public class Data implements Cloneable, Serializable {
         return data;
     }
 
+    /**
+     * Returns the data from which this object has been projected, if any. The columns
+     * of this object are the columns returned by getColumns() of the source.
+     *
+     * @return
+     */
+    public DataMatrix getSource() {
+        return source;
+    }
+
     /**
      * Returns the set of columns from the input data set stored in this object.
      *
@@ -213,7 +229,7 @@ public class Data implements Cloneable, Serializable {
                 rows[index++] = row;
             }
         }
-        return new Data(new DataMatrixSubset(data, rows), header, columns, dictionary);
+        return new Data(new DataMatrixSubset(data, rows), null, header, columns, dictionary);
     }
 
     /**
@@ -17,8 +17,13 @@
 
 package org.deidentifier.arx.framework.data;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 
+import org.deidentifier.arx.Data.StorageType;
 
 /**
  * A fast implementation of an array of arrays of equal size
@@ -30,39 +35,62 @@ public class DataMatrix implements Serializable {
     /** SVUID */
     private static final long serialVersionUID = 1626391500373995527L;
 
-    /** Backing array */
-    private final int[]       array;
+    /** Serialized form. Previous versions stored the data in the field "array". */
+    private static final ObjectStreamField[] serialPersistentFields = { new ObjectStreamField("storage", DataMatrixStorage.class),
+                                                                         new ObjectStreamField("array", int[].class),
+                                                                         new ObjectStreamField("rows", int.class),
+                                                                         new ObjectStreamField("columns", int.class) };
+
+    /** Backing storage */
+    private DataMatrixStorage storage;
 
     /** The number of rows. */
-    private final int         rows;
+    private int               rows;
 
     /** The number of columns. */
-    private final int         columns;
+    private int               columns;
 
     /** Iterate */
     private int               iteratorI        = 0;
 
     /** Iterate */
-    private int               iteratorOffset   = 0;
+    private long              iteratorOffset   = 0;
 
     /** Iterate */
-    private int               baseOffset       = 0;
+    private long              baseOffset       = 0;
 
     /**
-     * Instantiates a new memory block.
+     * Instantiates a new memory block on the Java heap.
      *
      * @param rows the num rows
      * @param columns the num columns
      */
     public DataMatrix(final int rows, final int columns) {
-        try {
-            this.columns = columns;
-            this.rows = rows;
-            int cells = Math.multiplyExact(rows, columns);
-            this.array = new int[cells];
-        } catch (ArithmeticException e) {
-            throw new IllegalArgumentException("Not more then 2^31-1 cells supported");
-        }
+        this(rows, columns, StorageType.HEAP);
+    }
+
+    /**
+     * Instantiates a new memory block with the given type of storage.
+     *
+     * @param rows the num rows
+     * @param columns the num columns
+     * @param type the type of storage
+     */
+    public DataMatrix(final int rows, final int columns, final StorageType type) {
+        this(DataMatrixStorage.create(type, (long) rows * columns), rows, columns);
+    }
+
+    /**
+     * Instantiates a new memory block backed by the given storage.
+     *
+     * @param storage the backing storage
+     * @param rows the num rows
+     * @param columns the num columns
+     */
+    DataMatrix(final DataMatrixStorage storage, final int rows, final int columns) {
+        this.storage = storage;
+        this.rows = rows;
+        this.columns = columns;
     }
 
     /**
@@ -71,13 +99,14 @@ public class DataMatrix implements Serializable {
      * @param value
      */
     public void and(int row, int value) {
-        array[row * columns] &= value;
+        long offset = (long) row * columns;
+        storage.set(offset, storage.get(offset) & value);
     }
 
     @Override
     public DataMatrix clone() {
-        DataMatrix result = new DataMatrix(this.rows, this.columns);
-        System.arraycopy(this.array, 0, result.array, 0, this.array.length);
+        DataMatrix result = new DataMatrix(this.rows, this.columns, this.getStorageType());
+        this.storage.copy(0, result.storage, 0, this.storage.getSize());
         return result;
     }
     
@@ -88,9 +117,19 @@ public class DataMatrix implements Serializable {
      * @param sourceRow
      */
     public void copyFrom(int row, DataMatrix sourceMatrix, int sourceRow) {
-        int sourceOffset = sourceRow * columns;
-        int thisOffset = row * columns;
-        System.arraycopy(sourceMatrix.array, sourceOffset, this.array, thisOffset, columns);
+        sourceMatrix.copyTo(sourceRow, this, row);
+    }
+
+    /**
+     * Copies a row from this matrix into the given matrix
+     * @param row
+     * @param targetMatrix
+     * @param targetRow
+     */
+    protected void copyTo(int row, DataMatrix targetMatrix, int targetRow) {
+        long sourceOffset = (long) row * columns;
+        long targetOffset = (long) targetRow * columns;
+        this.storage.copy(sourceOffset, targetMatrix.storage, targetOffset, columns);
     }
 
     /**
@@ -110,9 +149,9 @@ public class DataMatrix implements Serializable {
      * @return
      */
     public boolean equals(int row, int[] data) {
-        int offset = row * columns;
+        long offset = (long) row * columns;
         for (int i = 0; i < columns; i++) {
-            if (this.array[offset++] != data[i]) { 
+            if (this.storage.get(offset++) != data[i]) { 
                 return false; 
             }
         }
@@ -128,97 +167,97 @@ public class DataMatrix implements Serializable {
      */
     public boolean equalsIgnore(int row1, int row2, int ignore) {
 
-        int offset1 = row1 * columns;
-        int offset2 = row2 * columns;
+        long offset1 = (long) row1 * columns;
+        long offset2 = (long) row2 * columns;
 
         switch (columns) {
         case 20:
-            if ((ignore != 19) && this.array[offset1 + 19] != this.array[offset2 + 19]) {
+            if ((ignore != 19) && this.storage.get(offset1 + 19) != this.storage.get(offset2 + 19)) {
                 return false;
             }
         case 19:
-            if ((ignore != 18) && this.array[offset1 + 18] != this.array[offset2 + 18]) {
+            if ((ignore != 18) && this.storage.get(offset1 + 18) != this.storage.get(offset2 + 18)) {
                 return false;
             }
         case 18:
-            if ((ignore != 17) && this.array[offset1 + 17] != this.array[offset2 + 17]) {
+            if ((ignore != 17) && this.storage.get(offset1 + 17) != this.storage.get(offset2 + 17)) {
                 return false;
             }
         case 17:
-            if ((ignore != 16) && this.array[offset1 + 16] != this.array[offset2 + 16]) {
+            if ((ignore != 16) && this.storage.get(offset1 + 16) != this.storage.get(offset2 + 16)) {
                 return false;
             }
         case 16:
-            if ((ignore != 15) && this.array[offset1 + 15] != this.array[offset2 + 15]) {
+            if ((ignore != 15) && this.storage.get(offset1 + 15) != this.storage.get(offset2 + 15)) {
                 return false;
             }
         case 15:
-            if ((ignore != 14) && this.array[offset1 + 14] != this.array[offset2 + 14]) {
+            if ((ignore != 14) && this.storage.get(offset1 + 14) != this.storage.get(offset2 + 14)) {
                 return false;
             }
         case 14:
-            if ((ignore != 13) && this.array[offset1 + 13] != this.array[offset2 + 13]) {
+            if ((ignore != 13) && this.storage.get(offset1 + 13) != this.storage.get(offset2 + 13)) {
                 return false;
             }
         case 13:
-            if ((ignore != 12) && this.array[offset1 + 12] != this.array[offset2 + 12]) {
+            if ((ignore != 12) && this.storage.get(offset1 + 12) != this.storage.get(offset2 + 12)) {
                 return false;
             }
         case 12:
-            if ((ignore != 11) && this.array[offset1 + 11] != this.array[offset2 + 11]) {
+            if ((ignore != 11) && this.storage.get(offset1 + 11) != this.storage.get(offset2 + 11)) {
                 return false;
             }
         case 11:
-            if ((ignore != 10) && this.array[offset1 + 10] != this.array[offset2 + 10]) {
+            if ((ignore != 10) && this.storage.get(offset1 + 10) != this.storage.get(offset2 + 10)) {
                 return false;
             }
         case 10:
-            if ((ignore != 9) && this.array[offset1 + 9] != this.array[offset2 + 9]) {
+            if ((ignore != 9) && this.storage.get(offset1 + 9) != this.storage.get(offset2 + 9)) {
                 return false;
             }
         case 9:
-            if ((ignore != 8) && this.array[offset1 + 8] != this.array[offset2 + 8]) {
+            if ((ignore != 8) && this.storage.get(offset1 + 8) != this.storage.get(offset2 + 8)) {
                 return false;
             }
         case 8:
-            if ((ignore != 7) && this.array[offset1 + 7] != this.array[offset2 + 7]) {
+            if ((ignore != 7) && this.storage.get(offset1 + 7) != this.storage.get(offset2 + 7)) {
                 return false;
             }
         case 7:
-            if ((ignore != 6) && this.array[offset1 + 6] != this.array[offset2 + 6]) {
+            if ((ignore != 6) && this.storage.get(offset1 + 6) != this.storage.get(offset2 + 6)) {
                 return false;
             }
         case 6:
-            if ((ignore != 5) && this.array[offset1 + 5] != this.array[offset2 + 5]) {
+            if ((ignore != 5) && this.storage.get(offset1 + 5) != this.storage.get(offset2 + 5)) {
                 return false;
             }
         case 5:
-            if ((ignore != 4) && this.array[offset1 + 4] != this.array[offset2 + 4]) {
+            if ((ignore != 4) && this.storage.get(offset1 + 4) != this.storage.get(offset2 + 4)) {
                 return false;
             }
         case 4:
-            if ((ignore != 3) && this.array[offset1 + 3] != this.array[offset2 + 3]) {
+            if ((ignore != 3) && this.storage.get(offset1 + 3) != this.storage.get(offset2 + 3)) {
                 return false;
             }
         case 3:
-            if ((ignore != 2) && this.array[offset1 + 2] != this.array[offset2 + 2]) {
+            if ((ignore != 2) && this.storage.get(offset1 + 2) != this.storage.get(offset2 + 2)) {
                 return false;
             }
         case 2:
-            if ((ignore != 1) && this.array[offset1 + 1] != this.array[offset2 + 1]) {
+            if ((ignore != 1) && this.storage.get(offset1 + 1) != this.storage.get(offset2 + 1)) {
                 return false;
             }
         case 1:
-            if ((ignore != 0) && (this.array[offset1 + 0]) != (this.array[offset2 + 0])) {
+            if ((ignore != 0) && (this.storage.get(offset1 + 0)) != (this.storage.get(offset2 + 0))) {
                 return false;
             }
             break;
         default:
-            if ((ignore != 0) && (this.array[offset1]) != (this.array[offset2] )) {
+            if ((ignore != 0) && (this.storage.get(offset1)) != (this.storage.get(offset2))) {
                 return false;
             }
             for (int i = 1; i < columns; i++) {
-                if ((ignore != i) && this.array[offset1 + i] != this.array[offset2 + i]) {
+                if ((ignore != i) && this.storage.get(offset1 + i) != this.storage.get(offset2 + i)) {
                     return false;
                 }
             }
@@ -243,7 +282,7 @@ public class DataMatrix implements Serializable {
      * @return
      */
     public int get(final int row, final int col) {
-        return this.array[row * columns + col];
+        return this.storage.get((long) row * columns + col);
     }
     
     /**
@@ -262,6 +301,14 @@ public class DataMatrix implements Serializable {
         return rows;
     }
 
+    /**
+     * Returns the type of storage
+     * @return
+     */
+    public StorageType getStorageType() {
+        return storage.getType();
+    }
+
     /**
      * Gets the value in the given column for the row which
      * has been set via setRow(row).
@@ -269,7 +316,7 @@ public class DataMatrix implements Serializable {
      * @param value
      */
     public int getValueAtColumn(int column) {
-        return this.array[baseOffset + column];
+        return this.storage.get(baseOffset + column);
     }
 
     /**
@@ -278,10 +325,10 @@ public class DataMatrix implements Serializable {
      * @return
      */
     public int hashCode(final int row) {
-        int offset = row * columns;
+        long offset = (long) row * columns;
         int result = 23;
         for (int i = 0; i < columns; i++) {
-            result = (37 * result) + this.array[offset++];
+            result = (37 * result) + this.storage.get(offset++);
         }
         return result;        
     }
@@ -318,10 +365,10 @@ public class DataMatrix implements Serializable {
      * @return
      */
     public int hashCodeIgnore(final int row, final int ignore) {
-        int offset = row * columns;
+        long offset = (long) row * columns;
         int result = 23;
         for (int i = 0; i < columns; i++) {
-            result = (i == ignore) ? result : ((37 * result) + this.array[offset]);
+            result = (i == ignore) ? result : ((37 * result) + this.storage.get(offset));
             offset++;
         }
         return result;        
@@ -332,7 +379,7 @@ public class DataMatrix implements Serializable {
      * @param row
      */
     public void iterator(int row) {
-        iteratorOffset = row * columns;
+        iteratorOffset = (long) row * columns;
         iteratorI = 0;
     }
 
@@ -349,7 +396,7 @@ public class DataMatrix implements Serializable {
      * @return
      */
     public int iterator_next() {
-        int result = this.array[iteratorOffset++];
+        int result = this.storage.get(iteratorOffset++);
         iteratorI++;
         return result;
     }
@@ -360,7 +407,7 @@ public class DataMatrix implements Serializable {
      * @return
      */
     public void iterator_write(int value) {
-        this.array[iteratorOffset++] = value;
+        this.storage.set(iteratorOffset++, value);
         iteratorI++;
     }
 
@@ -370,7 +417,8 @@ public class DataMatrix implements Serializable {
      * @param value
      */
     public void or(int row, int value) {
-        array[row * columns] |= value;
+        long offset = (long) row * columns;
+        storage.set(offset, storage.get(offset) | value);
     }
 
     /**
@@ -380,7 +428,7 @@ public class DataMatrix implements Serializable {
      * @param value
      */
     public void set(int row, int column, int value) {
-        this.array[row * columns + column] = value;
+        this.storage.set((long) row * columns + column, value);
     }
 
     /**
@@ -388,7 +436,7 @@ public class DataMatrix implements Serializable {
      * @param row
      */
     public void setRow(int row) {
-        this.baseOffset = row * columns;
+        this.baseOffset = (long) row * columns;
     }
 
     /**
@@ -397,8 +445,8 @@ public class DataMatrix implements Serializable {
      * @param data
      */
     public void setRow(int row, int[] data) {
-        int offset = row * columns;
-        System.arraycopy(data, 0, this.array, offset, data.length);
+        long offset = (long) row * columns;
+        this.storage.set(offset, data);
     }
 
     /**
@@ -408,7 +456,7 @@ public class DataMatrix implements Serializable {
      * @param value
      */
     public void setValueAtColumn(int column, int value) {
-        this.array[baseOffset + column] = value;
+        this.storage.set(baseOffset + column, value);
     }
 
     /**
@@ -417,17 +465,26 @@ public class DataMatrix implements Serializable {
      * @param row2
      */
     public void swap(int row1, int row2) {
-        int offset1 = row1 * columns;
-        int offset2 = row2 * columns;
+        long offset1 = (long) row1 * columns;
+        long offset2 = (long) row2 * columns;
         for (int i = 0; i < this.columns; i++) {
-            int temp = this.array[offset1];
-            this.array[offset1] = this.array[offset2];
-            this.array[offset2] = temp;
+            int temp = this.storage.get(offset1);
+            this.storage.set(offset1, this.storage.get(offset2));
+            this.storage.set(offset2, temp);
             offset1 ++;
             offset2 ++;
         }
     }
 
+    /**
+     * Returns a matrix which shares the data with this matrix but maintains its own
+     * iterator and row state. Can be used to read the same data from multiple threads.
+     * @return
+     */
+    public DataMatrix view() {
+        return new DataMatrix(this.storage, this.rows, this.columns);
+    }
+
     /**
      * Internal equals
      * @param row1
@@ -437,97 +494,97 @@ public class DataMatrix implements Serializable {
      */
     private boolean equals(int row1, int row2, int flag) {
 
-        int offset1 = row1 * columns;
-        int offset2 = row2 * columns;
+        long offset1 = (long) row1 * columns;
+        long offset2 = (long) row2 * columns;
 
         switch (columns) {
         case 20:
-            if (this.array[offset1 + 19] != this.array[offset2 + 19]) {
+            if (this.storage.get(offset1 + 19) != this.storage.get(offset2 + 19)) {
                 return false;
             }
         case 19:
-            if (this.array[offset1 + 18] != this.array[offset2 + 18]) {
+            if (this.storage.get(offset1 + 18) != this.storage.get(offset2 + 18)) {
                 return false;
             }
         case 18:
-            if (this.array[offset1 + 17] != this.array[offset2 + 17]) {
+            if (this.storage.get(offset1 + 17) != this.storage.get(offset2 + 17)) {
                 return false;
             }
         case 17:
-            if (this.array[offset1 + 16] != this.array[offset2 + 16]) {
+            if (this.storage.get(offset1 + 16) != this.storage.get(offset2 + 16)) {
                 return false;
             }
         case 16:
-            if (this.array[offset1 + 15] != this.array[offset2 + 15]) {
+            if (this.storage.get(offset1 + 15) != this.storage.get(offset2 + 15)) {
                 return false;
             }
         case 15:
-            if (this.array[offset1 + 14] != this.array[offset2 + 14]) {
+            if (this.storage.get(offset1 + 14) != this.storage.get(offset2 + 14)) {
                 return false;
             }
         case 14:
-            if (this.array[offset1 + 13] != this.array[offset2 + 13]) {
+            if (this.storage.get(offset1 + 13) != this.storage.get(offset2 + 13)) {
                 return false;
             }
         case 13:
-            if (this.array[offset1 + 12] != this.array[offset2 + 12]) {
+            if (this.storage.get(offset1 + 12) != this.storage.get(offset2 + 12)) {
                 return false;
             }
         case 12:
-            if (this.array[offset1 + 11] != this.array[offset2 + 11]) {
+            if (this.storage.get(offset1 + 11) != this.storage.get(offset2 + 11)) {
                 return false;
             }
         case 11:
-            if (this.array[offset1 + 10] != this.array[offset2 + 10]) {
+            if (this.storage.get(offset1 + 10) != this.storage.get(offset2 + 10)) {
                 return false;
             }
         case 10:
-            if (this.array[offset1 + 9] != this.array[offset2 + 9]) {
+            if (this.storage.get(offset1 + 9) != this.storage.get(offset2 + 9)) {
                 return false;
             }
         case 9:
-            if (this.array[offset1 + 8] != this.array[offset2 + 8]) {
+            if (this.storage.get(offset1 + 8) != this.storage.get(offset2 + 8)) {
                 return false;
             }
         case 8:
-            if (this.array[offset1 + 7] != this.array[offset2 + 7]) {
+            if (this.storage.get(offset1 + 7) != this.storage.get(offset2 + 7)) {
                 return false;
             }
         case 7:
-            if (this.array[offset1 + 6] != this.array[offset2 + 6]) {
+            if (this.storage.get(offset1 + 6) != this.storage.get(offset2 + 6)) {
                 return false;
             }
         case 6:
-            if (this.array[offset1 + 5] != this.array[offset2 + 5]) {
+            if (this.storage.get(offset1 + 5) != this.storage.get(offset2 + 5)) {
                 return false;
             }
         case 5:
-            if (this.array[offset1 + 4] != this.array[offset2 + 4]) {
+            if (this.storage.get(offset1 + 4) != this.storage.get(offset2 + 4)) {
                 return false;
             }
         case 4:
-            if (this.array[offset1 + 3] != this.array[offset2 + 3]) {
+            if (this.storage.get(offset1 + 3) != this.storage.get(offset2 + 3)) {
                 return false;
             }
         case 3:
-            if (this.array[offset1 + 2] != this.array[offset2 + 2]) {
+            if (this.storage.get(offset1 + 2) != this.storage.get(offset2 + 2)) {
                 return false;
             }
         case 2:
-            if (this.array[offset1 + 1] != this.array[offset2 + 1]) {
+            if (this.storage.get(offset1 + 1) != this.storage.get(offset2 + 1)) {
                 return false;
             }
         case 1:
-            if ((this.array[offset1 + 0] & flag) != (this.array[offset2 + 0] & flag)) {
+            if ((this.storage.get(offset1 + 0) & flag) != (this.storage.get(offset2 + 0) & flag)) {
                 return false;
             }
             break;
         default:
-            if ((this.array[offset1] & flag) != (this.array[offset2] & flag)) {
+            if ((this.storage.get(offset1) & flag) != (this.storage.get(offset2) & flag)) {
                 return false;
             }
             for (int i = 1; i < columns; i++) {
-                if (this.array[offset1 + i] != this.array[offset2 + i]) {
+                if (this.storage.get(offset1 + i) != this.storage.get(offset2 + i)) {
                     return false;
                 }
             }
@@ -543,17 +600,49 @@ public class DataMatrix implements Serializable {
     protected DataMatrix clone(int[] subset) {
         
         // Create instance
-        DataMatrix result = new DataMatrix(subset.length, this.columns);
+        DataMatrix result = new DataMatrix(subset.length, this.columns, this.getStorageType());
         
         // Copy subset
-        int targetOffset = 0;
+        long targetOffset = 0;
         for (int source : subset) {
-            int sourceOffset = source * columns;
-            System.arraycopy(this.array, sourceOffset, result.array, targetOffset, columns);
+            long sourceOffset = (long) source * columns;
+            this.storage.copy(sourceOffset, result.storage, targetOffset, columns);
             targetOffset += columns;
         }
         
         // Return
         return result;
     }
-}
\ No newline at end of file
+
+    /**
+     * Deserializes this object, converting from the array used by previous versions
+     *
+     * @param stream
+     * @throws IOException
+     * @throws ClassNotFoundException
+     */
+    private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = stream.readFields();
+        this.rows = fields.get("rows", 0);
+        this.columns = fields.get("columns", 0);
+        this.storage = (DataMatrixStorage) fields.get("storage", null);
+        int[] array = (int[]) fields.get("array", null);
+        if (this.storage == null && array != null) {
+            this.storage = new DataMatrixStorageArray(array);
+        }
+    }
+
+    /**
+     * Serializes this object
+     *
+     * @param stream
+     * @throws IOException
+     */
+    private void writeObject(ObjectOutputStream stream) throws IOException {
+        ObjectOutputStream.PutField fields = stream.putFields();
+        fields.put("storage", this.storage);
+        fields.put("rows", this.rows);
+        fields.put("columns", this.columns);
+        stream.writeFields();
+    }
+}
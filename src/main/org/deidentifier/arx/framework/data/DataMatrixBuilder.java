@@ -0,0 +1,169 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.deidentifier.arx.Data.StorageType;
+
+/**
+ * Builds a data matrix with an unknown number of rows. Rows are appended to chunks on the
+ * Java heap. Only the first chunk grows geometrically, which copies the rows added so far,
+ * so that small datasets do not allocate a complete chunk. All further chunks are allocated
+ * with their final size and are never copied. When the matrix is built, the chunks are
+ * adopted by heap storage or copied into other types of storage.
+ *
+ * @author Fabian Prasser
+ */
+public class DataMatrixBuilder {
+
+    /** Initial number of cells of the first chunk */
+    private static final int INITIAL_CAPACITY = 1 << 12;
+
+    /** Number of columns */
+    private final int        columns;
+
+    /** Chunks, all but the last one contain exactly CHUNK_SIZE cells */
+    private List<int[]>      chunks           = new ArrayList<int[]>();
+
+    /** The last chunk */
+    private int[]            chunk            = null;
+
+    /** Number of cells used in the last chunk */
+    private int              offset           = 0;
+
+    /** Number of rows */
+    private int              rows             = 0;
+
+    /**
+     * Creates a new instance
+     * @param columns
+     */
+    public DataMatrixBuilder(int columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * Appends the given row
+     * @param row
+     */
+    public void add(int[] row) {
+        if (chunks == null) {
+            throw new IllegalStateException("Matrix has already been built");
+        }
+        if (rows == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Too many records (more than " + Integer.MAX_VALUE + ")");
+        }
+        for (int column = 0; column < columns; column++) {
+            if (chunk == null || offset == chunk.length) {
+                grow();
+            }
+            chunk[offset++] = row[column];
+        }
+        rows++;
+    }
+
+    /**
+     * Builds the matrix using the given type of storage. The builder can not be used afterwards.
+     * @param type
+     * @return
+     */
+    public DataMatrix build(StorageType type) {
+        
+        // Trim
+        if (chunk != null && offset != chunk.length) {
+            chunks.set(chunks.size() - 1, Arrays.copyOf(chunk, offset));
+        }
+        long cells = (long) rows * columns;
+        DataMatrixStorage storage;
+        
+        // Adopt chunks
+        if (type == StorageType.HEAP) {
+            if (chunks.isEmpty()) {
+                storage = new DataMatrixStorageArray(0);
+            } else if (chunks.size() == 1) {
+                storage = new DataMatrixStorageArray(chunks.get(0));
+            } else {
+                storage = new DataMatrixStorageChunked(chunks.toArray(new int[chunks.size()][]), cells);
+            }
+            
+        // Copy and release chunks one after another
+        } else {
+            storage = DataMatrixStorage.create(type, cells);
+            long index = 0;
+            for (int i = 0; i < chunks.size(); i++) {
+                int[] values = chunks.get(i);
+                storage.set(index, values);
+                index += values.length;
+                chunks.set(i, null);
+            }
+        }
+        
+        // Release
+        this.chunks = null;
+        this.chunk = null;
+        return new DataMatrix(storage, rows, columns);
+    }
+
+    /**
+     * Returns the value of the given cell
+     * @param row
+     * @param column
+     * @return
+     */
+    public int get(int row, int column) {
+        long index = (long) row * columns + column;
+        return chunks.get((int) (index >>> DataMatrixStorage.CHUNK_SHIFT))[(int) (index & DataMatrixStorage.CHUNK_MASK)];
+    }
+
+    /**
+     * Returns the number of columns
+     * @return
+     */
+    public int getNumColumns() {
+        return columns;
+    }
+
+    /**
+     * Returns the number of rows
+     * @return
+     */
+    public int getNumRows() {
+        return rows;
+    }
+
+    /**
+     * Grows the first chunk, or starts a new chunk with the maximal size, if it is full
+     */
+    private void grow() {
+        if (chunk == null) {
+            chunk = new int[INITIAL_CAPACITY];
+            chunks.add(chunk);
+            offset = 0;
+        } else if (chunk.length < DataMatrixStorage.CHUNK_SIZE) {
+            chunk = Arrays.copyOf(chunk, (int) Math.min((long) chunk.length << 1, DataMatrixStorage.CHUNK_SIZE));
+            chunks.set(chunks.size() - 1, chunk);
+        } else {
+            chunk = new int[DataMatrixStorage.CHUNK_SIZE];
+            chunks.add(chunk);
+            offset = 0;
+        }
+    }
+}
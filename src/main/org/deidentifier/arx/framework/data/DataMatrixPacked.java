@@ -0,0 +1,426 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.data;
+
+import java.util.Arrays;
+
+import org.deidentifier.arx.Data.StorageType;
+
+/**
+ * A data matrix in which each column is packed into the minimal number of bits required
+ * to represent its domain. Each row is stored in a fixed number of longs, which allows
+ * comparing rows word by word. Values must be in [0, cardinality[column]), except for the
+ * outlier flag, which may additionally be set in the first column.
+ *
+ * @author Fabian Prasser
+ */
+public class DataMatrixPacked extends DataMatrix {
+
+    /** SVUID */
+    private static final long serialVersionUID = -3785003113224580066L;
+
+    /**
+     * Returns whether packing a matrix with the given dimensions is supported and
+     * requires less memory than the default representation
+     * @param rows
+     * @param cardinalities
+     * @return
+     */
+    public static boolean isSupported(int rows, int[] cardinalities) {
+        if (cardinalities.length == 0) {
+            return false;
+        }
+        int width = getWidth(getBits(cardinalities));
+        return width * 2 < cardinalities.length && (long) rows * width <= DataMatrixStorage.MAX_ARRAY_SIZE;
+    }
+
+    /**
+     * Returns the number of bits per column. The first column has an additional bit for the outlier flag.
+     * @param cardinalities
+     * @return
+     */
+    private static int[] getBits(int[] cardinalities) {
+        int[] bits = new int[cardinalities.length];
+        for (int column = 0; column < bits.length; column++) {
+            bits[column] = Math.max(1, 32 - Integer.numberOfLeadingZeros(Math.max(0, cardinalities[column] - 1)));
+        }
+        bits[0]++;
+        return bits;
+    }
+
+    /**
+     * Returns the number of words per row. Columns never span two words.
+     * @param bits
+     * @return
+     */
+    private static int getWidth(int[] bits) {
+        int width = 1;
+        int used = 0;
+        for (int column = 0; column < bits.length; column++) {
+            if (used + bits[column] > 64) {
+                width++;
+                used = 0;
+            }
+            used += bits[column];
+        }
+        return width;
+    }
+
+    /** The number of rows. */
+    private final int    rows;
+
+    /** The number of columns. */
+    private final int    columns;
+
+    /** Number of words per row */
+    private final int    width;
+
+    /** Backing array */
+    private final long[] words;
+
+    /** Word of each column */
+    private final int[]  word;
+
+    /** Offset of each column within its word */
+    private final int[]  shift;
+
+    /** Mask of each column, not shifted */
+    private final long[] mask;
+
+    /** Position of the outlier flag in the first column */
+    private final int    flag;
+
+    /** Iterate */
+    private int          iteratorI   = 0;
+
+    /** Iterate */
+    private int          iteratorRow = 0;
+
+    /** Iterate */
+    private int          baseRow     = 0;
+
+    /**
+     * Creates a new instance
+     * @param rows
+     * @param cardinalities
+     */
+    public DataMatrixPacked(int rows, int[] cardinalities) {
+        super(0, 0);
+
+        // Prepare layout
+        int[] bits = getBits(cardinalities);
+        this.rows = rows;
+        this.columns = cardinalities.length;
+        this.width = getWidth(bits);
+        this.word = new int[columns];
+        this.shift = new int[columns];
+        this.mask = new long[columns];
+        this.flag = bits[0] - 1;
+        int index = 0;
+        int used = 0;
+        for (int column = 0; column < columns; column++) {
+            if (used + bits[column] > 64) {
+                index++;
+                used = 0;
+            }
+            this.word[column] = index;
+            this.shift[column] = used;
+            this.mask[column] = (1L << bits[column]) - 1L;
+            used += bits[column];
+        }
+
+        // Allocate
+        this.words = new long[Math.multiplyExact(rows, width)];
+    }
+
+    /**
+     * Creates a view of the given matrix
+     * @param matrix
+     */
+    private DataMatrixPacked(DataMatrixPacked matrix) {
+        super(0, 0);
+        this.rows = matrix.rows;
+        this.columns = matrix.columns;
+        this.width = matrix.width;
+        this.words = matrix.words;
+        this.word = matrix.word;
+        this.shift = matrix.shift;
+        this.mask = matrix.mask;
+        this.flag = matrix.flag;
+    }
+
+    /**
+     * Creates a new instance with the same layout as the given matrix
+     * @param matrix
+     * @param rows
+     */
+    private DataMatrixPacked(DataMatrixPacked matrix, int rows) {
+        super(0, 0);
+        this.rows = rows;
+        this.columns = matrix.columns;
+        this.width = matrix.width;
+        this.words = new long[Math.multiplyExact(rows, width)];
+        this.word = matrix.word;
+        this.shift = matrix.shift;
+        this.mask = matrix.mask;
+        this.flag = matrix.flag;
+    }
+
+    @Override
+    public void and(int row, int value) {
+        set(row, 0, get(row, 0) & value);
+    }
+
+    @Override
+    public DataMatrix clone() {
+        DataMatrixPacked result = new DataMatrixPacked(this, this.rows);
+        System.arraycopy(this.words, 0, result.words, 0, this.words.length);
+        return result;
+    }
+
+    @Override
+    public void copyFrom(int row, DataMatrix sourceMatrix, int sourceRow) {
+        if (sourceMatrix instanceof DataMatrixPacked && isLayoutEqual((DataMatrixPacked) sourceMatrix)) {
+            System.arraycopy(((DataMatrixPacked) sourceMatrix).words, sourceRow * width, this.words, row * width, width);
+        } else {
+            for (int column = 0; column < columns; column++) {
+                set(row, column, sourceMatrix.get(sourceRow, column));
+            }
+        }
+    }
+
+    @Override
+    protected void copyTo(int row, DataMatrix targetMatrix, int targetRow) {
+        for (int column = 0; column < columns; column++) {
+            targetMatrix.set(targetRow, column, get(row, column));
+        }
+    }
+
+    @Override
+    public boolean equals(final int row1, final int row2) {
+        int offset1 = row1 * width;
+        int offset2 = row2 * width;
+        for (int i = 0; i < width; i++) {
+            if (words[offset1++] != words[offset2++]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(int row, int[] data) {
+        int offset = row * width;
+        for (int column = 0; column < columns; column++) {
+            if (decode(offset, column) != data[column]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equalsIgnore(int row1, int row2, int ignore) {
+        int offset1 = row1 * width;
+        int offset2 = row2 * width;
+        for (int i = 0; i < width; i++) {
+            long difference = words[offset1++] ^ words[offset2++];
+            if (i == word[ignore]) {
+                difference &= ~(mask[ignore] << shift[ignore]);
+            }
+            if (difference != 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equalsIgnoringOutliers(int row1, int row2) {
+        int offset1 = row1 * width;
+        int offset2 = row2 * width;
+        if (((words[offset1] ^ words[offset2]) & ~(1L << flag)) != 0L) {
+            return false;
+        }
+        for (int i = 1; i < width; i++) {
+            if (words[++offset1] != words[++offset2]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int get(final int row, final int col) {
+        return decode(row * width, col);
+    }
+
+    @Override
+    public int getNumColumns() {
+        return columns;
+    }
+
+    @Override
+    public int getNumRows() {
+        return rows;
+    }
+
+    @Override
+    public StorageType getStorageType() {
+        return StorageType.HEAP;
+    }
+
+    @Override
+    public int getValueAtColumn(int column) {
+        return decode(baseRow * width, column);
+    }
+
+    @Override
+    public int hashCode(final int row) {
+        int offset = row * width;
+        int result = 23;
+        for (int column = 0; column < columns; column++) {
+            result = (37 * result) + decode(offset, column);
+        }
+        return result;
+    }
+
+    @Override
+    public int hashCodeIgnore(final int row, final int ignore) {
+        int offset = row * width;
+        int result = 23;
+        for (int column = 0; column < columns; column++) {
+            result = (column == ignore) ? result : ((37 * result) + decode(offset, column));
+        }
+        return result;
+    }
+
+    @Override
+    public void iterator(int row) {
+        iteratorRow = row;
+        iteratorI = 0;
+    }
+
+    @Override
+    public boolean iterator_hasNext() {
+        return iteratorI < columns;
+    }
+
+    @Override
+    public int iterator_next() {
+        return decode(iteratorRow * width, iteratorI++);
+    }
+
+    @Override
+    public void iterator_write(int value) {
+        encode(iteratorRow * width, iteratorI++, value);
+    }
+
+    @Override
+    public void or(int row, int value) {
+        set(row, 0, get(row, 0) | value);
+    }
+
+    @Override
+    public void set(int row, int column, int value) {
+        encode(row * width, column, value);
+    }
+
+    @Override
+    public void setRow(int row) {
+        this.baseRow = row;
+    }
+
+    @Override
+    public void setRow(int row, int[] data) {
+        int offset = row * width;
+        for (int column = 0; column < data.length; column++) {
+            encode(offset, column, data[column]);
+        }
+    }
+
+    @Override
+    public void setValueAtColumn(int column, int value) {
+        encode(baseRow * width, column, value);
+    }
+
+    @Override
+    public void swap(int row1, int row2) {
+        int offset1 = row1 * width;
+        int offset2 = row2 * width;
+        for (int i = 0; i < width; i++) {
+            long temp = words[offset1];
+            words[offset1] = words[offset2];
+            words[offset2] = temp;
+            offset1++;
+            offset2++;
+        }
+    }
+
+    @Override
+    public DataMatrix view() {
+        return new DataMatrixPacked(this);
+    }
+
+    /**
+     * Decodes the value of the given column in the row starting at the given offset
+     * @param offset
+     * @param column
+     * @return
+     */
+    private int decode(int offset, int column) {
+        long value = (words[offset + word[column]] >>> shift[column]) & mask[column];
+        if (column == 0) {
+            return (int) ((value & ~(1L << flag)) | ((value >>> flag) << 31));
+        }
+        return (int) value;
+    }
+
+    /**
+     * Encodes the value of the given column in the row starting at the given offset
+     * @param offset
+     * @param column
+     * @param value
+     */
+    private void encode(int offset, int column, int value) {
+        long encoded = column == 0 ? ((value & Data.REMOVE_OUTLIER_MASK) | ((long) (value >>> 31) << flag)) : value;
+        int index = offset + word[column];
+        words[index] = (words[index] & ~(mask[column] << shift[column])) | ((encoded & mask[column]) << shift[column]);
+    }
+
+    /**
+     * Returns whether the given matrix has the same layout
+     * @param other
+     * @return
+     */
+    private boolean isLayoutEqual(DataMatrixPacked other) {
+        return this.width == other.width && Arrays.equals(this.shift, other.shift) &&
+               Arrays.equals(this.word, other.word) && Arrays.equals(this.mask, other.mask);
+    }
+
+    @Override
+    protected DataMatrix clone(int[] subset) {
+        DataMatrixPacked result = new DataMatrixPacked(this, subset.length);
+        int targetOffset = 0;
+        for (int source : subset) {
+            System.arraycopy(this.words, source * width, result.words, targetOffset, width);
+            targetOffset += width;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.data;
+
+import java.io.Serializable;
+
+import org.deidentifier.arx.Data.StorageType;
+
+/**
+ * Long-indexed storage for the cells of a data matrix
+ *
+ * @author Fabian Prasser
+ */
+public abstract class DataMatrixStorage implements Serializable {
+
+    /** SVUID */
+    private static final long serialVersionUID = -2475113574064126018L;
+
+    /** Maximal size of a Java array */
+    static final int          MAX_ARRAY_SIZE   = Integer.MAX_VALUE - 8;
+
+    /** Log2 of the number of cells per chunk */
+    static final int          CHUNK_SHIFT      = 26;
+
+    /** Number of cells per chunk */
+    static final int          CHUNK_SIZE       = 1 << CHUNK_SHIFT;
+
+    /** Mask for the offset within a chunk */
+    static final long         CHUNK_MASK       = CHUNK_SIZE - 1;
+
+    /**
+     * Creates a new storage with the given number of cells
+     * @param type
+     * @param cells
+     * @return
+     */
+    public static DataMatrixStorage create(StorageType type, long cells) {
+        switch (type) {
+        case HEAP:
+            if (cells <= MAX_ARRAY_SIZE) {
+                return new DataMatrixStorageArray((int) cells);
+            } else {
+                return new DataMatrixStorageChunked(cells);
+            }
+        case OFF_HEAP:
+        case MEMORY_MAPPED:
+            return new DataMatrixStorageBuffer(type, cells);
+        default:
+            throw new IllegalArgumentException("Unknown storage type: " + type);
+        }
+    }
+
+    /**
+     * Returns the number of chunks needed for the given number of cells
+     * @param cells
+     * @return
+     */
+    static int getNumChunks(long cells) {
+        return (int) ((cells + CHUNK_SIZE - 1) >>> CHUNK_SHIFT);
+    }
+
+    /**
+     * Copies the given number of cells into the given storage
+     * @param index
+     * @param target
+     * @param targetIndex
+     * @param length
+     */
+    public void copy(long index, DataMatrixStorage target, long targetIndex, long length) {
+        for (long i = 0; i < length; i++) {
+            target.set(targetIndex++, get(index++));
+        }
+    }
+
+    /**
+     * Returns the value of the given cell
+     * @param index
+     * @return
+     */
+    public abstract int get(long index);
+
+    /**
+     * Returns the number of cells
+     * @return
+     */
+    public abstract long getSize();
+
+    /**
+     * Returns the type of storage
+     * @return
+     */
+    public abstract StorageType getType();
+
+    /**
+     * Sets the value of the given cell
+     * @param index
+     * @param value
+     */
+    public abstract void set(long index, int value);
+
+    /**
+     * Writes the given values, starting at the given cell
+     * @param index
+     * @param data
+     */
+    public void set(long index, int[] data) {
+        for (int i = 0; i < data.length; i++) {
+            set(index++, data[i]);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.data;
+
+import org.deidentifier.arx.Data.StorageType;
+
+/**
+ * Storage backed by a single array on the Java heap
+ *
+ * @author Fabian Prasser
+ */
+final class DataMatrixStorageArray extends DataMatrixStorage {
+
+    /** SVUID */
+    private static final long serialVersionUID = 4150224466906516366L;
+
+    /** Backing array */
+    private final int[]       array;
+
+    /**
+     * Creates a new instance
+     * @param cells
+     */
+    DataMatrixStorageArray(int cells) {
+        this.array = new int[cells];
+    }
+
+    /**
+     * Creates a new instance backed by the given array
+     * @param array
+     */
+    DataMatrixStorageArray(int[] array) {
+        this.array = array;
+    }
+
+    @Override
+    public void copy(long index, DataMatrixStorage target, long targetIndex, long length) {
+        if (target instanceof DataMatrixStorageArray) {
+            System.arraycopy(this.array, (int) index, ((DataMatrixStorageArray) target).array, (int) targetIndex, (int) length);
+        } else {
+            super.copy(index, target, targetIndex, length);
+        }
+    }
+
+    @Override
+    public int get(long index) {
+        return array[(int) index];
+    }
+
+    @Override
+    public long getSize() {
+        return array.length;
+    }
+
+    @Override
+    public StorageType getType() {
+        return StorageType.HEAP;
+    }
+
+    @Override
+    public void set(long index, int value) {
+        array[(int) index] = value;
+    }
+
+    @Override
+    public void set(long index, int[] data) {
+        System.arraycopy(data, 0, this.array, (int) index, data.length);
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import org.deidentifier.arx.Data.StorageType;
+
+/**
+ * Storage backed by direct buffers outside of the Java heap or by a
+ * memory-mapped temporary file. The memory is released when the
+ * storage is garbage collected.
+ *
+ * @author Fabian Prasser
+ */
+final class DataMatrixStorageBuffer extends DataMatrixStorage {
+
+    /** SVUID */
+    private static final long serialVersionUID = 7707960716405452216L;
+
+    /** Type */
+    private final StorageType   type;
+
+    /** Number of cells */
+    private final long          size;
+
+    /** Backing buffers */
+    private transient IntBuffer[] chunks;
+
+    /**
+     * Creates a new instance
+     * @param type
+     * @param cells
+     */
+    DataMatrixStorageBuffer(StorageType type, long cells) {
+        this.type = type;
+        this.size = cells;
+        this.chunks = allocate(type, cells);
+    }
+
+    @Override
+    public int get(long index) {
+        return chunks[(int) (index >>> CHUNK_SHIFT)].get((int) (index & CHUNK_MASK));
+    }
+
+    @Override
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public StorageType getType() {
+        return type;
+    }
+
+    @Override
+    public void set(long index, int value) {
+        chunks[(int) (index >>> CHUNK_SHIFT)].put((int) (index & CHUNK_MASK), value);
+    }
+
+    /**
+     * Allocates the buffers
+     * @param type
+     * @param cells
+     * @return
+     */
+    private IntBuffer[] allocate(StorageType type, long cells) {
+
+        // Off-heap
+        IntBuffer[] result = new IntBuffer[getNumChunks(cells)];
+        if (type == StorageType.OFF_HEAP) {
+            for (int i = 0; i < result.length; i++) {
+                result[i] = ByteBuffer.allocateDirect(getChunkSize(cells, i) * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+            }
+            return result;
+        }
+
+        // Memory-mapped. Mappings remain valid after the channel has been closed.
+        try {
+            File file = File.createTempFile("arx-", ".matrix");
+            file.deleteOnExit();
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+                raf.setLength(cells * 4L);
+                for (int i = 0; i < result.length; i++) {
+                    long position = ((long) i << CHUNK_SHIFT) * 4L;
+                    result[i] = channel.map(MapMode.READ_WRITE, position, getChunkSize(cells, i) * 4L).order(ByteOrder.nativeOrder()).asIntBuffer();
+                }
+            }
+            // Will fail on some platforms while mapped, in which case the file is deleted on exit
+            file.delete();
+            return result;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the number of cells in the given chunk
+     * @param cells
+     * @param chunk
+     * @return
+     */
+    private int getChunkSize(long cells, int chunk) {
+        return (int) Math.min(CHUNK_SIZE, cells - ((long) chunk << CHUNK_SHIFT));
+    }
+
+    /**
+     * De-serialization
+     * @param stream
+     * @throws IOException
+     * @throws ClassNotFoundException
+     */
+    private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        this.chunks = allocate(type, size);
+        for (long i = 0; i < size; i++) {
+            set(i, stream.readInt());
+        }
+    }
+
+    /**
+     * Serialization
+     * @param stream
+     * @throws IOException
+     */
+    private void writeObject(ObjectOutputStream stream) throws IOException {
+        stream.defaultWriteObject();
+        for (long i = 0; i < size; i++) {
+            stream.writeInt(get(i));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.data;
+
+import org.deidentifier.arx.Data.StorageType;
+
+/**
+ * Storage backed by multiple arrays on the Java heap. Supports more than 2^31-1 cells.
+ *
+ * @author Fabian Prasser
+ */
+final class DataMatrixStorageChunked extends DataMatrixStorage {
+
+    /** SVUID */
+    private static final long serialVersionUID = -1290366131964781493L;
+
+    /** Backing arrays */
+    private final int[][]     chunks;
+
+    /** Number of cells */
+    private final long        size;
+
+    /**
+     * Creates a new instance
+     * @param cells
+     */
+    DataMatrixStorageChunked(long cells) {
+        this.size = cells;
+        this.chunks = new int[getNumChunks(cells)][];
+        for (int i = 0; i < chunks.length; i++) {
+            long remaining = cells - ((long) i << CHUNK_SHIFT);
+            chunks[i] = new int[(int) Math.min(CHUNK_SIZE, remaining)];
+        }
+    }
+
+    /**
+     * Creates a new instance backed by the given chunks. All chunks but the last one
+     * must contain exactly CHUNK_SIZE cells.
+     * @param chunks
+     * @param cells
+     */
+    DataMatrixStorageChunked(int[][] chunks, long cells) {
+        this.size = cells;
+        this.chunks = chunks;
+    }
+
+    @Override
+    public int get(long index) {
+        return chunks[(int) (index >>> CHUNK_SHIFT)][(int) (index & CHUNK_MASK)];
+    }
+
+    @Override
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public StorageType getType() {
+        return StorageType.HEAP;
+    }
+
+    @Override
+    public void set(long index, int value) {
+        chunks[(int) (index >>> CHUNK_SHIFT)][(int) (index & CHUNK_MASK)] = value;
+    }
+}
@@ -16,6 +16,8 @@
  */
 package org.deidentifier.arx.framework.data;
 
+import org.deidentifier.arx.Data.StorageType;
+
 /**
  * A subset of a data matrix
  * 
@@ -83,6 +85,11 @@ public class DataMatrixSubset extends DataMatrix {
         return subset.length;
     }
 
+    @Override
+    public StorageType getStorageType() {
+        return matrix.getStorageType();
+    }
+
     @Override
     public int getValueAtColumn(int column) {
         return matrix.getValueAtColumn(column);
@@ -141,4 +148,9 @@ public class DataMatrixSubset extends DataMatrix {
     public void swap(int row1, int row2) {
         matrix.swap(subset[row1], subset[row2]);
     }
+
+    @Override
+    public DataMatrix view() {
+        return new DataMatrixSubset(matrix.view(), subset);
+    }
 }
\ No newline at end of file
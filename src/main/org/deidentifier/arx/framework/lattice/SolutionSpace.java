@@ -26,8 +26,6 @@ import org.deidentifier.arx.ARXLattice.ARXNode;
 import org.deidentifier.arx.ARXLattice.Anonymity;
 import org.deidentifier.arx.metric.InformationLoss;
 
-import com.carrotsearch.hppc.ObjectObjectOpenHashMap;
-
 import de.linearbits.jhpl.Lattice;
 import de.linearbits.jhpl.LatticeHighdimensional;
 import de.linearbits.jhpl.PredictiveProperty;
@@ -122,23 +120,16 @@ public abstract class SolutionSpace<T> {
     private final int                                             offsetLevel;
     /** The backing JHPL lattice */
     protected final Lattice<Integer, Integer>                     lattice;
-
-    /** Information loss */
-    protected ObjectObjectOpenHashMap<Object, Object>             data                        = new ObjectObjectOpenHashMap<>();
-
-    /** Information loss */
-    protected ObjectObjectOpenHashMap<Object, InformationLoss<?>> lowerBound                  = new ObjectObjectOpenHashMap<>();
-
-    /** Information loss */
-    protected ObjectObjectOpenHashMap<Object, InformationLoss<?>> utility                     = new ObjectObjectOpenHashMap<>();
    
     /**
-     * For de-serialization
+     * For de-serialization. Must be called by subclasses after having been constructed
+     * with the bottom and top transformation of the lattice, as information loss is stored
+     * in subclasses.
+     * 
      * @param lattice
      * @param config
      */
-    protected SolutionSpace(ARXLattice lattice, ARXConfiguration config) {
-        this(lattice.getBottom().getTransformation(), lattice.getTop().getTransformation());
+    protected void initialize(ARXLattice lattice, ARXConfiguration config) {
         setMonotonicity(config);
         for (ARXNode[] level : lattice.getLevels()) {
             for (ARXNode node : level) {
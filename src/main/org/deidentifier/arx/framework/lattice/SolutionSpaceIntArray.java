@@ -25,6 +25,8 @@ import org.deidentifier.arx.ARXLattice;
 import org.deidentifier.arx.framework.lattice.SolutionSpaceIntArray.IntArrayWrapper;
 import org.deidentifier.arx.metric.InformationLoss;
 
+import com.carrotsearch.hppc.ObjectObjectOpenHashMap;
+
 import de.linearbits.jhpl.PredictiveProperty;
 
 /**
@@ -66,13 +68,23 @@ public class SolutionSpaceIntArray extends SolutionSpace<IntArrayWrapper> {
     /** Size */
     private BigInteger                                                   size       = null;
 
+    /** Data */
+    private final ObjectObjectOpenHashMap<Object, Object>                data       = new ObjectObjectOpenHashMap<>();
+
+    /** Lower bounds */
+    private final ObjectObjectOpenHashMap<Object, InformationLoss<?>>    lowerBound = new ObjectObjectOpenHashMap<>();
+
+    /** Information loss */
+    private final ObjectObjectOpenHashMap<Object, InformationLoss<?>>    utility    = new ObjectObjectOpenHashMap<>();
+
     /**
      * Delegate constructor
      * @param lattice
      * @param config
      */
     public SolutionSpaceIntArray(ARXLattice lattice, ARXConfiguration config) {
-        super(lattice, config);
+        super(lattice.getBottom().getTransformation(), lattice.getTop().getTransformation());
+        initialize(lattice, config);
     }
 
     /**
@@ -23,6 +23,8 @@ import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.ARXLattice;
 import org.deidentifier.arx.metric.InformationLoss;
 
+import com.carrotsearch.hppc.LongObjectOpenHashMap;
+
 import de.linearbits.jhpl.PredictiveProperty;
 
 /**
@@ -31,13 +33,23 @@ import de.linearbits.jhpl.PredictiveProperty;
  */
 public class SolutionSpaceLong extends SolutionSpace<Long> {
 
+    /** Data, keyed by primitive identifiers */
+    private final LongObjectOpenHashMap<Object>             data       = new LongObjectOpenHashMap<>();
+
+    /** Lower bounds, keyed by primitive identifiers */
+    private final LongObjectOpenHashMap<InformationLoss<?>> lowerBound = new LongObjectOpenHashMap<>();
+
+    /** Information loss, keyed by primitive identifiers */
+    private final LongObjectOpenHashMap<InformationLoss<?>> utility    = new LongObjectOpenHashMap<>();
+
     /**
      * Delegate constructor
      * @param lattice
      * @param config
      */
     public SolutionSpaceLong(ARXLattice lattice, ARXConfiguration config) {
-        super(lattice, config);
+        super(lattice.getBottom().getTransformation(), lattice.getTop().getTransformation());
+        initialize(lattice, config);
     }
 
     /**
@@ -96,7 +108,15 @@ public class SolutionSpaceLong extends SolutionSpace<Long> {
      * @return
      */
     public Transformation<Long> getTransformation(Object _identifier) {
-        long identifier = (Long)_identifier;
+        return getTransformation((long)(Long)_identifier);
+    }
+
+    /**
+     * Returns the transformation with the given identifier, without boxing it
+     * @param identifier
+     * @return
+     */
+    public TransformationLong getTransformation(long identifier) {
         int[] transformationJHPL = lattice.space().toIndex(identifier);
         return new TransformationLong(transformationJHPL, identifier, lattice, this);
     }
@@ -107,8 +127,16 @@ public class SolutionSpaceLong extends SolutionSpace<Long> {
      * @return
      */
     public InformationLoss<?> getUtility(Object _identifier) {
-        long identifier = (Long)_identifier;
-        return utility.getOrDefault(identifier, null);
+        return getUtility((long)(Long)_identifier);
+    }
+
+    /**
+     * Returns the utility of the transformation with the given identifier, without boxing it
+     * @param identifier
+     * @return
+     */
+    public InformationLoss<?> getUtility(long identifier) {
+        return utility.get(identifier);
     }
     
     /**
@@ -146,7 +174,16 @@ public class SolutionSpaceLong extends SolutionSpace<Long> {
      * @return
      */
     protected Object getData(Long id) {
-        return data.getOrDefault(id, null);
+        return getData((long)id);
+    }
+
+    /**
+     * Returns data
+     * @param id
+     * @return
+     */
+    protected Object getData(long id) {
+        return data.get(id);
     }
     
     /**
@@ -155,7 +192,16 @@ public class SolutionSpaceLong extends SolutionSpace<Long> {
      * @return
      */
     protected InformationLoss<?> getInformationLoss(Long identifier) {
-        return utility.getOrDefault(identifier, null);
+        return getInformationLoss((long)identifier);
+    }
+
+    /**
+     * Returns the information loss
+     * @param identifier
+     * @return
+     */
+    protected InformationLoss<?> getInformationLoss(long identifier) {
+        return utility.get(identifier);
     }
     
     /**
@@ -164,7 +210,16 @@ public class SolutionSpaceLong extends SolutionSpace<Long> {
      * @return
      */
     protected InformationLoss<?> getLowerBound(Long identifier) {
-        return lowerBound.getOrDefault(identifier, null);
+        return getLowerBound((long)identifier);
+    }
+
+    /**
+     * Returns the lower bound
+     * @param identifier
+     * @return
+     */
+    protected InformationLoss<?> getLowerBound(long identifier) {
+        return lowerBound.get(identifier);
     }
 
     /**
@@ -173,6 +228,15 @@ public class SolutionSpaceLong extends SolutionSpace<Long> {
      * @param object
      */
     protected void setData(Long id, Object object) {
+        setData((long)id, object);
+    }
+
+    /**
+     * Sets data
+     * @param id
+     * @param object
+     */
+    protected void setData(long id, Object object) {
         data.put(id, object);
     }
 
@@ -193,6 +257,15 @@ public class SolutionSpaceLong extends SolutionSpace<Long> {
      * @param loss
      */
     protected void setInformationLoss(Long identifier, InformationLoss<?> loss) {
+        setInformationLoss((long)identifier, loss);
+    }
+
+    /**
+     * Sets the information loss
+     * @param identifier
+     * @param loss
+     */
+    protected void setInformationLoss(long identifier, InformationLoss<?> loss) {
         utility.put(identifier, loss);
     }
 
@@ -202,6 +275,15 @@ public class SolutionSpaceLong extends SolutionSpace<Long> {
      * @param loss
      */
     protected void setLowerBound(Long identifier, InformationLoss<?> loss) {
+        setLowerBound((long)identifier, loss);
+    }
+
+    /**
+     * Sets the lower bound
+     * @param identifier
+     * @param loss
+     */
+    protected void setLowerBound(long identifier, InformationLoss<?> loss) {
         lowerBound.put(identifier, loss);
     }
 }
@@ -17,6 +17,8 @@
 
 package org.deidentifier.arx.framework.lattice;
 
+import org.deidentifier.arx.metric.InformationLoss;
+
 import cern.colt.list.LongArrayList;
 import de.linearbits.jhpl.JHPLIterator.LongIterator;
 import de.linearbits.jhpl.Lattice;
@@ -30,6 +32,12 @@ import de.linearbits.jhpl.PredictiveProperty.Direction;
  */
 public class TransformationLong extends Transformation<Long> {
 
+    /** The id, which is used to access the solution space without boxing. */
+    private final long              id;
+
+    /** The solution space */
+    private final SolutionSpaceLong space;
+
     /**
      * Instantiates a new transformation.
      * @param transformation In ARX space
@@ -38,7 +46,9 @@ public class TransformationLong extends Transformation<Long> {
      */
     protected TransformationLong(int[] transformation, Lattice<Integer, Integer> lattice, SolutionSpaceLong solutionSpace) {
         super(transformation, lattice, solutionSpace);
-        this.identifier = lattice.space().toId(transformationJHPL);
+        this.id = lattice.space().toId(transformationJHPL);
+        this.identifier = id;
+        this.space = solutionSpace;
     }
 
     /**
@@ -53,7 +63,24 @@ public class TransformationLong extends Transformation<Long> {
                               Lattice<Integer, Integer> lattice,
                               SolutionSpaceLong solutionSpace) {
         super(solutionSpace.fromJHPL(transformationJHPL), lattice, solutionSpace);
+        this.id = identifier;
         this.identifier = identifier;
+        this.space = solutionSpace;
+    }
+
+    @Override
+    public Object getData() {
+        return space.getData(id);
+    }
+
+    @Override
+    public InformationLoss<?> getInformationLoss() {
+        return space.getInformationLoss(id);
+    }
+
+    @Override
+    public InformationLoss<?> getLowerBound() {
+        return space.getLowerBound(id);
     }
 
     /**
@@ -64,7 +91,7 @@ public class TransformationLong extends Transformation<Long> {
     public TransformationList<Long> getPredecessors() {
         
         LongArrayList result = new LongArrayList();
-        for (LongIterator iter = lattice.nodes().listPredecessorsAsIdentifiers(transformationJHPL, identifier); iter.hasNext();) {
+        for (LongIterator iter = lattice.nodes().listPredecessorsAsIdentifiers(transformationJHPL, id); iter.hasNext();) {
             result.add(iter.next());
         }
         return TransformationList.create(result);
@@ -76,7 +103,7 @@ public class TransformationLong extends Transformation<Long> {
      */
     public TransformationList<Long> getSuccessors() {
         cern.colt.list.LongArrayList result = new cern.colt.list.LongArrayList();
-        for (LongIterator iter = lattice.nodes().listSuccessorsAsIdentifiers(transformationJHPL, identifier); iter.hasNext();) {
+        for (LongIterator iter = lattice.nodes().listSuccessorsAsIdentifiers(transformationJHPL, id); iter.hasNext();) {
             result.add(iter.next());
         }
         int lower = 0;
@@ -91,6 +118,21 @@ public class TransformationLong extends Transformation<Long> {
         return TransformationList.create(result);
     }
 
+    @Override
+    public void setData(Object object) {
+        space.setData(id, object);
+    }
+
+    @Override
+    public void setInformationLoss(InformationLoss<?> informationLoss) {
+        space.setInformationLoss(id, informationLoss);
+    }
+
+    @Override
+    public void setLowerBound(InformationLoss<?> lowerBound) {
+        space.setLowerBound(id, lowerBound);
+    }
+
     /**
      * Sets the property to all neighbors
      * @param property
@@ -98,9 +140,9 @@ public class TransformationLong extends Transformation<Long> {
     public void setPropertyToNeighbours(PredictiveProperty property) {
         LongIterator neighbors;
         if (property.getDirection() == Direction.UP) {
-            neighbors = lattice.nodes().listSuccessorsAsIdentifiers(transformationJHPL, identifier);
+            neighbors = lattice.nodes().listSuccessorsAsIdentifiers(transformationJHPL, id);
         } else if (property.getDirection() == Direction.DOWN) {
-            neighbors = lattice.nodes().listPredecessorsAsIdentifiers(transformationJHPL, identifier);
+            neighbors = lattice.nodes().listPredecessorsAsIdentifiers(transformationJHPL, id);
         } else {
             return;
         }
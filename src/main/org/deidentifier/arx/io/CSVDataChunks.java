@@ -0,0 +1,335 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.commons.io.input.BoundedInputStream;
+
+/**
+ * Splits a CSV file into chunks of records, which can be parsed independently of each other.
+ * Chunks are split at line breaks which are not part of a quoted value. Splitting is performed
+ * on bytes and is therefore only supported for charsets in which the syntactical characters
+ * are encoded as single bytes which do not occur within the encoding of other characters.
+ * For all other charsets, the file consists of a single chunk.
+ *
+ * @author Fabian Prasser
+ */
+public class CSVDataChunks {
+
+    /**
+     * Reader which opens the given range of a file on first access
+     * 
+     * @author Fabian Prasser
+     */
+    private static class LazyChunkReader extends Reader {
+
+        /** Reader */
+        private Reader        reader = null;
+
+        /** File */
+        private final File    file;
+
+        /** Charset */
+        private final Charset charset;
+
+        /** First byte */
+        private final long    offset;
+
+        /** Number of bytes */
+        private final long    length;
+
+        /**
+         * Creates a new instance
+         * @param file
+         * @param charset
+         * @param offset
+         * @param length
+         */
+        private LazyChunkReader(File file, Charset charset, long offset, long length) {
+            this.file = file;
+            this.charset = charset;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (reader != null) {
+                reader.close();
+            }
+        }
+
+        @Override
+        @SuppressWarnings("resource")
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            if (reader == null) {
+                FileInputStream stream = new FileInputStream(file);
+                stream.getChannel().position(offset);
+                reader = new InputStreamReader(new BoundedInputStream(stream, length), charset);
+            }
+            return reader.read(cbuf, off, len);
+        }
+    }
+
+    /** Minimal size of a chunk in bytes */
+    private static final long MIN_CHUNK_SIZE   = 1 << 16;
+
+    /** State of the scanner: at the beginning of a value */
+    private static final int  STATE_START      = 0;
+
+    /** State of the scanner: within an unquoted value */
+    private static final int  STATE_UNQUOTED   = 1;
+
+    /** State of the scanner: within a quoted value */
+    private static final int  STATE_QUOTED     = 2;
+
+    /** State of the scanner: after a quote within a quoted value */
+    private static final int  STATE_QUOTE      = 3;
+
+    /** State of the scanner: after an escape character within a quoted value */
+    private static final int  STATE_ESCAPE     = 4;
+
+    /**
+     * Returns whether splitting files with the given charset is supported
+     * @param charset
+     * @return
+     */
+    public static boolean isSupported(Charset charset) {
+        return charset.equals(StandardCharsets.UTF_8) ||
+               charset.equals(StandardCharsets.US_ASCII) ||
+               charset.equals(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Returns whether splitting files with the given charset and syntax is supported. This requires
+     * all syntactical characters to be encoded as a single byte in the given charset.
+     * @param charset
+     * @param delimiter
+     * @param quote
+     * @param escape
+     * @param linebreak
+     * @return
+     */
+    public static boolean isSupported(Charset charset, char delimiter, char quote, char escape, char[] linebreak) {
+        
+        // Check charset
+        if (!isSupported(charset)) {
+            return false;
+        }
+        
+        // Check syntax
+        char max = charset.equals(StandardCharsets.ISO_8859_1) ? (char) 0xFF : (char) 0x7F;
+        if (delimiter > max || quote > max || escape > max) {
+            return false;
+        }
+        for (char character : linebreak) {
+            if (character > max) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** File */
+    private final File       file;
+
+    /** Charset */
+    private final Charset    charset;
+
+    /** Syntax */
+    private final CSVSyntax  syntax;
+
+    /** Options */
+    private final CSVOptions options;
+
+    /** Offsets of the chunks, followed by the size of the file */
+    private final long[]     offsets;
+
+    /**
+     * Splits the given file into at most the given number of chunks
+     * @param file
+     * @param charset
+     * @param syntax
+     * @param options
+     * @param chunks
+     * @throws IOException
+     */
+    public CSVDataChunks(File file, Charset charset, CSVSyntax syntax, CSVOptions options, int chunks) throws IOException {
+        this.file = file;
+        this.charset = charset;
+        this.syntax = syntax;
+        this.options = options;
+        if (!file.isFile() || !file.canRead()) {
+            throw new FileNotFoundException(file.getPath());
+        }
+        long size = file.length();
+        chunks = (int) Math.max(1, Math.min(chunks, size / MIN_CHUNK_SIZE));
+        boolean supported = isSupported(charset, syntax.getDelimiter(), syntax.getQuote(), syntax.getEscape(), syntax.getLinebreak());
+        this.offsets = supported && chunks > 1 ? split(size, chunks) : new long[] { 0, size };
+    }
+
+    /**
+     * Returns the number of chunks
+     * @return
+     */
+    public int getNumChunks() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Returns an iterator over the records in the given chunk. The first chunk starts with
+     * the header, if any. <b>You must iterate trough all elements to prevent resource leaks!</b>
+     * @param chunk
+     * @return
+     * @throws IOException
+     */
+    public Iterator<String[]> iterator(int chunk) throws IOException {
+        CSVMappedInput mapped = CSVMappedInput.create(file, charset, offsets[chunk], offsets[chunk + 1] - offsets[chunk],
+                                                      syntax.getDelimiter(), syntax.getQuote(), syntax.getEscape(),
+                                                      syntax.getLinebreak(), options);
+        if (mapped != null) {
+            return mapped.iterator();
+        }
+        Reader reader = new LazyChunkReader(file, charset, offsets[chunk], offsets[chunk + 1] - offsets[chunk]);
+        return new CSVDataInput(reader,
+                                syntax.getDelimiter(),
+                                syntax.getQuote(),
+                                syntax.getEscape(),
+                                syntax.getLinebreak(),
+                                null,
+                                options).iterator(false);
+    }
+
+    /**
+     * Returns iterators over the records in all chunks
+     * @return
+     * @throws IOException
+     */
+    public List<Iterator<String[]>> iterators() throws IOException {
+        List<Iterator<String[]>> result = new ArrayList<>();
+        for (int chunk = 0; chunk < getNumChunks(); chunk++) {
+            result.add(iterator(chunk));
+        }
+        return result;
+    }
+
+    /**
+     * Scans the file and returns the offsets of the records which follow the given
+     * number of equally spaced positions
+     * @param size
+     * @param chunks
+     * @return
+     * @throws IOException
+     */
+    private long[] split(long size, int chunks) throws IOException {
+        
+        // Prepare
+        byte delimiter = (byte) syntax.getDelimiter();
+        byte quote = (byte) syntax.getQuote();
+        byte escape = (byte) syntax.getEscape();
+        char[] linebreak = syntax.getLinebreak();
+        byte end = (byte) linebreak[linebreak.length - 1];
+        List<Long> offsets = new ArrayList<>();
+        offsets.add(0L);
+        long target = size / chunks;
+        
+        // Scan
+        try (InputStream stream = new FileInputStream(file)) {
+            byte[] buffer = new byte[1 << 16];
+            int state = STATE_START;
+            long position = 0;
+            int read;
+            while (offsets.size() < chunks && (read = stream.read(buffer)) != -1) {
+                for (int i = 0; i < read && offsets.size() < chunks; i++) {
+                    byte current = buffer[i];
+                    position++;
+                    
+                    // Leave quoted values
+                    if (state == STATE_QUOTE) {
+                        if (current == quote && escape == quote) {
+                            state = STATE_QUOTED;
+                            continue;
+                        }
+                        state = STATE_UNQUOTED;
+                    } else if (state == STATE_ESCAPE) {
+                        state = STATE_QUOTED;
+                        continue;
+                    }
+                    
+                    // Process quoted values
+                    if (state == STATE_QUOTED) {
+                        if (current == quote) {
+                            state = STATE_QUOTE;
+                        } else if (current == escape) {
+                            state = STATE_ESCAPE;
+                        }
+                        continue;
+                    }
+                    
+                    // Enter quoted values and skip leading whitespace
+                    if (state == STATE_START) {
+                        if (current == quote) {
+                            state = STATE_QUOTED;
+                            continue;
+                        } else if (current == ' ' || current == '\t') {
+                            continue;
+                        }
+                    }
+                    
+                    // Process unquoted values
+                    if (current == delimiter) {
+                        state = STATE_START;
+                    } else if (current == end) {
+                        state = STATE_START;
+                        if (position >= target) {
+                            offsets.add(position);
+                            target = Math.max(position, size * offsets.size() / chunks);
+                        }
+                    } else {
+                        state = STATE_UNQUOTED;
+                    }
+                }
+            }
+        }
+        
+        // Remove empty chunk at the end
+        if (offsets.get(offsets.size() - 1) == size) {
+            offsets.remove(offsets.size() - 1);
+        }
+        
+        // Convert
+        long[] result = new long[offsets.size() + 1];
+        for (int i = 0; i < offsets.size(); i++) {
+            result[i] = offsets.get(i);
+        }
+        result[offsets.size()] = size;
+        return result;
+    }
+}
@@ -19,7 +19,6 @@ package org.deidentifier.arx.io;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -84,6 +83,9 @@ public class CSVDataInput {
     /** A reader. */
     private final Reader            reader;
 
+    /** Memory-mapped input, if enabled */
+    private final CSVMappedInput    mapped;
+
     /** Settings. */
     private final CsvParserSettings settings;
 
@@ -165,7 +167,9 @@ public class CSVDataInput {
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public CSVDataInput(final File file, final Charset charset, final char delimiter, final char quote, final char escape, final char[] linebreak, final CSVOptions options) throws IOException {
-        this(new LazyFileReader(file, charset), delimiter, quote, escape, linebreak, null, options);
+        this(new LazyFileReader(file, charset),
+             CSVMappedInput.create(file, charset, 0, file.length(), delimiter, quote, escape, linebreak, options),
+             delimiter, quote, escape, linebreak, null, options);
     }
     
     /**
@@ -188,13 +192,7 @@ public class CSVDataInput {
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public CSVDataInput(final File file, final Charset charset,  final CSVSyntax config, final CSVOptions options) throws IOException {
-        this(new FileReader(file),
-             config.getDelimiter(),
-             config.getQuote(),
-             config.getEscape(),
-             config.getLinebreak(),
-             null,
-             options);
+        this(file, charset, config.getDelimiter(), config.getQuote(), config.getEscape(), config.getLinebreak(), options);
     }
     
     /**
@@ -358,7 +356,24 @@ public class CSVDataInput {
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public CSVDataInput(final Reader reader, final char delimiter, final char quote, final char escape, final char[] linebreak, final DataType<?>[] datatypes, CSVOptions options) throws IOException {
+        this(reader, null, delimiter, quote, escape, linebreak, datatypes, options);
+    }
+
+    /**
+     * Instantiate.
+     *
+     * @param reader the reader
+     * @param mapped the memory-mapped input, if any
+     * @param delimiter the delimiter
+     * @param quote the quote
+     * @param escape the escape
+     * @param linebreak the linebreak
+     * @param options the options
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private CSVDataInput(final Reader reader, final CSVMappedInput mapped, final char delimiter, final char quote, final char escape, final char[] linebreak, final DataType<?>[] datatypes, CSVOptions options) throws IOException {
         this.reader = reader;
+        this.mapped = datatypes == null ? mapped : null;
         this.datatypes = datatypes;
         if (datatypes != null) {
             cleansing = true;
@@ -463,7 +478,7 @@ public class CSVDataInput {
      * @throws IOException 
      */
     public CSVDataInput(String filename, Charset charset, CSVSyntax config, CSVOptions options) throws IOException {
-        this(new LazyFileReader(new File(filename), charset), config.getDelimiter(), config.getQuote(), config.getEscape(), config.getLinebreak(), null, options);
+        this(new File(filename), charset, config, options);
     }
 
     /**
@@ -504,6 +519,11 @@ public class CSVDataInput {
      */
     public Iterator<String[]> iterator(final boolean header) {
 
+        // Tokenize bytes directly
+        if (mapped != null) {
+            return mapped.iterator();
+        }
+
         return new Iterator<String[]>() {
 
             // Next record
@@ -0,0 +1,492 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reader for CSV encoded information which memory-maps the file and tokenizes its bytes
+ * directly, without decoding the file into characters first. Values are interned via a
+ * hash of their bytes, so that a string is only created once per distinct value instead
+ * of once per cell. Only supported for the charsets and syntax supported by {@link CSVDataChunks}.
+ *
+ * @author Fabian Prasser
+ */
+class CSVMappedInput {
+
+    /** Size of the memory-mapped window in bytes */
+    private static final int WINDOW_SIZE        = 1 << 26;
+
+    /** Maximal number of interned values, before the cache is cleared */
+    private static final int MAX_INTERNED       = 1 << 20;
+
+    /** Result of parsing a record: a record has been parsed */
+    private static final int RESULT_RECORD      = 0;
+
+    /** Result of parsing a record: an empty line has been skipped */
+    private static final int RESULT_EMPTY       = 1;
+
+    /** Result of parsing a record: the record exceeds the current window */
+    private static final int RESULT_REMAP       = 2;
+
+    /**
+     * Returns a reader for the given range of the file, if memory-mapping has been enabled
+     * in the options and the charset and syntax are supported. Returns <code>null</code> otherwise.
+     * @param file
+     * @param charset
+     * @param offset
+     * @param length
+     * @param delimiter
+     * @param quote
+     * @param escape
+     * @param linebreak
+     * @param options
+     * @return
+     */
+    static CSVMappedInput create(File file, Charset charset, long offset, long length,
+                                 char delimiter, char quote, char escape, char[] linebreak,
+                                 CSVOptions options) {
+        if (options == null || !options.isMemoryMapped() ||
+            !CSVDataChunks.isSupported(charset, delimiter, quote, escape, linebreak)) {
+            return null;
+        }
+        return new CSVMappedInput(file, charset, offset, length, delimiter, quote, escape, linebreak, options);
+    }
+
+    /** File */
+    private final File    file;
+
+    /** Charset */
+    private final Charset charset;
+
+    /** First byte */
+    private final long    offset;
+
+    /** Number of bytes */
+    private final long    length;
+
+    /** Delimiter */
+    private final byte    delimiter;
+
+    /** Quote */
+    private final byte    quote;
+
+    /** Escape */
+    private final byte    escape;
+
+    /** First character of a line break consisting of two characters, end otherwise */
+    private final byte    start;
+
+    /** Last character of the line break */
+    private final byte    end;
+
+    /** Normalized line break within quoted values */
+    private final byte    normalized;
+
+    /** Max columns */
+    private final int     maxColumns;
+
+    /**
+     * Creates a new instance
+     * @param file
+     * @param charset
+     * @param offset
+     * @param length
+     * @param delimiter
+     * @param quote
+     * @param escape
+     * @param linebreak
+     * @param options
+     */
+    private CSVMappedInput(File file, Charset charset, long offset, long length,
+                           char delimiter, char quote, char escape, char[] linebreak,
+                           CSVOptions options) {
+        this.file = file;
+        this.charset = charset;
+        this.offset = offset;
+        this.length = length;
+        this.delimiter = (byte) delimiter;
+        this.quote = (byte) quote;
+        this.escape = (byte) escape;
+        this.start = (byte) linebreak[0];
+        this.end = (byte) linebreak[linebreak.length - 1];
+        this.normalized = (byte) CSVSyntax.getNormalizedLinebreak(linebreak);
+        this.maxColumns = options.getMaxColumns() > 0 ? options.getMaxColumns() : 4096;
+    }
+
+    /**
+     * Returns an iterator. <b>You must iterate trough all elements to prevent resource leaks!</b>
+     * 
+     * @return the iterator
+     */
+    Iterator<String[]> iterator() {
+
+        return new Iterator<String[]>() {
+
+            /** Channel */
+            private FileChannel  channel;
+
+            /** Mapped window */
+            private ByteBuffer   buffer;
+
+            /** Size of the window */
+            private int          size        = WINDOW_SIZE;
+
+            /** First byte of the window */
+            private long         windowStart = -1;
+
+            /** Byte following the window */
+            private long         windowEnd   = -1;
+
+            /** Current position */
+            private long         position    = offset;
+
+            /** Values of the current record */
+            private List<String> values      = new ArrayList<>();
+
+            /** Bytes of the current value */
+            private byte[]       bytes       = new byte[256];
+
+            /** Number of bytes of the current value */
+            private int          count       = 0;
+
+            /** Interned bytes */
+            private byte[][]     keys        = new byte[1024][];
+
+            /** Interned strings */
+            private String[]     strings     = new String[1024];
+
+            /** Hash codes of interned values */
+            private int[]        hashes      = new int[1024];
+
+            /** Number of interned values */
+            private int          interned    = 0;
+
+            /** Next record */
+            private String[]     next        = null;
+
+            /** Initialized */
+            private boolean      initialized = false;
+
+            @Override
+            public boolean hasNext() {
+                if (!initialized) {
+                    next = parseNext();
+                    initialized = true;
+                }
+                return next != null;
+            }
+
+            @Override
+            public String[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                String[] result = next;
+                next = parseNext();
+                return result;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Not implemented");
+            }
+
+            /**
+             * Appends a byte to the current value
+             * @param value
+             */
+            private void append(byte value) {
+                if (count == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, count * 2);
+                }
+                bytes[count++] = value;
+            }
+
+            /**
+             * Closes the channel
+             */
+            private void close() {
+                buffer = null;
+                if (channel != null) {
+                    try {
+                        channel.close();
+                    } catch (IOException e) {
+                        // Ignore
+                    }
+                    channel = null;
+                }
+            }
+
+            /**
+             * Returns the interned string for the current value
+             * @return
+             */
+            private String intern() {
+
+                // Hash
+                int hash = 1;
+                for (int i = 0; i < count; i++) {
+                    hash = 31 * hash + bytes[i];
+                }
+                hash ^= (hash >>> 16);
+
+                // Probe
+                int mask = keys.length - 1;
+                int slot = hash & mask;
+                while (keys[slot] != null) {
+                    if (hashes[slot] == hash && equals(keys[slot])) {
+                        return strings[slot];
+                    }
+                    slot = (slot + 1) & mask;
+                }
+
+                // Bound memory consumption for high-cardinality values
+                if (interned == MAX_INTERNED) {
+                    Arrays.fill(keys, null);
+                    Arrays.fill(strings, null);
+                    interned = 0;
+                    slot = hash & mask;
+                }
+
+                // Insert
+                String result = new String(bytes, 0, count, charset);
+                keys[slot] = Arrays.copyOf(bytes, count);
+                strings[slot] = result;
+                hashes[slot] = hash;
+                if (++interned * 2 > keys.length) {
+                    rehash();
+                }
+                return result;
+            }
+
+            /**
+             * Returns whether the current value equals the given bytes
+             * @param key
+             * @return
+             */
+            private boolean equals(byte[] key) {
+                if (key.length != count) {
+                    return false;
+                }
+                for (int i = 0; i < count; i++) {
+                    if (key[i] != bytes[i]) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            /**
+             * Returns whether the byte is whitespace, which is ignored at the beginning
+             * and at the end of values
+             * @param value
+             * @return
+             */
+            private boolean isWhitespace(byte value) {
+                return (value & 0xFF) <= ' ' && value != delimiter && value != end;
+            }
+
+            /**
+             * Maps the window starting at the given position
+             * @param start
+             * @throws IOException
+             */
+            private void map(long start) throws IOException {
+                if (channel == null) {
+                    RandomAccessFile input = new RandomAccessFile(file, "r");
+                    channel = input.getChannel();
+                }
+                windowStart = start;
+                windowEnd = Math.min(offset + length, start + size);
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+            }
+
+            /**
+             * Parses the next record
+             * @return
+             */
+            private String[] parseNext() {
+                try {
+                    while (position < offset + length) {
+                        if (buffer == null || position >= windowEnd) {
+                            map(position);
+                        }
+                        switch (parseRecord()) {
+                        case RESULT_RECORD:
+                            return values.toArray(new String[values.size()]);
+                        case RESULT_REMAP:
+                            if (windowStart == position) {
+                                size = (int) Math.min(Integer.MAX_VALUE, 2L * size);
+                            }
+                            map(position);
+                            break;
+                        default:
+                            break;
+                        }
+                    }
+                    close();
+                    return null;
+                } catch (IOException e) {
+                    close();
+                    throw new RuntimeException(e);
+                }
+            }
+
+            /**
+             * Parses the record at the current position
+             * @return
+             */
+            private int parseRecord() {
+
+                // Prepare
+                values.clear();
+                int limit = (int) (windowEnd - windowStart);
+                boolean last = windowEnd == offset + length;
+                int index = (int) (position - windowStart);
+                boolean quoted = false;
+
+                // For each value
+                while (true) {
+
+                    // Skip leading whitespace
+                    count = 0;
+                    while (index < limit && isWhitespace(buffer.get(index))) {
+                        index++;
+                    }
+
+                    // Quoted value
+                    quoted = index < limit && buffer.get(index) == quote;
+                    if (quoted) {
+                        index++;
+                        while (true) {
+                            if (index == limit) {
+                                if (!last) {
+                                    return RESULT_REMAP;
+                                }
+                                break;
+                            }
+                            byte current = buffer.get(index++);
+                            if (current == quote) {
+                                if (escape == quote && index < limit && buffer.get(index) == quote) {
+                                    append(quote);
+                                    index++;
+                                    continue;
+                                } else if (escape == quote && index == limit && !last) {
+                                    return RESULT_REMAP;
+                                }
+                                break;
+                            } else if (current == escape && escape != quote) {
+                                if (index == limit && !last) {
+                                    return RESULT_REMAP;
+                                } else if (index < limit && buffer.get(index) == quote) {
+                                    append(quote);
+                                    index++;
+                                    continue;
+                                }
+                            } else if (current == start && start != end) {
+                                if (index == limit && !last) {
+                                    return RESULT_REMAP;
+                                } else if (index < limit && buffer.get(index) == end) {
+                                    append(normalized);
+                                    index++;
+                                    continue;
+                                }
+                            } else if (count == 0 && (current & 0xFF) <= ' ') {
+                                continue;
+                            }
+                            append(current);
+                        }
+                        trim(0);
+                    }
+
+                    // Unquoted value or remainder after quotes
+                    int start = count;
+                    while (index < limit) {
+                        byte current = buffer.get(index);
+                        if (current == delimiter || current == end) {
+                            break;
+                        }
+                        append(current);
+                        index++;
+                    }
+                    if (index == limit && !last) {
+                        return RESULT_REMAP;
+                    }
+                    trim(start);
+
+                    // Check
+                    if (values.size() == maxColumns) {
+                        throw new IllegalArgumentException("More than " + maxColumns + " columns available in CSV file");
+                    }
+                    values.add(intern());
+
+                    // End of value
+                    if (index == limit || buffer.get(index++) == end) {
+                        position = windowStart + index;
+                        return values.size() == 1 && count == 0 && !quoted ? RESULT_EMPTY : RESULT_RECORD;
+                    }
+                }
+            }
+
+            /**
+             * Doubles the size of the cache
+             */
+            private void rehash() {
+                byte[][] oldKeys = keys;
+                String[] oldStrings = strings;
+                int[] oldHashes = hashes;
+                keys = new byte[oldKeys.length * 2][];
+                strings = new String[oldKeys.length * 2];
+                hashes = new int[oldKeys.length * 2];
+                int mask = keys.length - 1;
+                for (int i = 0; i < oldKeys.length; i++) {
+                    if (oldKeys[i] != null) {
+                        int slot = oldHashes[i] & mask;
+                        while (keys[slot] != null) {
+                            slot = (slot + 1) & mask;
+                        }
+                        keys[slot] = oldKeys[i];
+                        strings[slot] = oldStrings[i];
+                        hashes[slot] = oldHashes[i];
+                    }
+                }
+            }
+
+            /**
+             * Removes trailing whitespace from the current value, not before the given index
+             * @param start
+             */
+            private void trim(int start) {
+                while (count > start && (bytes[count - 1] & 0xFF) <= ' ') {
+                    count--;
+                }
+            }
+        };
+    }
+}
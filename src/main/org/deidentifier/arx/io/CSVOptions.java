@@ -33,6 +33,12 @@ public class CSVOptions implements Serializable { // NO_UCD
 
     /** The max columns. */
     private Integer           maxColumns;
+
+    /** The number of threads used for importing data */
+    private Integer           parallelism;
+
+    /** Whether files are memory-mapped when importing data */
+    private Boolean           memoryMapped;
     
     /**
      * Creates new options
@@ -49,6 +55,22 @@ public class CSVOptions implements Serializable { // NO_UCD
         return maxColumns;
     }
 
+    /**
+     * Returns the number of threads used for importing data
+     * @return
+     */
+    public int getParallelism() {
+        return parallelism == null ? 1 : parallelism;
+    }
+
+    /**
+     * Returns whether files are memory-mapped when importing data
+     * @return
+     */
+    public boolean isMemoryMapped() {
+        return memoryMapped == null ? false : memoryMapped;
+    }
+
     /**
      * @param maxColumns the maxColumns to set
      */
@@ -56,6 +78,30 @@ public class CSVOptions implements Serializable { // NO_UCD
         this.maxColumns = maxColumns;
     }
 
+    /**
+     * Sets whether files are memory-mapped when importing data. If enabled, files encoded
+     * in UTF-8, US-ASCII or ISO-8859-1, in which all syntactical characters are encoded as
+     * single bytes, are tokenized directly on bytes and a string is only created once per
+     * distinct value. Default is false.
+     * @param memoryMapped
+     */
+    public void setMemoryMapped(boolean memoryMapped) {
+        this.memoryMapped = memoryMapped;
+    }
+
+    /**
+     * Sets the number of threads used for importing data from files. If more than one
+     * thread is used, the file is split into chunks at record boundaries, which are
+     * parsed and encoded in parallel. Default is 1.
+     * @param parallelism
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+    }
+
     /**
      * Applies the options
      * @param settings
@@ -1515,6 +1515,17 @@ public abstract class Metric<T extends InformationLoss<?>> implements Serializab
         return monotonic;
     }
 
+    /**
+     * Returns whether information loss, lower bounds and scores may be evaluated
+     * concurrently by multiple threads. Metrics which are not thread-safe are
+     * evaluated by one thread at a time.
+     * 
+     * @return
+     */
+    public boolean isThreadSafe() {
+        return false;
+    }
+
     /**
      * Returns true if the metric is multi-dimensional.
      *
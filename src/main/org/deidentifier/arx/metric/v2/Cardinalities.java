@@ -17,7 +17,23 @@
 
 package org.deidentifier.arx.metric.v2;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import org.deidentifier.arx.RowSet;
 import org.deidentifier.arx.framework.data.Data;
@@ -26,20 +42,160 @@ import org.deidentifier.arx.framework.data.Dictionary;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 
 /**
- * This class represents cardinalities.
+ * This class represents cardinalities. For each attribute, counts are stored in a flat
+ * array in level-major order, i.e. the count of value <code>id</code> on level <code>level</code>
+ * is stored at index <code>level * values + id</code>. Counts are computed in parallel per
+ * attribute. They are cached across instances, keyed by the input data from which the data
+ * has been projected, the research subset and the hierarchies. The encoded input data is only
+ * modified by swapping rows, which does not change counts.
  * TODO: This class can potentially be merged with DomainShare
  * TODO: It is not yet sure, which of both mechanisms performs better
  * 
  * @author Fabian Prasser
  */
 public class Cardinalities implements Serializable {
+
+    /**
+     * Key for the cache
+     *
+     * @author Fabian Prasser
+     */
+    private static class CacheKey {
+
+        /** Input data from which the data has been projected */
+        private final WeakReference<DataMatrix> source;
+
+        /** Columns of the input data */
+        private final int[]                     columns;
+
+        /** Copy of the research subset, if any */
+        private final RowSet                    subset;
+
+        /** Number of distinct values per column */
+        private final int[]                     values;
+
+        /** Hierarchies */
+        private final int[][][]                 hierarchies;
+
+        /** Hash code */
+        private final int                       hashcode;
+
+        /**
+         * Creates a new instance
+         * @param source
+         * @param columns
+         * @param subset
+         * @param values
+         * @param hierarchies
+         */
+        CacheKey(DataMatrix source, int[] columns, RowSet subset, int[] values, GeneralizationHierarchy[] hierarchies) {
+            this.source = new WeakReference<DataMatrix>(source);
+            this.columns = columns.clone();
+            this.subset = subset == null ? null : subset.clone();
+            this.values = values.clone();
+            this.hierarchies = new int[hierarchies.length][][];
+            for (int column = 0; column < hierarchies.length; column++) {
+                this.hierarchies[column] = hierarchies[column].getArray();
+            }
+            int hashcode = System.identityHashCode(source);
+            hashcode = 31 * hashcode + Arrays.hashCode(this.columns);
+            hashcode = 31 * hashcode + (subset == null ? -1 : subset.size());
+            hashcode = 31 * hashcode + Arrays.hashCode(this.values);
+            this.hashcode = 31 * hashcode + Arrays.deepHashCode(this.hierarchies);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof CacheKey)) return false;
+            CacheKey other = (CacheKey) obj;
+            DataMatrix source = this.source.get();
+            return source != null && source == other.source.get() && hashcode == other.hashcode &&
+                   Arrays.equals(columns, other.columns) && Arrays.equals(values, other.values) &&
+                   equals(subset, other.subset) && Arrays.deepEquals(hierarchies, other.hierarchies);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashcode;
+        }
+
+        /**
+         * Returns whether both subsets contain the same rows
+         * @param subset1
+         * @param subset2
+         * @return
+         */
+        private boolean equals(RowSet subset1, RowSet subset2) {
+            if (subset1 == null || subset2 == null) {
+                return subset1 == subset2;
+            }
+            if (subset1.length() != subset2.length() || subset1.size() != subset2.size()) {
+                return false;
+            }
+            for (int row = 0; row < subset1.length(); row++) {
+                if (subset1.contains(row) != subset2.contains(row)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
     
     /** SVUID. */
-    private static final long serialVersionUID = 6164578830669365810L;
-    
-    /** Cardinalities: Column -> Id -> Level -> Count. */
-    private final int[][][] cardinalities;
-    
+    private static final long                                  serialVersionUID       = 6164578830669365810L;
+
+    /** Serialized form, which is the nested representation used by previous versions */
+    private static final ObjectStreamField[]                   serialPersistentFields = { new ObjectStreamField("cardinalities", int[][][].class) };
+
+    /** Maximal number of datasets for which cardinalities are cached */
+    private static final int                                   CACHE_SIZE             = 16;
+
+    /** Cache: key -> cardinalities */
+    @SuppressWarnings("serial")
+    private static final Map<CacheKey, SoftReference<int[][]>> CACHE                  = new LinkedHashMap<CacheKey, SoftReference<int[][]>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, SoftReference<int[][]>> eldest) {
+            return size() > CACHE_SIZE || eldest.getKey().source.get() == null;
+        }
+    };
+
+    /**
+     * Returns cached cardinalities, if any
+     * @param key
+     * @return
+     */
+    private static int[][] getCached(CacheKey key) {
+        synchronized (CACHE) {
+            SoftReference<int[][]> reference = CACHE.get(key);
+            int[][] result = reference != null ? reference.get() : null;
+            if (reference != null && result == null) {
+                CACHE.remove(key);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Caches the given cardinalities
+     * @param key
+     * @param cardinalities
+     */
+    private static void putCached(CacheKey key, int[][] cardinalities) {
+        synchronized (CACHE) {
+            CACHE.put(key, new SoftReference<int[][]>(cardinalities));
+        }
+    }
+
+    /** Cardinalities: Column -> Level * Values + Id -> Count. Must not be modified, as arrays are shared. */
+    private transient int[][]   cardinalities;
+
+    /** Column -> Number of distinct values. */
+    private transient int[]     values;
+
+    /** Nested representation, created on demand. */
+    private transient int[][][] nested;
+
     /**
      * Creates a new instance for the given data set.
      *
@@ -47,55 +203,246 @@ public class Cardinalities implements Serializable {
      * @param subset
      * @param hierarchies
      */
-    public Cardinalities(Data data, RowSet subset, GeneralizationHierarchy[] hierarchies){
+    public Cardinalities(Data data, RowSet subset, GeneralizationHierarchy[] hierarchies) {
+        this(data, subset, hierarchies, 1);
+    }
 
-        DataMatrix array = data.getArray();
-        Dictionary dictionary = data.getDictionary();
+    /**
+     * Creates a new instance for the given data set, processing attributes with the given degree of parallelism.
+     *
+     * @param data
+     * @param subset
+     * @param hierarchies
+     * @param parallelism
+     */
+    public Cardinalities(Data data, final RowSet subset, final GeneralizationHierarchy[] hierarchies, int parallelism) {
+
+        final DataMatrix array = data.getArray();
+        final Dictionary dictionary = data.getDictionary();
+        final int columns = array.getNumColumns();
+
+        // Prepare
+        this.cardinalities = new int[columns][];
+        this.values = new int[columns];
+        for (int column = 0; column < columns; column++) {
+            this.values[column] = dictionary.getMapping()[column].length;
+        }
+
+        // Probe cache
+        CacheKey key = data.getSource() == null ? null : new CacheKey(data.getSource(), data.getColumns(), subset, values, hierarchies);
+        int[][] cached = key == null ? null : getCached(key);
+        if (cached != null) {
+            this.cardinalities = cached;
+            return;
+        }
         
-        // Initialize counts
-        cardinalities = new int[array.getNumColumns()][][];
-        for (int i = 0; i < cardinalities.length; i++) {
-            cardinalities[i] = new int[dictionary.getMapping()[i].length][hierarchies[i].getArray()[0].length];
+        // Compute and cache
+        compute(array, subset, hierarchies, parallelism);
+        if (key != null) {
+            putCached(key, this.cardinalities);
+        }
+    }
+
+    /**
+     * For backwards compatibility, derives the cardinalities from the given array.
+     *
+     * @param cardinalities
+     */
+    public Cardinalities(int[][][] cardinalities) {
+        this.setCardinalities(cardinalities);
+    }
+
+    /**
+     * Returns the count of the given value on the given level
+     *
+     * @param column
+     * @param value
+     * @param level
+     * @return
+     */
+    public int get(int column, int value, int level) {
+        return cardinalities[column][level * values[column] + value];
+    }
+
+    /**
+     * Returns the cardinalities of the given attribute in level-major order.
+     * The array must not be modified.
+     *
+     * @param column
+     * @return
+     */
+    public int[] getCardinalities(int column) {
+        return cardinalities[column];
+    }
+
+    /**
+     * Returns the cardinalities in the representation used by previous versions: Column -> Id -> Level -> Count.
+     * The representation is created on the first call. The array must not be modified.
+     *
+     * @return
+     */
+    public int[][][] getCardinalities(){
+        if (nested == null) {
+            int[][][] result = new int[cardinalities.length][][];
+            for (int column = 0; column < result.length; column++) {
+                int levels = values[column] == 0 ? 0 : cardinalities[column].length / values[column];
+                result[column] = new int[values[column]][levels];
+                for (int level = 0; level < levels; level++) {
+                    for (int value = 0; value < values[column]; value++) {
+                        result[column][value][level] = get(column, value, level);
+                    }
+                }
+            }
+            nested = result;
+        }
+        return nested;
+    }
+
+    /**
+     * Returns the number of distinct values of the given attribute
+     *
+     * @param column
+     * @return
+     */
+    public int getNumValues(int column) {
+        return values[column];
+    }
+
+    /**
+     * Computes the cardinalities of all attributes, processing attributes with the given degree of parallelism.
+     *
+     * @param array
+     * @param subset
+     * @param hierarchies
+     * @param parallelism
+     */
+    private void compute(final DataMatrix array, final RowSet subset, final GeneralizationHierarchy[] hierarchies, int parallelism) {
+
+        // Process attributes sequentially
+        final int columns = array.getNumColumns();
+        final int groups = Math.max(1, Math.min(parallelism, columns));
+        if (groups == 1) {
+            compute(array, subset, hierarchies, 0, 1);
+            return;
+        }
+
+        // Process groups of attributes in parallel
+        ExecutorService executor = Executors.newFixedThreadPool(groups - 1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "ARX-Cardinalities");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int group = 1; group < groups; group++) {
+                final int offset = group;
+                futures.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        compute(array, subset, hierarchies, offset, groups);
+                    }
+                }));
+            }
+            compute(array, subset, hierarchies, 0, groups);
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Computes the cardinalities of all attributes with index offset + i * step
+     *
+     * @param array
+     * @param subset
+     * @param hierarchies
+     * @param offset
+     * @param step
+     */
+    private void compute(DataMatrix array, RowSet subset, GeneralizationHierarchy[] hierarchies, int offset, int step) {
+
+        // Prepare
+        int rows = array.getNumRows();
+        int columns = array.getNumColumns();
+        for (int column = offset; column < columns; column += step) {
+            cardinalities[column] = new int[values[column] * hierarchies[column].getArray()[0].length];
         }
 
         // Compute counts
-        for (int i = 0; i < array.getNumRows(); i++) { 
-            if (subset == null || subset.contains(i)) {
-                array.setRow(i);
-                for (int column = 0; column < array.getNumColumns(); column++) {
-                    cardinalities[column][array.getValueAtColumn(column)][0]++;
+        for (int row = 0; row < rows; row++) {
+            if (subset == null || subset.contains(row)) {
+                for (int column = offset; column < columns; column += step) {
+                    cardinalities[column][array.get(row, column)]++;
                 }
             }
         }
 
         // Create counts for other levels
-        for (int column = 0; column < hierarchies.length; column++) {
+        for (int column = offset; column < columns; column += step) {
+            final int[] cardinality = cardinalities[column];
             final int[][] hierarchy = hierarchies[column].getArray();
+            final int size = values[column];
             for (int in = 0; in < hierarchy.length; in++) {
-                final int cardinality = cardinalities[column][in][0];
+                final int count = cardinality[in];
                 for (int level = 1; level < hierarchy[in].length; level++) {
-                    final int out = hierarchy[in][level];
-                    cardinalities[column][out][level] += cardinality;
+                    cardinality[level * size + hierarchy[in][level]] += count;
                 }
             }
         }
     }
-    
+
     /**
-     * For backwards compatibility, derives the cardinalities from the given array.
+     * Deserializes this object, converting from the nested representation
      *
-     * @param cardinalities
+     * @param stream
+     * @throws IOException
+     * @throws ClassNotFoundException
      */
-    public Cardinalities(int[][][] cardinalities) {
-        this.cardinalities = cardinalities;
+    private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = stream.readFields();
+        this.setCardinalities((int[][][]) fields.get("cardinalities", null));
     }
 
     /**
-     * Returns the cardinalities of the given value.
+     * Converts from the nested representation
      *
-     * @return
+     * @param cardinalities Column -> Id -> Level -> Count
      */
-    public int[][][] getCardinalities(){
-        return cardinalities;
+    private void setCardinalities(int[][][] cardinalities) {
+        this.cardinalities = new int[cardinalities.length][];
+        this.values = new int[cardinalities.length];
+        for (int column = 0; column < cardinalities.length; column++) {
+            int size = cardinalities[column].length;
+            int levels = size == 0 ? 0 : cardinalities[column][0].length;
+            this.values[column] = size;
+            this.cardinalities[column] = new int[size * levels];
+            for (int value = 0; value < size; value++) {
+                for (int level = 0; level < levels; level++) {
+                    this.cardinalities[column][level * size + value] = cardinalities[column][value][level];
+                }
+            }
+        }
+    }
+
+    /**
+     * Serializes this object, converting to the nested representation
+     *
+     * @param stream
+     * @throws IOException
+     */
+    private void writeObject(ObjectOutputStream stream) throws IOException {
+        ObjectOutputStream.PutField fields = stream.putFields();
+        fields.put("cardinalities", this.getCardinalities());
+        stream.writeFields();
     }
 }
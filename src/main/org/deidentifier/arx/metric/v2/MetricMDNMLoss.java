@@ -24,6 +24,7 @@ import java.util.List;
 import org.apache.commons.math3.fraction.BigFraction;
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.DataDefinition;
+import org.deidentifier.arx.RowSet;
 import org.deidentifier.arx.certificate.elements.ElementData;
 import org.deidentifier.arx.criteria.EDDifferentialPrivacy;
 import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction;
@@ -31,6 +32,7 @@ import org.deidentifier.arx.framework.check.groupify.HashGroupify;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.data.Data;
 import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.data.DataMatrix;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 import org.deidentifier.arx.framework.lattice.Transformation;
 import org.deidentifier.arx.metric.MetricConfiguration;
@@ -65,6 +67,18 @@ public class MetricMDNMLoss extends AbstractMetricMultiDimensional {
 
     /** We must override this for backward compatibility. Remove, when re-implemented. */
     private final double          sFactor;
+
+    /** Loss of generalization: attribute -> level -> value, null if not yet computed. */
+    private transient Double[][]                cache;
+
+    /** Input data. */
+    private transient DataMatrix                input;
+
+    /** Generalization hierarchies. */
+    private transient GeneralizationHierarchy[] hierarchies;
+
+    /** Research subset, if any. */
+    private transient RowSet                    subset;
     
     /**
      * Default constructor which treats all transformation methods equally.
@@ -221,6 +235,16 @@ public class MetricMDNMLoss extends AbstractMetricMultiDimensional {
         return true;
     }
 
+    /**
+     * Evaluation only reads data prepared during initialization. The loss of generalization
+     * is cached lazily, but concurrent threads compute and publish identical immutable values.
+     * Functions for microaggregation may keep state, so they are evaluated by one thread at a time.
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return getDimensionsAggregated() == 0;
+    }
+
     @Override
     public ElementData render(ARXConfiguration config) {
         ElementData result = new ElementData("Loss");
@@ -247,6 +271,13 @@ public class MetricMDNMLoss extends AbstractMetricMultiDimensional {
         DistributionAggregateFunction[] microaggregationFunctions = getAggregationFunctionsNonGeneralized();
         
         int[] transformation = node.getGeneralization();
+        
+        // Evaluate incrementally, if possible
+        double[] generalized = dimensionsAggregated == 0 ? getLossOfGeneralization(transformation) : null;
+        if (generalized != null) {
+            return getInformationLossInternal(transformation, g, generalized);
+        }
+        
         double[] result = new double[dimensions];
         double[] bound = new double[dimensions];
 
@@ -365,6 +396,74 @@ public class MetricMDNMLoss extends AbstractMetricMultiDimensional {
         return super.createInformationLoss(bound);
     }
 
+    /**
+     * Returns the information loss of each generalized attribute, if all records in the dataset
+     * were transformed with the given transformation and none were suppressed. This is the lower
+     * bound, before normalization. Values are computed once per attribute and level. Returns null,
+     * if the metric has not been initialized.
+     *
+     * @param transformation
+     * @return
+     */
+    protected double[] getLossOfGeneralization(int[] transformation) {
+
+        // Check
+        Double[][] cache = this.cache;
+        if (cache == null) {
+            return null;
+        }
+
+        // For each column
+        double[] result = new double[cache.length];
+        for (int column = 0; column < result.length; column++) {
+            int level = transformation[column];
+            Double loss = cache[column][level];
+            if (loss == null) {
+                loss = getLossOfGeneralization(column, level);
+                cache[column][level] = loss;
+            }
+            result[column] = loss;
+        }
+
+        // Return
+        return result;
+    }
+
+    /**
+     * Computes the information loss of the given attribute, if all records in the dataset were
+     * generalized to the given level and none were suppressed. Reads the input data.
+     *
+     * @param column
+     * @param level
+     * @return
+     */
+    protected double getLossOfGeneralization(int column, int level) {
+
+        // Prepare
+        int[][] hierarchy = hierarchies[column].getArray();
+        int[] values = hierarchies[column].getDistinctValues(level);
+        int max = 0;
+        for (int value : values) {
+            max = Math.max(max, value);
+        }
+
+        // Count records per generalized value
+        int[] counts = new int[max + 1];
+        for (int row = 0; row < input.getNumRows(); row++) {
+            if (subset == null || subset.contains(row)) {
+                counts[hierarchy[input.get(row, column)][level]]++;
+            }
+        }
+
+        // Sum up
+        double loss = 0d;
+        for (int value : values) {
+            double share = (double) counts[value] * shares[column].getShare(value, level);
+            loss += share * gFactor;
+        }
+        return loss;
+    }
+
     /**
      * For subclasses.
      *
@@ -374,6 +473,55 @@ public class MetricMDNMLoss extends AbstractMetricMultiDimensional {
         return this.shares;
     }
 
+    /**
+     * Computes the information loss as a delta from the loss of generalizing all records.
+     * Only suppressed classes need to be evaluated.
+     *
+     * @param transformation
+     * @param g
+     * @param generalized
+     * @return
+     */
+    private ILMultiDimensionalWithBound getInformationLossInternal(int[] transformation, HashGroupify g, double[] generalized) {
+        
+        // Prepare
+        int dimensions = getDimensions();
+        double[] result = new double[dimensions];
+        double[] removed = new double[dimensions];
+        double[] bound = new double[dimensions];
+        System.arraycopy(generalized, 0, bound, 0, dimensions);
+        int suppressed = 0;
+
+        // Loss of suppressed records and their loss of generalization, which is replaced
+        HashGroupifyEntry m = g.getFirstEquivalenceClass();
+        while (m != null) {
+            if (m.count > 0 && !m.isNotOutlier) {
+                suppressed += m.count;
+                m.read();
+                for (int dimension = 0; dimension < dimensions; dimension++) {
+                    int value = m.next();
+                    int level = transformation[dimension];
+                    double share = (double) m.count * shares[dimension].getShare(value, level);
+                    result[dimension] += sFactor == 1d ? m.count : share + sFactor * ((double) m.count - share);
+                    removed[dimension] += share * gFactor;
+                }
+            }
+            m = m.nextOrdered;
+        }
+        
+        // Normalize. If all records are suppressed, nothing remains of the loss of generalization,
+        // which is not exactly the case for the difference of both sums due to rounding errors.
+        for (int dimension = 0; dimension < dimensions; dimension++) {
+            double remaining = suppressed == tuples ? 0d : generalized[dimension] - removed[dimension];
+            result[dimension] = normalizeGeneralized(result[dimension] + remaining, dimension);
+            bound[dimension] = normalizeGeneralized(bound[dimension], dimension);
+        }
+        
+        // Return information loss and lower bound
+        return new ILMultiDimensionalWithBound(super.createInformationLoss(result),
+                                               super.createInformationLoss(bound));
+    }
+
     @Override
     protected void initializeInternal(final DataManager manager,
                                       final DataDefinition definition, 
@@ -390,6 +538,15 @@ public class MetricMDNMLoss extends AbstractMetricMultiDimensional {
         // Save domain shares
         this.shares = manager.getDomainShares();
 
+        // Prepare cache
+        this.input = input.getArray();
+        this.subset = super.getSubset(config);
+        this.hierarchies = hierarchies;
+        this.cache = new Double[hierarchies.length][];
+        for (int column = 0; column < hierarchies.length; column++) {
+            this.cache[column] = new Double[hierarchies[column].getHeight()];
+        }
+
         if (config.isPrivacyModelSpecified(EDDifferentialPrivacy.class)) {
             // Save reliable domain shares
             sharesReliable = manager.getDomainSharesReliable();
@@ -117,28 +117,9 @@ public class MetricMDNMLossPrecomputed extends MetricMDNMLoss {
         // Prepare
         int dimensions = getDimensions();
         int dimensionsGeneralized = getDimensionsGeneralized();
-        int[] transformation = node.getGeneralization();
         double[] bound = new double[dimensions];
-        DomainShare[] shares = super.getShares();
-        double gFactor = super.getGeneralizationFactor();
-        // Column -> Id -> Level -> Count
-        int[][][] cardinalities = this.cardinalities.getCardinalities();
-
-
-        // For each column
-        for (int column = 0; column < dimensionsGeneralized; column++) {
-
-            // Check for cached value
-            int level = transformation[column];
-            int[][] cardinality = cardinalities[column];
-            int[] values = this.values[column][level];
-            
-            for (int value : values) {
-                double count = cardinality[value][level];
-                double share = count * shares[column].getShare(value, level);
-                bound[column] += share * gFactor;
-            }
-        }
+        System.arraycopy(getLossOfGeneralization(node.getGeneralization()), 0, bound, 0, dimensionsGeneralized);
+
         // Note: we ignore microaggregation, as we cannot compute a bound for it
         // this means that the according entries in the resulting array are not changed and remain 0d
         // This is not a problem, as it is OK to underestimate information loss when computing lower bounds
@@ -157,6 +138,20 @@ public class MetricMDNMLossPrecomputed extends MetricMDNMLoss {
         return this.getLowerBoundInternal(node);
     }
 
+    @Override
+    protected double getLossOfGeneralization(int column, int level) {
+        double loss = 0d;
+        double gFactor = super.getGeneralizationFactor();
+        DomainShare shares = super.getShares()[column];
+        int[] cardinality = cardinalities.getCardinalities(column);
+        int offset = level * cardinalities.getNumValues(column);
+        for (int value : this.values[column][level]) {
+            double share = (double) cardinality[offset + value] * shares.getShare(value, level);
+            loss += share * gFactor;
+        }
+        return loss;
+    }
+
     @Override
     protected void initializeInternal(final DataManager manager,
                                       final DataDefinition definition, 
@@ -171,7 +166,7 @@ public class MetricMDNMLossPrecomputed extends MetricMDNMLoss {
         RowSet subset = super.getSubset(config);
         
         // Cardinalities
-        this.cardinalities = new Cardinalities(input, subset, hierarchies);
+        this.cardinalities = new Cardinalities(input, subset, hierarchies, config.getParallelism());
         
         // Distinct values
         this.values = new int[hierarchies.length][][];
@@ -256,7 +256,6 @@ public class MetricMDNUEntropyPrecomputed extends AbstractMetricMultiDimensional
     protected double[] getInformationLossInternalRaw(final Transformation<?> node, final HashGroupify g) {
 
         // Prepare
-        int[][][] cardinalities = this.cardinalities.getCardinalities();
         double[] result = new double[hierarchies.length];
         double gFactor = super.getGeneralizationFactor();
 
@@ -268,12 +267,13 @@ public class MetricMDNUEntropyPrecomputed extends AbstractMetricMultiDimensional
             double value = cache[column][transformation];
             if (value == NOT_AVAILABLE) {
                 value = 0d;
-                final int[][] cardinality = cardinalities[column];
+                final int[] cardinality = cardinalities.getCardinalities(column);
+                final int offset = transformation * cardinalities.getNumValues(column);
                 final int[][] hierarchy = hierarchies[column];
                 for (int in = 0; in < hierarchy.length; in++) {
                     final int out = hierarchy[in][transformation];
-                    final double a = cardinality[in][0];
-                    final double b = cardinality[out][transformation];
+                    final double a = cardinality[in];
+                    final double b = cardinality[offset + out];
                     if (a != 0d) {
                         value += a * log2(a / b);
                     }
@@ -304,7 +304,6 @@ public class MetricMDNUEntropyPrecomputed extends AbstractMetricMultiDimensional
     protected double[] getUpperBounds() {
 
         // Prepare
-        int[][][] cardinalities = this.cardinalities.getCardinalities();
         double[] result = new double[hierarchies.length];
         double gFactor = super.getGeneralizationFactor();
 
@@ -313,10 +312,10 @@ public class MetricMDNUEntropyPrecomputed extends AbstractMetricMultiDimensional
 
             // Compute entropy
             double value = 0d;
-            final int[][] cardinality = cardinalities[column];
+            final int[] cardinality = cardinalities.getCardinalities(column);
             final int[][] hierarchy = hierarchies[column];
             for (int in = 0; in < hierarchy.length; in++) {
-                final double a = cardinality[in][0];
+                final double a = cardinality[in];
                 if (a != 0d) {
                     value += a * log2(a / rows);
                 }
@@ -374,7 +373,7 @@ public class MetricMDNUEntropyPrecomputed extends AbstractMetricMultiDimensional
         RowSet subset = super.getSubset(config);
         
         // Cardinalities
-        this.cardinalities = new Cardinalities(input, subset, hierarchies);
+        this.cardinalities = new Cardinalities(input, subset, hierarchies, config.getParallelism());
         this.rows = input.getDataLength();
         double gFactor = super.getGeneralizationFactor();
         double sFactor = super.getSuppressionFactor();
@@ -0,0 +1,43 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.deidentifier.arx.criteria;
+
+/**
+ * Provides the tests with access to package-private functionality of KMap, so that
+ * cached estimates can be compared with estimates computed without the cache.
+ *
+ * @author Fabian Prasser
+ */
+public class KMapTestSupport {
+
+    /**
+     * Clears the cache of derived parameters
+     */
+    public static void clearCache() {
+        KMap.clearCache();
+    }
+
+    /**
+     * Enables or disables the cache of derived parameters
+     * @param enabled
+     */
+    public static void setCacheEnabled(boolean enabled) {
+        KMap.setCacheEnabled(enabled);
+    }
+}
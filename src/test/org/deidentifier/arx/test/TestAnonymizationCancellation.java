@@ -0,0 +1,160 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXCancellationToken;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXLattice.Anonymity;
+import org.deidentifier.arx.ARXListener;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
+import org.junit.Test;
+
+/**
+ * Tests cancelling the anonymization process
+ *
+ * @author Fabian Prasser
+ */
+public class TestAnonymizationCancellation extends AbstractTest {
+
+    /**
+     * Test case
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testCancelled() throws IOException {
+        ARXResult expected = anonymize(new ARXAnonymizer(), null);
+        ARXCancellationToken token = ARXCancellationToken.create();
+        token.cancel();
+        ARXResult actual = anonymize(new ARXAnonymizer(), token);
+        assertTrue(actual.getProcessStatistics().getTransformationsChecked() < expected.getProcessStatistics().getTransformationsChecked());
+        assertFalse(actual.isResultAvailable() && actual.getProcessStatistics().getStep(0).isOptimal());
+    }
+
+    /**
+     * Test case
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testCancelledParallel() throws IOException {
+        ARXCancellationToken token = ARXCancellationToken.create();
+        token.cancel();
+        ARXResult actual = anonymize(new ARXAnonymizer(), token, 2);
+        assertTrue(actual.getProcessStatistics().getTransformationsChecked() <= 1);
+    }
+
+    /**
+     * Test case
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testCancelledDuringSearch() throws IOException {
+        
+        // Cancel after the first progress update
+        ARXResult expected = anonymize(new ARXAnonymizer(), null);
+        final ARXCancellationToken token = ARXCancellationToken.create();
+        ARXAnonymizer anonymizer = new ARXAnonymizer();
+        anonymizer.setListener(new ARXListener() {
+            @Override
+            public void progress(double progress) {
+                token.cancel();
+            }
+        });
+        ARXResult actual = anonymize(anonymizer, token);
+        
+        // Check
+        assertTrue(token.isCancelled());
+        assertTrue(actual.getProcessStatistics().getTransformationsChecked() < expected.getProcessStatistics().getTransformationsChecked());
+        if (actual.isResultAvailable()) {
+            assertTrue(actual.getGlobalOptimum().getAnonymity() == Anonymity.ANONYMOUS);
+        }
+    }
+
+    /**
+     * Test case
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testDeadline() throws IOException {
+        ARXResult expected = anonymize(new ARXAnonymizer(), null);
+        ARXCancellationToken token = ARXCancellationToken.createWithDeadline(0L);
+        assertTrue(token.isCancelled());
+        ARXResult actual = anonymize(new ARXAnonymizer(), token);
+        assertTrue(actual.getProcessStatistics().getTransformationsChecked() < expected.getProcessStatistics().getTransformationsChecked());
+    }
+
+    /**
+     * Test case
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testNotCancelled() throws IOException {
+        ARXResult expected = anonymize(new ARXAnonymizer(), null);
+        ARXCancellationToken token = ARXCancellationToken.createWithTimeout(Long.MAX_VALUE);
+        ARXResult actual = anonymize(new ARXAnonymizer(), token);
+        assertFalse(token.isCancelled());
+        assertTrue(Arrays.equals(expected.getGlobalOptimum().getTransformation(), actual.getGlobalOptimum().getTransformation()));
+        assertEquals(expected.getProcessStatistics().getTransformationsChecked(), actual.getProcessStatistics().getTransformationsChecked());
+    }
+
+    /**
+     * Anonymizes the adult dataset
+     *
+     * @param anonymizer
+     * @param token
+     * @return
+     * @throws IOException
+     */
+    private ARXResult anonymize(ARXAnonymizer anonymizer, ARXCancellationToken token) throws IOException {
+        return anonymize(anonymizer, token, 1);
+    }
+
+    /**
+     * Anonymizes the adult dataset
+     *
+     * @param anonymizer
+     * @param token
+     * @param parallelism
+     * @return
+     * @throws IOException
+     */
+    private ARXResult anonymize(ARXAnonymizer anonymizer, ARXCancellationToken token, int parallelism) throws IOException {
+        ARXConfiguration config = ARXConfiguration.create(0.04d, Metric.createLossMetric());
+        config.addPrivacyModel(new KAnonymity(5));
+        config.setParallelism(parallelism);
+        ARXAnonymizationTestCase testCase = new ARXAnonymizationTestCase(config, "./data/adult.csv", 0d, null, false);
+        Data data = AbstractAnonymizationTest.getDataObject(testCase);
+        return anonymizer.anonymize(data, config, token);
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXAnonymizer.HistoryPolicy;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXProcessStatistics;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.criteria.EntropyLDiversity;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
+import org.junit.Test;
+
+/**
+ * Tests the policies and limits of the history
+ *
+ * @author Fabian Prasser
+ */
+public class TestAnonymizationHistory extends AbstractTest {
+
+    /** Memory limit in bytes */
+    private static final long MEMORY_LIMIT = 100000L;
+
+    /**
+     * Test case
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testCompression() throws IOException {
+        compareCompression(false);
+    }
+
+    /**
+     * Test case
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testCompressionDistribution() throws IOException {
+        compareCompression(true);
+    }
+
+    /**
+     * Test case
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testCostAware() throws IOException {
+        compare(HistoryPolicy.COST_AWARE);
+    }
+
+    /**
+     * Test case
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testGeneralAncestors() throws IOException {
+        compare(HistoryPolicy.GENERAL_ANCESTORS);
+    }
+
+    /**
+     * Test case
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testLRU() throws IOException {
+        compare(HistoryPolicy.LRU);
+    }
+
+    /**
+     * Test case
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testStatistics() throws IOException {
+        ARXProcessStatistics statistics = anonymize(new ARXAnonymizer(), false).getProcessStatistics();
+        assertTrue(statistics.getHistoryHits() > 0);
+        assertTrue(statistics.getHistoryMisses() > 0);
+        assertTrue(statistics.getHistoryPeakMemory() > 0);
+    }
+
+    /**
+     * Anonymizes the adult dataset with the given policy and a memory limit and compares
+     * the result to the result obtained with the default settings
+     *
+     * @param policy
+     * @throws IOException
+     */
+    private void compare(HistoryPolicy policy) throws IOException {
+
+        // Default
+        ARXResult expected = anonymize(new ARXAnonymizer(), false);
+
+        // Limited
+        ARXAnonymizer anonymizer = new ARXAnonymizer();
+        anonymizer.setHistoryPolicy(policy);
+        anonymizer.setHistoryMemoryLimit(MEMORY_LIMIT);
+        ARXResult actual = anonymize(anonymizer, false);
+
+        // Compare
+        assertTrue(Arrays.equals(expected.getGlobalOptimum().getTransformation(), actual.getGlobalOptimum().getTransformation()));
+        assertEquals(expected.getProcessStatistics().getTransformationsChecked(), actual.getProcessStatistics().getTransformationsChecked());
+        assertTrue(actual.getProcessStatistics().getHistoryPeakMemory() <= MEMORY_LIMIT);
+        assertTrue(actual.getProcessStatistics().getHistoryEvictions() > 0);
+    }
+
+    /**
+     * Anonymizes the adult dataset with and without compressing snapshots and compares the results
+     *
+     * @param distribution Whether to use a privacy model which requires distributions
+     * @throws IOException
+     */
+    private void compareCompression(boolean distribution) throws IOException {
+
+        // Default
+        ARXResult expected = anonymize(new ARXAnonymizer(), distribution);
+
+        // Compressed
+        ARXAnonymizer anonymizer = new ARXAnonymizer();
+        anonymizer.setHistoryCompressionEnabled(true);
+        ARXResult actual = anonymize(anonymizer, distribution);
+
+        // Compare
+        assertTrue(Arrays.equals(expected.getGlobalOptimum().getTransformation(), actual.getGlobalOptimum().getTransformation()));
+        assertEquals(expected.getProcessStatistics().getTransformationsChecked(), actual.getProcessStatistics().getTransformationsChecked());
+        assertEquals(expected.getProcessStatistics().getHistoryHits(), actual.getProcessStatistics().getHistoryHits());
+        assertTrue(actual.getProcessStatistics().getHistoryPeakMemory() < expected.getProcessStatistics().getHistoryPeakMemory());
+    }
+
+    /**
+     * Anonymizes the adult dataset
+     *
+     * @param anonymizer
+     * @param distribution Whether to use a privacy model which requires distributions
+     * @return
+     * @throws IOException
+     */
+    private ARXResult anonymize(ARXAnonymizer anonymizer, boolean distribution) throws IOException {
+        ARXConfiguration config = ARXConfiguration.create(0.04d, Metric.createLossMetric());
+        ARXAnonymizationTestCase testCase;
+        if (distribution) {
+            config.addPrivacyModel(new EntropyLDiversity("occupation", 5));
+            testCase = new ARXAnonymizationTestCase(config, "occupation", "./data/adult.csv", 0d, null, false);
+        } else {
+            config.addPrivacyModel(new KAnonymity(5));
+            testCase = new ARXAnonymizationTestCase(config, "./data/adult.csv", 0d, null, false);
+        }
+        Data data = AbstractAnonymizationTest.getDataObject(testCase);
+        return anonymizer.anonymize(data, config);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXMeterRegistry;
+import org.deidentifier.arx.ARXProcessStatistics;
+import org.deidentifier.arx.ARXProcessStatistics.Phase;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
+import org.junit.Test;
+
+/**
+ * Tests the instrumentation of checks
+ *
+ * @author Fabian Prasser
+ */
+public class TestAnonymizationInstrumentation extends AbstractTest {
+
+    /**
+     * Registry which sums up all counters
+     * 
+     * @author Fabian Prasser
+     */
+    private static class Registry implements ARXMeterRegistry {
+
+        /** Counters */
+        private final Map<String, Long> counters = new HashMap<String, Long>();
+
+        @Override
+        public void count(String phase, String name, long value) {
+            Long current = counters.get(name);
+            counters.put(name, current == null ? value : current + value);
+        }
+
+        @Override
+        public void gauge(String phase, String name, double value) {
+            // Ignore
+        }
+
+        @Override
+        public void time(String phase, String name, long nanos) {
+            // Ignore
+        }
+
+        /**
+         * Returns the sum for the given counter
+         * @param name
+         * @return
+         */
+        public long get(String name) {
+            Long current = counters.get(name);
+            return current == null ? 0L : current;
+        }
+    }
+
+    /**
+     * Test case
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testDisabled() throws IOException {
+        Registry registry = new Registry();
+        ARXAnonymizer anonymizer = new ARXAnonymizer();
+        anonymizer.setMeterRegistry(registry);
+        ARXResult result = anonymize(anonymizer, false);
+        assertTrue(result.getProcessStatistics().getPhases().isEmpty());
+        assertEquals(0L, registry.get(ARXMeterRegistry.CHECKS));
+    }
+
+    /**
+     * Test case
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testEnabled() throws IOException {
+
+        // Anonymize
+        ARXResult expected = anonymize(new ARXAnonymizer(), false);
+        Registry registry = new Registry();
+        ARXAnonymizer anonymizer = new ARXAnonymizer();
+        anonymizer.setMeterRegistry(registry);
+        ARXResult actual = anonymize(anonymizer, true);
+
+        // Compare
+        assertTrue(Arrays.equals(expected.getGlobalOptimum().getTransformation(), actual.getGlobalOptimum().getTransformation()));
+
+        // Sum up
+        ARXProcessStatistics statistics = actual.getProcessStatistics();
+        long checks = 0;
+        long hits = 0;
+        long misses = 0;
+        for (Phase phase : statistics.getPhases()) {
+            checks += phase.getNumberOfChecks();
+            hits += phase.getHistoryHits();
+            misses += phase.getHistoryMisses();
+            assertTrue(phase.getMaximalNumberOfEquivalenceClasses() <= phase.getNumberOfEquivalenceClasses());
+        }
+
+        // Check
+        assertTrue(!statistics.getPhases().isEmpty());
+        assertTrue(checks > 0);
+        assertEquals(statistics.getHistoryHits(), hits);
+        assertEquals(statistics.getHistoryMisses(), misses);
+        assertEquals(checks, registry.get(ARXMeterRegistry.CHECKS));
+        assertEquals(hits, registry.get(ARXMeterRegistry.HISTORY_HITS));
+    }
+
+    /**
+     * Anonymizes the adult dataset
+     *
+     * @param anonymizer
+     * @param instrumentation
+     * @return
+     * @throws IOException
+     */
+    private ARXResult anonymize(ARXAnonymizer anonymizer, boolean instrumentation) throws IOException {
+        ARXConfiguration config = ARXConfiguration.create(0.04d, Metric.createLossMetric());
+        config.addPrivacyModel(new KAnonymity(5));
+        config.setInstrumentationEnabled(instrumentation);
+        ARXAnonymizationTestCase testCase = new ARXAnonymizationTestCase(config, "./data/adult.csv", 0d, null, false);
+        Data data = AbstractAnonymizationTest.getDataObject(testCase);
+        return anonymizer.anonymize(data, config);
+    }
+}
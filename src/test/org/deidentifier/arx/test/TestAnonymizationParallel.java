@@ -0,0 +1,124 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXConfiguration.AnonymizationAlgorithm;
+import org.deidentifier.arx.ARXConfiguration.SearchStepSemantics;
+import org.deidentifier.arx.criteria.EDDifferentialPrivacy;
+import org.deidentifier.arx.criteria.EntropyLDiversity;
+import org.deidentifier.arx.criteria.EqualDistanceTCloseness;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Tests that checking transformations and grouping partitions of the dataset in parallel yields
+ * the same results as sequential processing.
+ *
+ * @author Fabian Prasser
+ */
+@RunWith(Parameterized.class)
+public class TestAnonymizationParallel extends AbstractAnonymizationTest {
+
+    /**
+     * Returns the test cases.
+     *
+     * @return
+     */
+    @Parameters(name = "{index}:[{0}]")
+    public static Collection<Object[]> cases() {
+
+        // Create list
+        List<Object[]> cases = Arrays.asList(new Object[][] {
+             /* 0 */{ new ARXAnonymizationTestCase(configure(ARXConfiguration.create(1d, Metric.createLossMetric()).addPrivacyModel(new KAnonymity(5)), AnonymizationAlgorithm.BEST_EFFORT_BOTTOM_UP, 4, 1), "./data/adult.csv", 0.22041192847984292, new int[] {0, 3, 0, 0, 2, 1, 1, 1, 0}, false) },
+             { new ARXAnonymizationTestCase(configure(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d)).addPrivacyModel(new KAnonymity(100)), AnonymizationAlgorithm.BEST_EFFORT_BOTTOM_UP, 4, 1), "./data/adult.csv", 400196.319223464, new int[] {1, 1, 1, 1, 2, 2, 2, 2, 1}, false) },
+             { new ARXAnonymizationTestCase(configure(ARXConfiguration.create(0.04d, Metric.createLossMetric()).addPrivacyModel(new KAnonymity(5)), AnonymizationAlgorithm.BEST_EFFORT_BOTTOM_UP, 4, 1), "./data/adult.csv", 0.26611081915757495, new int[] {0, 3, 0, 1, 1, 1, 1, 2, 0}, true) },
+             { new ARXAnonymizationTestCase(configure(ARXConfiguration.create(1d, Metric.createLossMetric()).addPrivacyModel(new KAnonymity(5)), AnonymizationAlgorithm.BEST_EFFORT_GENETIC, 4, 1), "./data/adult.csv", 0.22041192847984292, new int[] {0, 3, 0, 0, 2, 1, 1, 1, 0}, false) },
+             { new ARXAnonymizationTestCase(configure(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d)).addPrivacyModel(new KAnonymity(100)), AnonymizationAlgorithm.BEST_EFFORT_GENETIC, 4, 1), "./data/adult.csv", 383803.4034066361, new int[] {1, 1, 1, 1, 3, 2, 2, 1, 1}, false) },
+             { new ARXAnonymizationTestCase(configure(ARXConfiguration.create(0.04d, Metric.createLossMetric()).addPrivacyModel(new KAnonymity(5)), AnonymizationAlgorithm.BEST_EFFORT_GENETIC, 4, 1), "./data/adult.csv", 0.26611081915757495, new int[] {0, 3, 0, 1, 1, 1, 1, 2, 0}, false) },
+             { new ARXAnonymizationTestCase(configure(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addPrivacyModel(new KAnonymity(5)), AnonymizationAlgorithm.OPTIMAL, 4, 1), "./data/adult.csv", 255559.85455731067, new int[] { 1, 0, 1, 1, 3, 2, 2, 0, 1 }, false) },
+             { new ARXAnonymizationTestCase(configure(ARXConfiguration.create(0.0d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addPrivacyModel(new KAnonymity(100)), AnonymizationAlgorithm.OPTIMAL, 4, 1), "./data/adult.csv", 453196.8932458743, new int[] { 0, 4, 1, 1, 3, 2, 2, 1, 1 }, false) },
+             { new ARXAnonymizationTestCase(configure(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addPrivacyModel(new KAnonymity(5)), AnonymizationAlgorithm.OPTIMAL, 1, 4), "./data/adult.csv", 255559.85455731067, new int[] { 1, 0, 1, 1, 3, 2, 2, 0, 1 }, false) },
+             /* 10 */{ new ARXAnonymizationTestCase(configure(ARXConfiguration.create(1d, Metric.createLossMetric()).addPrivacyModel(new KAnonymity(5)), AnonymizationAlgorithm.BEST_EFFORT_BOTTOM_UP, 2, 2), "./data/adult.csv", 0.22041192847984292, new int[] {0, 3, 0, 0, 2, 1, 1, 1, 0}, false) },
+             { new ARXAnonymizationTestCase(configure(ARXConfiguration.create(0.04d, Metric.createDiscernabilityMetric(true)).addPrivacyModel(new EqualDistanceTCloseness("occupation", 0.2d)).addPrivacyModel(new KAnonymity(5)), AnonymizationAlgorithm.OPTIMAL, 1, 4), "occupation", "./data/adult.csv", "3.11880088E8", new int[] { 1, 4, 1, 0, 3, 2, 2, 1 }, false) },
+             { new ARXAnonymizationTestCase(configure(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, false)).addPrivacyModel(new EntropyLDiversity("occupation", 5)), AnonymizationAlgorithm.OPTIMAL, 1, 4), "occupation", "./data/adult.csv", 228878.2039109517, new int[] { 1, 0, 1, 1, 2, 2, 2, 1 }, false) },
+             { new ARXAnonymizationTestCase(configure(ARXConfiguration.create(0.04d, Metric.createDiscernabilityMetric(true)).addPrivacyModel(new EqualDistanceTCloseness("occupation", 0.2d)).addPrivacyModel(new KAnonymity(5)), AnonymizationAlgorithm.OPTIMAL, 4, 1), "occupation", "./data/adult.csv", "3.11880088E8", new int[] { 1, 4, 1, 0, 3, 2, 2, 1 }, false) },
+             { new ARXAnonymizationTestCase(configure(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, false)).addPrivacyModel(new EntropyLDiversity("occupation", 5)), AnonymizationAlgorithm.OPTIMAL, 4, 1), "occupation", "./data/adult.csv", 228878.2039109517, new int[] { 1, 0, 1, 1, 2, 2, 2, 1 }, false) },
+             { new ARXAnonymizationTestCase(createDataDependentConfiguration(Metric.createLossMetric(), 2d, 1d, 1E-5d, 100, 4), "", "./data/adult.csv", -364.91072721704967, new int[] { 0, 3, 1, 0, 2, 1, 1, 2, 0 }, false) },
+             { new ARXAnonymizationTestCase(createDataDependentConfiguration(Metric.createPrecisionMetric(), 2d, 1d, 1E-5d, 10, 4), "", "./data/adult.csv", -347.1666666666667, new int[] { 0, 4, 0, 1, 1, 1, 2, 1, 0 }, false) },
+        });
+
+        // Return
+        return cases;
+    }
+
+    /**
+     * Creates a configuration for data-dependent differential privacy with parallel checks
+     *
+     * @param metric
+     * @param epsilon
+     * @param searchBudget
+     * @param delta
+     * @param steps
+     * @param parallelism
+     * @return
+     */
+    private static ARXConfiguration createDataDependentConfiguration(Metric<?> metric, double epsilon, double searchBudget, double delta, int steps, int parallelism) {
+        ARXConfiguration result = ARXConfiguration.create(1d, metric);
+        result.addPrivacyModel(new EDDifferentialPrivacy(epsilon, delta, null, true));
+        result.setDPSearchBudget(searchBudget);
+        result.setHeuristicSearchStepLimit(steps, SearchStepSemantics.EXPANSIONS);
+        result.setParallelism(parallelism);
+        return result;
+    }
+
+    /**
+     * Selects the algorithm, sets limits and enables parallel checks
+     *
+     * @param config
+     * @param algorithm
+     * @param parallelism
+     * @param groupifyParallelism
+     * @return
+     */
+    private static ARXConfiguration configure(ARXConfiguration config, AnonymizationAlgorithm algorithm, int parallelism, int groupifyParallelism) {
+        config.setAlgorithm(algorithm);
+        config.setGeneticAlgorithmDeterministic(true);
+        config.setHeuristicSearchTimeLimit(Integer.MAX_VALUE);
+        config.setHeuristicSearchStepLimit(1000);
+        config.setParallelism(parallelism);
+        config.setGroupifyParallelism(groupifyParallelism);
+        return config;
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param testCase
+     */
+    public TestAnonymizationParallel(final ARXAnonymizationTestCase testCase) {
+        super(testCase);
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+
+import org.deidentifier.arx.RowSet;
+import org.deidentifier.arx.framework.data.Data;
+import org.deidentifier.arx.framework.data.DataMatrix;
+import org.deidentifier.arx.framework.data.Dictionary;
+import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
+import org.deidentifier.arx.metric.v2.Cardinalities;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests computing and serializing cardinalities
+ *
+ * @author Fabian Prasser
+ */
+public class TestCardinalities {
+
+    /** Number of rows */
+    private static final int          ROWS    = 10000;
+
+    /** Number of columns */
+    private static final int          COLUMNS = 5;
+
+    /** Number of distinct values per column */
+    private static final int          DOMAIN  = 20;
+
+    /** Data */
+    private Data                      data;
+
+    /** Hierarchies */
+    private GeneralizationHierarchy[] hierarchies;
+
+    /** Subset */
+    private RowSet                    subset;
+
+    /**
+     * Creates a random dataset with hierarchies of height three
+     */
+    @Before
+    public void setUp() {
+
+        // Encode data
+        Random random = new Random(0xDEADBEEF);
+        String[] header = new String[COLUMNS];
+        Dictionary dictionary = new Dictionary(COLUMNS);
+        DataMatrix matrix = new DataMatrix(ROWS, COLUMNS);
+        for (int column = 0; column < COLUMNS; column++) {
+            header[column] = "attribute-" + column;
+        }
+        for (int row = 0; row < ROWS; row++) {
+            for (int column = 0; column < COLUMNS; column++) {
+                matrix.set(row, column, dictionary.register(column, String.valueOf(random.nextInt(DOMAIN))));
+            }
+        }
+
+        // Create hierarchies
+        this.hierarchies = new GeneralizationHierarchy[COLUMNS];
+        for (int column = 0; column < COLUMNS; column++) {
+            String[][] hierarchy = new String[DOMAIN][];
+            for (int value = 0; value < DOMAIN; value++) {
+                hierarchy[value] = new String[] { String.valueOf(value), "[" + (value / 5) + "]", "*" };
+            }
+            hierarchies[column] = new GeneralizationHierarchy(header[column], hierarchy, column, dictionary);
+        }
+        dictionary.finalizeAll();
+        this.data = Data.createWrapper(matrix, header, new int[] { 0, 1, 2, 3, 4 }, dictionary);
+
+        // Create subset
+        this.subset = RowSet.create(ROWS);
+        for (int row = 0; row < ROWS; row += 3) {
+            subset.add(row);
+        }
+    }
+
+    /**
+     * Test case
+     */
+    @Test
+    public void testCache() {
+
+        // Projections of the same input with equal subsets and hierarchies share counts
+        DataMatrix source = data.getArray();
+        int[] columns = new int[] { 0, 1, 2, 3, 4 };
+        Data projection1 = Data.createProjection(source, data.getHeader(), columns, data.getDictionary());
+        Data projection2 = Data.createProjection(source, data.getHeader(), columns, data.getDictionary());
+        Cardinalities cardinalities1 = new Cardinalities(projection1, subset, hierarchies, 1);
+        Cardinalities cardinalities2 = new Cardinalities(projection2, subset.clone(), hierarchies, 2);
+        assertCardinalities(cardinalities1, subset);
+        for (int column = 0; column < COLUMNS; column++) {
+            assertSame(cardinalities1.getCardinalities(column), cardinalities2.getCardinalities(column));
+        }
+
+        // A different subset is not served from the cache
+        RowSet other = subset.clone();
+        other.remove(0);
+        other.add(1);
+        Cardinalities cardinalities3 = new Cardinalities(projection2, other, hierarchies, 1);
+        assertNotSame(cardinalities1.getCardinalities(0), cardinalities3.getCardinalities(0));
+        assertCardinalities(cardinalities3, other);
+
+        // Neither is data that has not been projected
+        Cardinalities cardinalities4 = new Cardinalities(data, subset, hierarchies, 1);
+        assertNotSame(cardinalities1.getCardinalities(0), cardinalities4.getCardinalities(0));
+        assertCardinalities(cardinalities4, subset);
+
+        // The nested representation is created once
+        assertSame(cardinalities1.getCardinalities(), cardinalities1.getCardinalities());
+    }
+
+    /**
+     * Test case
+     */
+    @Test
+    public void testParallel() {
+        for (int parallelism = 1; parallelism <= COLUMNS + 1; parallelism++) {
+            assertCardinalities(new Cardinalities(data, null, hierarchies, parallelism), null);
+            assertCardinalities(new Cardinalities(data, subset, hierarchies, parallelism), subset);
+        }
+    }
+
+    /**
+     * Test case
+     *
+     * @throws IOException
+     * @throws ClassNotFoundException
+     */
+    @Test
+    public void testSerialization() throws IOException, ClassNotFoundException {
+
+        // Serialize
+        Cardinalities expected = new Cardinalities(data, subset, hierarchies, 2);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream output = new ObjectOutputStream(bytes);
+        output.writeObject(expected);
+        output.close();
+
+        // Deserialize
+        ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        Cardinalities actual = (Cardinalities) input.readObject();
+        input.close();
+
+        // Compare
+        assertCardinalities(actual, subset);
+        for (int column = 0; column < COLUMNS; column++) {
+            assertEquals(expected.getNumValues(column), actual.getNumValues(column));
+            assertArrayEquals(expected.getCardinalities(column), actual.getCardinalities(column));
+        }
+
+        // The serialized form is the nested representation
+        Cardinalities nested = new Cardinalities(expected.getCardinalities());
+        for (int column = 0; column < COLUMNS; column++) {
+            assertArrayEquals(expected.getCardinalities(column), nested.getCardinalities(column));
+        }
+    }
+
+    /**
+     * Compares the given cardinalities with counts obtained by iterating over the data
+     *
+     * @param cardinalities
+     * @param subset
+     */
+    private void assertCardinalities(Cardinalities cardinalities, RowSet subset) {
+        DataMatrix matrix = data.getArray();
+        for (int column = 0; column < COLUMNS; column++) {
+            int[][] hierarchy = hierarchies[column].getArray();
+            int[][] expected = new int[cardinalities.getNumValues(column)][hierarchies[column].getHeight()];
+            for (int row = 0; row < ROWS; row++) {
+                if (subset == null || subset.contains(row)) {
+                    int value = matrix.get(row, column);
+                    for (int level = 0; level < hierarchy[value].length; level++) {
+                        expected[hierarchy[value][level]][level]++;
+                    }
+                }
+            }
+            for (int value = 0; value < expected.length; value++) {
+                for (int level = 0; level < expected[value].length; level++) {
+                    assertEquals(expected[value][level], cardinalities.get(column, value, level));
+                }
+            }
+            assertArrayEquals(expected, cardinalities.getCardinalities()[column]);
+        }
+    }
+}
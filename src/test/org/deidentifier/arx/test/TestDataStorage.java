@@ -0,0 +1,449 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Base64;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.Data.DefaultData;
+import org.deidentifier.arx.Data.StorageType;
+import org.deidentifier.arx.DataHandle;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.framework.data.DataMatrix;
+import org.deidentifier.arx.io.CSVDataChunks;
+import org.deidentifier.arx.io.CSVDataInput;
+import org.deidentifier.arx.io.CSVOptions;
+import org.deidentifier.arx.io.CSVSyntax;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
+import org.junit.Test;
+
+/**
+ * Tests storing data outside of the Java heap
+ *
+ * @author Fabian Prasser
+ */
+public class TestDataStorage extends AbstractTest {
+
+    /**
+     * Test case
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testMemoryMapped() throws IOException {
+        compare(StorageType.MEMORY_MAPPED);
+    }
+
+    /**
+     * Test case
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testOffHeap() throws IOException {
+        compare(StorageType.OFF_HEAP);
+    }
+
+    /**
+     * Test case
+     */
+    @Test
+    public void testSmallDataset() {
+
+        provider.createDataDefinition();
+        Data data = provider.getData();
+        data.setStorageType(StorageType.OFF_HEAP);
+        final String[][] inArray = iteratorToArray(data.getHandle().iterator());
+        final String[][] inExpected = { { "age", "gender", "zipcode" }, { "34", "male", "81667" }, { "45", "female", "81675" }, { "66", "male", "81925" }, { "70", "female", "81931" }, { "34", "female", "81931" }, { "70", "male", "81931" }, { "45", "male", "81931" } };
+        assertTrue(Arrays.deepEquals(inArray, inExpected));
+    }
+
+    /**
+     * Tests serializing data matrices, including the serialized form of previous versions
+     *
+     * @throws IOException
+     * @throws ClassNotFoundException
+     */
+    @Test
+    public void testSerialization() throws IOException, ClassNotFoundException {
+
+        // Matrix with 3 rows and 2 columns containing row * 10 + column, serialized by previous versions
+        String previous = "rO0ABXNyAC5vcmcuZGVpZGVudGlmaWVyLmFyeC5mcmFtZXdvcmsuZGF0YS5EYXRhTWF0cml4FpIac92BsAcCAAZJAApiYXNlT2Zmc2V0SQAHY29sdW1uc0kACWl0ZXJhdG9ySUkADml0ZXJhdG9yT2Zmc2V0SQAEcm93c1sABWFycmF5dAACW0l4cAAAAAAAAAACAAAAAAAAAAAAAAADdXIAAltJTbpgJnbqsqUCAAB4cAAAAAYAAAAAAAAAAQAAAAoAAAALAAAAFAAAABU=";
+        DataMatrix matrix = (DataMatrix) new ObjectInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(previous))).readObject();
+        assertEquals(3, matrix.getNumRows());
+        assertEquals(2, matrix.getNumColumns());
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 2; column++) {
+                assertEquals(row * 10 + column, matrix.get(row, column));
+            }
+        }
+        
+        // Round trip
+        for (StorageType storage : StorageType.values()) {
+            DataMatrix expected = new DataMatrix(3, 2, storage);
+            expected.copyFrom(0, matrix, 0);
+            expected.copyFrom(1, matrix, 1);
+            expected.copyFrom(2, matrix, 2);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream out = new ObjectOutputStream(bytes);
+            out.writeObject(expected);
+            out.close();
+            DataMatrix actual = (DataMatrix) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+            assertEquals(storage, actual.getStorageType());
+            for (int row = 0; row < 3; row++) {
+                for (int column = 0; column < 2; column++) {
+                    assertEquals(matrix.get(row, column), actual.get(row, column));
+                }
+            }
+        }
+    }
+
+    /**
+     * Test case
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testStreaming() throws IOException {
+
+        // Read records
+        String[][] expected = iteratorToArray(new CSVDataInput(new File("./data/adult.csv"), StandardCharsets.UTF_8, ';').iterator());
+        
+        // Encode with different code paths
+        for (StorageType storage : StorageType.values()) {
+            
+            // Number of records unknown
+            Data unknown = Data.create(Arrays.asList(expected));
+            unknown.setStorageType(storage);
+            assertTrue(Arrays.deepEquals(expected, iteratorToArray(unknown.getHandle().iterator())));
+            
+            // Number of records known
+            Data known = Data.create(Arrays.asList(expected).iterator(), expected.length - 1);
+            known.setStorageType(storage);
+            assertTrue(Arrays.deepEquals(expected, iteratorToArray(known.getHandle().iterator())));
+            
+            // Encoded while adding
+            DefaultData streamed = Data.create();
+            for (String[] row : expected) {
+                streamed.add(row);
+            }
+            streamed.setStorageType(storage);
+            assertTrue(Arrays.deepEquals(expected, iteratorToArray(streamed.getHandle().iterator())));
+        }
+    }
+
+    /**
+     * Tests that rows can not be added after the data handle has been obtained
+     */
+    @Test
+    public void testAddAfterHandle() {
+
+        // Create
+        DefaultData data = Data.create();
+        data.add("age", "gender");
+        data.add("34", "male");
+        DataHandle handle = data.getHandle();
+
+        // Add
+        try {
+            data.add("45", "female");
+            fail("Rows must not be added after the data handle has been obtained");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+
+        // The handle is unchanged
+        assertEquals(1, handle.getNumRows());
+        assertEquals("male", handle.getValue(0, 1));
+    }
+
+    /**
+     * Tests writing CSV data directly from the encoded representation
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testEncodedOutput() throws IOException {
+
+        // Syntactical corner cases
+        DefaultData data = Data.create();
+        data.add("#a", "b;", " c ");
+        data.add("\"q\"", "", "line\nbreak");
+        data.add("", "", "");
+        data.add("*", "e\"f", "g");
+        DefaultData single = Data.create();
+        single.add("a");
+        single.add("");
+        single.add("b");
+        
+        // Anonymized dataset
+        ARXResult result = anonymize(StorageType.HEAP);
+        
+        // Compare
+        for (DataHandle handle : new DataHandle[] { data.getHandle(), single.getHandle(), result.getInput(), result.getOutput(), result.getOutput().getView() }) {
+            for (CSVSyntax syntax : new CSVSyntax[] { new CSVSyntax(';'), new CSVSyntax(',', '\'', '\\', "\r\n") }) {
+                ByteArrayOutputStream expected = new ByteArrayOutputStream();
+                handle.save(expected, syntax);
+                ByteArrayOutputStream actual = new ByteArrayOutputStream();
+                handle.save(actual, Charset.defaultCharset(), syntax);
+                assertTrue(Arrays.equals(expected.toByteArray(), actual.toByteArray()));
+            }
+        }
+    }
+
+    /**
+     * Tests writing and reading data in binary format
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testBinaryFormat() throws IOException {
+
+        // Prepare
+        ARXResult result = anonymize(StorageType.HEAP);
+        File file = File.createTempFile("arx", ".bin");
+        file.deleteOnExit();
+        
+        // Input and output data
+        for (DataHandle handle : new DataHandle[] { result.getInput(), result.getOutput() }) {
+            String[][] expected = iteratorToArray(handle.iterator());
+            handle.saveBinary(file);
+            for (StorageType storage : StorageType.values()) {
+                
+                // Moved to the storage type afterwards or read into it directly
+                Data moved = Data.createFromBinary(file);
+                moved.setStorageType(storage);
+                Data direct = Data.createFromBinary(file, storage);
+                assertEquals(storage, direct.getStorageType());
+                for (Data data : new Data[] { moved, direct }) {
+                    DataHandle loaded = data.getHandle();
+                    assertTrue(Arrays.deepEquals(expected, iteratorToArray(loaded.iterator())));
+                    
+                    // Dictionary identical to importing the data from CSV
+                    Data imported = Data.create(Arrays.asList(expected));
+                    DataHandle reference = imported.getHandle();
+                    for (int column = 0; column < expected[0].length; column++) {
+                        assertTrue(Arrays.equals(reference.getDistinctValues(column), loaded.getDistinctValues(column)));
+                    }
+                }
+            }
+        }
+        
+        // Streams are not read beyond the data
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        result.getInput().saveBinary(out);
+        result.getOutput().saveBinary(out);
+        out.write(42);
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        assertTrue(Arrays.deepEquals(iteratorToArray(result.getInput().iterator()),
+                                     iteratorToArray(Data.createFromBinary(in).getHandle().iterator())));
+        assertTrue(Arrays.deepEquals(iteratorToArray(result.getOutput().iterator()),
+                                     iteratorToArray(Data.createFromBinary(in, StorageType.OFF_HEAP).getHandle().iterator())));
+        assertEquals(42, in.read());
+        assertEquals(-1, in.read());
+        
+        // Errors are reported when creating the data object
+        Files.write(file.toPath(), new byte[] { 1, 2, 3, 4 });
+        try {
+            Data.createFromBinary(file);
+            fail("Invalid file not detected");
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+
+    /**
+     * Tests importing CSV files via memory-mapping
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testMemoryMappedImport() throws IOException {
+
+        // Prepare
+        CSVOptions options = new CSVOptions(512);
+        options.setMemoryMapped(true);
+        
+        // Syntactical corner cases
+        File file = File.createTempFile("arx", ".csv");
+        file.deleteOnExit();
+        String content = "a; b ;\"c\"\r\n" +
+                         "1;\" 2 \";\"x\"\"y\"\r\n" +
+                         "\r\n" +
+                         "\"line\r\nbreak\";;\u00e4\r\n" +
+                         "1; 2 ;\"unterminated";
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        for (CSVSyntax syntax : new CSVSyntax[] { new CSVSyntax(';', '"', '"', "\r\n"), new CSVSyntax(';', '"', '"', "\n") }) {
+            String[][] expected = iteratorToArray(new CSVDataInput(file, StandardCharsets.UTF_8, syntax, new CSVOptions(512)).iterator());
+            assertTrue(Arrays.deepEquals(expected, iteratorToArray(new CSVDataInput(file, StandardCharsets.UTF_8, syntax, options).iterator())));
+        }
+        
+        // Dataset, sequentially and in parallel
+        file = new File("./data/adult.csv");
+        String[][] expected = iteratorToArray(new CSVDataInput(file, StandardCharsets.UTF_8, ';').iterator());
+        for (int parallelism = 1; parallelism <= 4; parallelism += 3) {
+            options.setParallelism(parallelism);
+            Data data = Data.create(file, StandardCharsets.UTF_8, new CSVSyntax(';'), options);
+            assertTrue(Arrays.deepEquals(expected, iteratorToArray(data.getHandle().iterator())));
+        }
+    }
+
+    /**
+     * Tests importing a CSV file in parallel chunks
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testParallelImport() throws IOException {
+
+        // Read records
+        File file = new File("./data/adult.csv");
+        String[][] expected = iteratorToArray(new CSVDataInput(file, StandardCharsets.UTF_8, ';').iterator());
+        
+        // Split into chunks
+        CSVOptions options = new CSVOptions(512);
+        options.setParallelism(4);
+        assertEquals(4, new CSVDataChunks(file, StandardCharsets.UTF_8, new CSVSyntax(';'), options, 4).getNumChunks());
+        
+        // Import with different storage types
+        for (StorageType storage : StorageType.values()) {
+            Data data = Data.create(file, StandardCharsets.UTF_8, new CSVSyntax(';'), options);
+            data.setStorageType(storage);
+            assertTrue(Arrays.deepEquals(expected, iteratorToArray(data.getHandle().iterator())));
+        }
+        
+        // Quoted line breaks and escaped quotes in all records, so that they occur near the split points
+        file = File.createTempFile("arx", ".csv");
+        file.deleteOnExit();
+        for (Charset charset : new Charset[] { StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1 }) {
+            for (char delimiter : new char[] { ';', '\u00a7' }) {
+                expected = createQuotedFile(file, charset, delimiter, 2000);
+                CSVSyntax syntax = new CSVSyntax(delimiter);
+                
+                // Syntactical characters which are not encoded as a single byte are not supported
+                boolean supported = delimiter == ';' || charset.equals(StandardCharsets.ISO_8859_1);
+                assertEquals(supported ? 4 : 1, new CSVDataChunks(file, charset, syntax, options, 4).getNumChunks());
+                for (boolean mapped : new boolean[] { false, true }) {
+                    options.setMemoryMapped(mapped);
+                    Data data = Data.create(file, charset, syntax, options);
+                    assertTrue(Arrays.deepEquals(expected, iteratorToArray(data.getHandle().iterator())));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that errors are reported when creating data from a CSV file which is imported in parallel
+     *
+     * @throws IOException
+     */
+    @Test(expected = FileNotFoundException.class)
+    public void testParallelImportMissingFile() throws IOException {
+        CSVOptions options = new CSVOptions(512);
+        options.setParallelism(4);
+        Data.create(new File("./data/missing.csv"), StandardCharsets.UTF_8, new CSVSyntax(';'), options);
+    }
+
+    /**
+     * Writes a file with quoted values containing line breaks and escaped quotes
+     * and returns the records
+     *
+     * @param file
+     * @param charset
+     * @param delimiter
+     * @param rows
+     * @return
+     * @throws IOException
+     */
+    private String[][] createQuotedFile(File file, Charset charset, char delimiter, int rows) throws IOException {
+        String[][] records = new String[rows + 1][];
+        records[0] = new String[] { "a", "b", "c" };
+        StringBuilder builder = new StringBuilder();
+        builder.append("a").append(delimiter).append("b").append(delimiter).append("c\n");
+        for (int i = 0; i < rows; i++) {
+            StringBuilder value = new StringBuilder();
+            StringBuilder quoted = new StringBuilder();
+            for (int j = 0; j <= i % 20; j++) {
+                value.append("line ").append(j).append(delimiter).append(" with \"quotes\"\n");
+                quoted.append("line ").append(j).append(delimiter).append(" with \"\"quotes\"\"\n");
+            }
+            value.append("end");
+            quoted.append("end");
+            records[i + 1] = new String[] { "r" + i, value.toString(), "\"" + i + "\"" };
+            builder.append("r").append(i).append(delimiter);
+            builder.append("\"").append(quoted).append("\"").append(delimiter);
+            builder.append("\"\"\"").append(i).append("\"\"\"\n");
+        }
+        Files.write(file.toPath(), builder.toString().getBytes(charset));
+        return records;
+    }
+
+    /**
+     * Anonymizes the adult dataset with the given storage type and compares the result
+     * to the result obtained when storing data on the heap
+     *
+     * @param storage
+     * @throws IOException
+     */
+    private void compare(StorageType storage) throws IOException {
+
+        // Heap
+        DataHandle expected = anonymize(StorageType.HEAP).getOutput();
+        ARXResult result = anonymize(storage);
+        DataHandle actual = result.getOutput();
+
+        // Compare
+        assertEquals(expected.getNumRows(), actual.getNumRows());
+        assertEquals(expected.getNumColumns(), actual.getNumColumns());
+        assertTrue(Arrays.deepEquals(iteratorToArray(expected.iterator()), iteratorToArray(actual.iterator())));
+    }
+
+    /**
+     * Anonymizes the adult dataset
+     *
+     * @param storage
+     * @return
+     * @throws IOException
+     */
+    private ARXResult anonymize(StorageType storage) throws IOException {
+        ARXConfiguration config = ARXConfiguration.create(0.04d, Metric.createLossMetric());
+        config.addPrivacyModel(new KAnonymity(5));
+        Data data = AbstractAnonymizationTest.getDataObject(new ARXAnonymizationTestCase(config, "./data/adult.csv", 0d, null, false));
+        data.setStorageType(storage);
+        return new ARXAnonymizer().anonymize(data, config);
+    }
+}
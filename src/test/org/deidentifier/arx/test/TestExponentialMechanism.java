@@ -0,0 +1,62 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import java.util.Random;
+
+import org.deidentifier.arx.dp.ExponentialMechanism;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests that sampling from candidates with precomputed exponents is identical
+ * to sampling from a distribution that has been set explicitly
+ *
+ * @author Fabian Prasser
+ */
+public class TestExponentialMechanism {
+
+    @Test
+    public void testSampling() {
+
+        // Prepare
+        Random random = new Random(0xCAFE);
+        ExponentialMechanism<Integer> distribution = new ExponentialMechanism<Integer>(0.1d, true);
+        ExponentialMechanism<Integer> candidates = new ExponentialMechanism<Integer>(0.1d, true);
+
+        // For different numbers of candidates
+        for (int size = 1; size <= 200; size++) {
+
+            // Create candidates
+            Integer[] values = new Integer[size];
+            double[] scores = new double[size];
+            double[] exponents = new double[size + 10];
+            for (int i = 0; i < size; i++) {
+                values[i] = i;
+                scores[i] = -random.nextInt(1000) * random.nextDouble();
+                exponents[i] = candidates.getExponent(scores[i]);
+            }
+
+            // Compare
+            distribution.setDistribution(values, scores);
+            for (int i = 0; i < 10; i++) {
+                Assert.assertEquals(distribution.sample(), candidates.sample(values, exponents, size));
+            }
+        }
+    }
+}
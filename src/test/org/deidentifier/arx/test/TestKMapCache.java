@@ -0,0 +1,187 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXPopulationModel;
+import org.deidentifier.arx.AttributeType;
+import org.deidentifier.arx.AttributeType.Hierarchy.DefaultHierarchy;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.Data.DefaultData;
+import org.deidentifier.arx.criteria.KMap;
+import org.deidentifier.arx.criteria.KMap.CellSizeEstimator;
+import org.deidentifier.arx.criteria.KMapTestSupport;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that cached estimates of k-map equal estimates which have been computed without the cache
+ *
+ * @author Fabian Prasser
+ */
+public class TestKMapCache {
+
+    /** Number of records */
+    private static final int      ROWS         = 100;
+
+    /** Population sizes */
+    private static final long[]   POPULATION   = { 1231L, 4567L, 89017L };
+
+    /** Values of k */
+    private static final int[]    K            = { 2, 5, 20 };
+
+    /** Significance levels */
+    private static final double[] SIGNIFICANCE = { 0.01d, 0.05d };
+
+    /**
+     * Starts with an empty cache
+     */
+    @Before
+    public void setUp() {
+        KMapTestSupport.clearCache();
+    }
+
+    /**
+     * Leaves an empty cache
+     */
+    @After
+    public void tearDown() {
+        KMapTestSupport.setCacheEnabled(true);
+        KMapTestSupport.clearCache();
+    }
+
+    /**
+     * Compares computed and cached estimates, also after the entries have been evicted from the cache
+     * @throws IOException
+     */
+    @Test
+    public void testCache() throws IOException {
+
+        // Compute and compare with cached estimates
+        List<KMap> first = compare();
+
+        // Evict
+        for (int i = 0; i < 300; i++) {
+            anonymize(CellSizeEstimator.POISSON, 2, 0.01d, 100000L + i);
+        }
+
+        // Compare with estimates computed again
+        List<KMap> second = compare();
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).getDerivedK(), second.get(i).getDerivedK());
+            assertEquals(first.get(i).getType1Error(), second.get(i).getType1Error(), 0d);
+        }
+    }
+
+    /**
+     * Compares estimates for parameters differing in a single component
+     * @throws IOException
+     */
+    @Test
+    public void testKey() throws IOException {
+        KMap reference = anonymize(CellSizeEstimator.POISSON, 5, 0.01d, 7001L);
+        KMap estimator = anonymize(CellSizeEstimator.ZERO_TRUNCATED_POISSON, 5, 0.01d, 7001L);
+        KMap k = anonymize(CellSizeEstimator.POISSON, 20, 0.01d, 7001L);
+        KMap significance = anonymize(CellSizeEstimator.POISSON, 5, 0.2d, 7001L);
+        KMap population = anonymize(CellSizeEstimator.POISSON, 5, 0.01d, 70001L);
+        assertEquals(reference.getDerivedK(), anonymize(CellSizeEstimator.POISSON, 5, 0.01d, 7001L).getDerivedK());
+        assertEquals(estimator.getType1Error(), anonymize(CellSizeEstimator.ZERO_TRUNCATED_POISSON, 5, 0.01d, 7001L).getType1Error(), 0d);
+        assertEquals(k.getType1Error(), anonymize(CellSizeEstimator.POISSON, 20, 0.01d, 7001L).getType1Error(), 0d);
+        assertEquals(significance.getType1Error(), anonymize(CellSizeEstimator.POISSON, 5, 0.2d, 7001L).getType1Error(), 0d);
+        assertEquals(population.getType1Error(), anonymize(CellSizeEstimator.POISSON, 5, 0.01d, 70001L).getType1Error(), 0d);
+        assertFalse(reference.getType1Error() == estimator.getType1Error() &&
+                            reference.getType1Error() == k.getType1Error() &&
+                            reference.getType1Error() == significance.getType1Error() &&
+                            reference.getType1Error() == population.getType1Error());
+    }
+
+    /**
+     * Computes estimates for all parameters without the cache and compares them with estimates
+     * obtained while filling the cache and from the cache
+     * @return the models with estimates computed without the cache
+     * @throws IOException
+     */
+    private List<KMap> compare() throws IOException {
+        List<KMap> result = new ArrayList<>();
+        for (CellSizeEstimator estimator : CellSizeEstimator.values()) {
+            for (long population : POPULATION) {
+                for (int k : K) {
+                    for (double significance : SIGNIFICANCE) {
+                        KMap computed;
+                        KMapTestSupport.setCacheEnabled(false);
+                        try {
+                            computed = anonymize(estimator, k, significance, population);
+                        } finally {
+                            KMapTestSupport.setCacheEnabled(true);
+                        }
+                        KMap stored = anonymize(estimator, k, significance, population);
+                        KMap cached = anonymize(estimator, k, significance, population);
+                        assertEquals(computed.getDerivedK(), stored.getDerivedK());
+                        assertEquals(computed.getType1Error(), stored.getType1Error(), 0d);
+                        assertEquals(computed.getDerivedK(), cached.getDerivedK());
+                        assertEquals(computed.getType1Error(), cached.getType1Error(), 0d);
+                        result.add(computed);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Anonymizes a small dataset with k-map and returns the initialized privacy model
+     * @param estimator
+     * @param k
+     * @param significance
+     * @param population
+     * @return
+     * @throws IOException
+     */
+    private KMap anonymize(CellSizeEstimator estimator, int k, double significance, long population) throws IOException {
+
+        // Data
+        DefaultData data = Data.create();
+        DefaultHierarchy hierarchy = AttributeType.Hierarchy.create();
+        data.add("age");
+        for (int i = 0; i < ROWS; i++) {
+            data.add(String.valueOf(i % 10));
+        }
+        for (int i = 0; i < 10; i++) {
+            hierarchy.add(String.valueOf(i), "*");
+        }
+        data.getDefinition().setAttributeType("age", hierarchy);
+
+        // Anonymize
+        KMap model = new KMap(k, significance, ARXPopulationModel.create(population), estimator);
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(model);
+        config.setSuppressionLimit(1d);
+        new ARXAnonymizer().anonymize(data, config);
+        return model;
+    }
+}
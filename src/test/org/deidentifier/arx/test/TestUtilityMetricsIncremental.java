@@ -0,0 +1,176 @@
+/*
+ * ARX Data Anonymization Tool
+ * Copyright 2012 - 2024 Fabian Prasser and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataSubset;
+import org.deidentifier.arx.criteria.DPresence;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.InformationLoss;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.metric.Metric.AggregateFunction;
+import org.deidentifier.arx.metric.v2.MetricMDNMLoss;
+import org.deidentifier.arx.test.AbstractTestUtilityMetricsPrecomputation.ARXUtilityMetricsTestCase;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Compares the incremental evaluation of the loss metric with a full pass over all classes
+ *
+ * @author Fabian Prasser
+ */
+@RunWith(Parameterized.class)
+public class TestUtilityMetricsIncremental {
+
+    /**
+     * Loss metric which always evaluates all classes, as previous versions did
+     *
+     * @author Fabian Prasser
+     */
+    public static class MetricMDNMLossFullPass extends MetricMDNMLoss {
+
+        /** SVUID */
+        private static final long serialVersionUID = -4327810372497587406L;
+
+        /**
+         * Creates a new instance
+         * @param gsFactor
+         * @param function
+         */
+        public MetricMDNMLossFullPass(double gsFactor, AggregateFunction function) {
+            super(gsFactor, function);
+        }
+
+        @Override
+        protected double[] getLossOfGeneralization(int[] transformation) {
+            return null;
+        }
+    }
+
+    /** Tolerance per attribute. Normalized values are rounded down to ten digits, which may differ by one unit. */
+    private static final double TOLERANCE = 1e-9d;
+
+    /**
+     * Returns the test cases
+     * 
+     * @return
+     * @throws IOException
+     */
+    @Parameters(name = "{index}:[{0}]")
+    public static Collection<Object[]> cases() throws IOException {
+        return Arrays.asList(new Object[][] {
+                                              { new ARXUtilityMetricsTestCase(ARXConfiguration.create(0.0d).addPrivacyModel(new KAnonymity(5)), "occupation", "./data/adult.csv", Metric.createLossMetric(0.5d, AggregateFunction.RANK), new MetricMDNMLossFullPass(0.5d, AggregateFunction.RANK)) },
+                                              { new ARXUtilityMetricsTestCase(ARXConfiguration.create(0.5d).addPrivacyModel(new KAnonymity(5)), "occupation", "./data/adult.csv", Metric.createLossMetric(0.3d, AggregateFunction.RANK), new MetricMDNMLossFullPass(0.3d, AggregateFunction.RANK)) },
+                                              { new ARXUtilityMetricsTestCase(ARXConfiguration.create(0.5d).addPrivacyModel(new KAnonymity(5)), "occupation", "./data/adult.csv", Metric.createLossMetric(0.5d, AggregateFunction.RANK), new MetricMDNMLossFullPass(0.5d, AggregateFunction.RANK)) },
+                                              { new ARXUtilityMetricsTestCase(ARXConfiguration.create(0.5d).addPrivacyModel(new KAnonymity(5)), "occupation", "./data/adult.csv", Metric.createLossMetric(0.7d, AggregateFunction.RANK), new MetricMDNMLossFullPass(0.7d, AggregateFunction.RANK)) },
+                                              { new ARXUtilityMetricsTestCase(ARXConfiguration.create(0.9d).addPrivacyModel(new KAnonymity(5)), "occupation", "./data/adult.csv", Metric.createPrecomputedLossMetric(1d, 0.3d, AggregateFunction.RANK), new MetricMDNMLossFullPass(0.3d, AggregateFunction.RANK)) },
+                                              { new ARXUtilityMetricsTestCase(ARXConfiguration.create(0.5d).addPrivacyModel(new DPresence(0.05, 0.15, DataSubset.create(Data.create("./data/adult.csv", StandardCharsets.UTF_8, ';'), Data.create("./data/adult_subset.csv", StandardCharsets.UTF_8, ';')))), "occupation", "./data/adult.csv", Metric.createLossMetric(0.7d, AggregateFunction.RANK), new MetricMDNMLossFullPass(0.7d, AggregateFunction.RANK)) },
+                                              { new ARXUtilityMetricsTestCase(ARXConfiguration.create(0.5d).addPrivacyModel(new DPresence(0.05, 0.15, DataSubset.create(Data.create("./data/adult.csv", StandardCharsets.UTF_8, ';'), Data.create("./data/adult_subset.csv", StandardCharsets.UTF_8, ';')))), "occupation", "./data/adult.csv", Metric.createPrecomputedLossMetric(1d, 0.5d, AggregateFunction.RANK), new MetricMDNMLossFullPass(0.5d, AggregateFunction.RANK)) },
+        });
+    }
+
+    /** The test case. */
+    private final ARXUtilityMetricsTestCase testcase;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param testCase
+     */
+    public TestUtilityMetricsIncremental(final ARXUtilityMetricsTestCase testCase) {
+        this.testcase = testCase;
+    }
+
+    /**
+     * Compares the information loss of all transformations checked with both metrics
+     *
+     * @throws IOException
+     */
+    @Test
+    public void test() throws IOException {
+
+        // Anonymize
+        Map<String, ARXNode> incremental = getCheckedTransformations(testcase.m1);
+        Map<String, ARXNode> reference = getCheckedTransformations(testcase.m2);
+
+        // Compare
+        int compared = 0;
+        for (Map.Entry<String, ARXNode> entry : incremental.entrySet()) {
+            ARXNode other = reference.get(entry.getKey());
+            if (other != null) {
+                assertEqualLoss(entry.getKey(), other.getHighestScore(), entry.getValue().getHighestScore());
+                assertEqualLoss(entry.getKey(), other.getLowestScore(), entry.getValue().getLowestScore());
+                compared++;
+            }
+        }
+        assertTrue("No transformations compared", compared > 0);
+    }
+
+    /**
+     * Asserts that both losses are equal within the tolerance
+     * @param transformation
+     * @param expected
+     * @param actual
+     */
+    private void assertEqualLoss(String transformation, InformationLoss<?> expected, InformationLoss<?> actual) {
+        double[] expectedValues = (double[]) expected.getValue();
+        double[] actualValues = (double[]) actual.getValue();
+        assertEquals(expectedValues.length, actualValues.length);
+        for (int i = 0; i < expectedValues.length; i++) {
+            assertEquals(transformation, expectedValues[i], actualValues[i], TOLERANCE);
+        }
+    }
+
+    /**
+     * Anonymizes the dataset and returns all transformations which have been checked
+     * @param metric
+     * @return
+     * @throws IOException
+     */
+    private Map<String, ARXNode> getCheckedTransformations(Metric<?> metric) throws IOException {
+        ARXConfiguration config = testcase.config.clone();
+        config.setQualityModel(metric);
+        ARXResult result = new ARXAnonymizer().anonymize(AbstractTestUtilityMetricsPrecomputation.getDataObject(testcase), config);
+        Map<String, ARXNode> nodes = new HashMap<>();
+        for (ARXNode[] level : result.getLattice().getLevels()) {
+            for (ARXNode node : level) {
+                if (node.isChecked()) {
+                    nodes.put(Arrays.toString(node.getTransformation()), node);
+                }
+            }
+        }
+        return nodes;
+    }
+}